@@ -14,6 +14,7 @@ import com.microsoft.azure.functions.annotation.QueueOutput;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
 import java.util.Optional;
+import java.util.UUID;
 import java.util.logging.Level;
 
 public class WebhookReceiver {
@@ -53,6 +54,8 @@ public class WebhookReceiver {
             queueMessage.addProperty("webhookToken", token);
             queueMessage.add("payload", payload);
             queueMessage.addProperty("receivedAt", System.currentTimeMillis());
+            // Lets the server drop redeliveries of this exact signal
+            queueMessage.addProperty("idempotencyKey", resolveIdempotencyKey(request, payload));
 
             String finalJson = gson.toJson(queueMessage);
 
@@ -71,4 +74,26 @@ public class WebhookReceiver {
                     .body("Invalid JSON").build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Caller-supplied key (Idempotency-Key header, or "idempotency_key" in the
+     * body for senders that cannot set headers), else a fresh UUID per call.
+     */
+    private String resolveIdempotencyKey(HttpRequestMessage<Optional<String>> request, JsonObject payload) {
+        String headerKey = request.getHeaders().get("idempotency-key");
+        if (isUsableKey(headerKey)) {
+            return headerKey;
+        }
+        if (payload != null && payload.has("idempotency_key") && payload.get("idempotency_key").isJsonPrimitive()) {
+            String payloadKey = payload.get("idempotency_key").getAsString();
+            if (isUsableKey(payloadKey)) {
+                return payloadKey;
+            }
+        }
+        return UUID.randomUUID().toString();
+    }
+
+    private boolean isUsableKey(String key) {
+        return key != null && !key.isBlank() && key.length() <= 64;
+    }
+}
@@ -0,0 +1,40 @@
+-- bot_signals.idempotency_key: backfill legacy rows, NOT NULL, unique per bot
+--
+-- Run once against the SQL Server database BEFORE deploying the build that
+-- maps idempotency_key as NOT NULL. Prod runs ddl-auto: validate, which
+-- neither alters the column nor creates uk_bot_signal_idempotency; without
+-- this script the database never rejects a redelivered signal.
+--
+-- Rows stored before idempotency keys existed have NULL, and SQL Server
+-- treats NULLs as equal in a unique constraint, so they get a key of their
+-- own derived from the row id. New rows always carry one (webhook key, or
+-- the queue message id as fallback).
+--
+-- The script is idempotent. Dev (MySQL, ddl-auto: update) only needs step 1
+-- and 2 if it holds legacy rows; Hibernate adds the constraint itself.
+
+SET XACT_ABORT ON;
+BEGIN TRANSACTION;
+
+-- 0. Stops here if stored signals already share a key; resolve those by
+--    hand first (bot_trades reference the signal ids)
+IF EXISTS (SELECT 1 FROM bot_signals
+           WHERE idempotency_key IS NOT NULL
+           GROUP BY bot_id, idempotency_key
+           HAVING COUNT(*) > 1)
+    THROW 50001, 'bot_signals has duplicate (bot_id, idempotency_key) rows', 1;
+
+-- 1. Legacy rows get a key no message can carry
+UPDATE bot_signals
+SET idempotency_key = CONCAT('legacy:', CONVERT(varchar(36), id))
+WHERE idempotency_key IS NULL;
+
+-- 2. Matches @Column(name = "idempotency_key", length = 100, nullable = false)
+ALTER TABLE bot_signals ALTER COLUMN idempotency_key varchar(100) NOT NULL;
+
+-- 3. Matches @UniqueConstraint(name = "uk_bot_signal_idempotency")
+IF NOT EXISTS (SELECT 1 FROM sys.key_constraints WHERE name = 'uk_bot_signal_idempotency')
+    ALTER TABLE bot_signals
+        ADD CONSTRAINT uk_bot_signal_idempotency UNIQUE (bot_id, idempotency_key);
+
+COMMIT TRANSACTION;
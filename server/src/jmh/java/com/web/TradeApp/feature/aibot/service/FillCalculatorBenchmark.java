@@ -0,0 +1,90 @@
+package com.web.TradeApp.feature.aibot.service;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * One chunk worth of fills (BUY and SELL per subscriber) through the
+ * {@code BigDecimal} calculator versus the fixed-point kernel.
+ *
+ * Run with {@code ./gradlew jmh}; add {@code -prof gc} via {@code jmh.profilers}
+ * to compare allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FillCalculatorBenchmark {
+
+    private static final int SUBSCRIBERS = 500;
+
+    private final BigDecimal price = new BigDecimal("64123.45");
+    private final BigDecimal systemFee = new BigDecimal("0.0010");
+    private final BigDecimal botFee = new BigDecimal("0.0200");
+
+    private BigDecimal[] balances;
+    private BigDecimal[] percentages;
+    private BigDecimal[] holdingAmounts;
+    private BigDecimal[] averagePrices;
+    private BigDecimal[] botCoins;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(7);
+        balances = new BigDecimal[SUBSCRIBERS];
+        percentages = new BigDecimal[SUBSCRIBERS];
+        holdingAmounts = new BigDecimal[SUBSCRIBERS];
+        averagePrices = new BigDecimal[SUBSCRIBERS];
+        botCoins = new BigDecimal[SUBSCRIBERS];
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            // Column scales: balance 6, percentage 4, holding 8, bot coin 18
+            balances[i] = BigDecimal.valueOf(100_000_000L + random.nextInt(2_000_000_000), 6);
+            percentages[i] = BigDecimal.valueOf(500 + random.nextInt(9_500), 4);
+            holdingAmounts[i] = BigDecimal.valueOf(random.nextInt(500_000_000), 8);
+            averagePrices[i] = BigDecimal.valueOf(5_000_000_000_000L + random.nextInt(1_000_000_000), 8);
+            botCoins[i] = BigDecimal.valueOf(random.nextInt(500_000_000), 8).setScale(18);
+        }
+    }
+
+    @Benchmark
+    public void bigDecimal(Blackhole bh) {
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            BigDecimal gross = TradeFillCalculator.buyNotional(balances[i], percentages[i]);
+            BigDecimal quantity = TradeFillCalculator.buyQuantity(gross, price, systemFee, botFee);
+            bh.consume(TradeFillCalculator.averageBuyPrice(holdingAmounts[i].add(quantity), averagePrices[i],
+                    gross));
+
+            BigDecimal toSell = TradeFillCalculator.sellQuantity(botCoins[i], percentages[i]);
+            bh.consume(TradeFillCalculator.sellProceeds(toSell.multiply(price), systemFee, botFee));
+        }
+    }
+
+    @Benchmark
+    public void fixedPoint(Blackhole bh) {
+        // Created once per chunk, as the fan-out engine does
+        FixedPointFillCalculator fills = new FixedPointFillCalculator(price, systemFee, botFee);
+        for (int i = 0; i < SUBSCRIBERS; i++) {
+            BigDecimal gross = fills.buyNotional(balances[i], percentages[i]);
+            BigDecimal quantity = fills.buyQuantity(gross);
+            bh.consume(fills.averageBuyPrice(holdingAmounts[i].add(quantity), averagePrices[i], gross));
+
+            BigDecimal toSell = fills.sellQuantity(botCoins[i], percentages[i]);
+            bh.consume(fills.sellProceeds(toSell));
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package com.web.TradeApp.feature.ingestion;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.web.TradeApp.feature.aibot.model.Bot;
+import com.web.TradeApp.feature.aibot.model.BotSignal;
+import com.web.TradeApp.feature.aibot.repository.BotRepository;
+import com.web.TradeApp.feature.aibot.repository.BotSignalRepository;
+import com.web.TradeApp.feature.aibot.service.subscription.BotSubscriptionService;
+import com.web.TradeApp.feature.ingestion.event.SignalReceivedEvent;
+import com.web.TradeApp.feature.ingestion.source.InMemorySignalSource;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * A burst of webhook envelopes through the whole ingestion path:
+ * {@link InMemorySignalSource} -> {@link TradeQueueListener} workers (parse,
+ * credential lookup, dedup claim, batch persist, ack) -> {@link SignalDispatcher}
+ * lanes. One operation ends when every signal of the burst has reached its
+ * bot's fan-out.
+ *
+ * The database and the fan-out are stubbed out (ids assigned in memory, the
+ * fan-out only counts down), so this measures the pipeline's own overhead and
+ * how it scales with workers. Run with {@code ./gradlew jmh}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SignalIngestionBenchmark {
+
+    private static final int BOTS = 32;
+    private static final int BURST = 2_000;
+
+    @Param({ "1", "4" })
+    public int workers;
+
+    private final AtomicLong keys = new AtomicLong();
+    private final String[] envelopePrefixes = new String[BOTS];
+
+    private InMemorySignalSource source;
+    private TradeQueueListener listener;
+    private SignalDispatcher dispatcher;
+    private volatile CountDownLatch fannedOut;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        Map<String, Bot> botsByToken = new HashMap<>();
+        for (int i = 0; i < BOTS; i++) {
+            Bot bot = Bot.builder()
+                    .name("bench-" + i)
+                    .coinSymbol("BTC")
+                    .apiKey("token-" + i)
+                    .apiSecret("secret-" + i)
+                    .build();
+            bot.setId(UUID.randomUUID());
+            botsByToken.put(bot.getApiKey(), bot);
+            envelopePrefixes[i] = "{\"webhookToken\":\"token-" + i + "\",\"payload\":{\"secret_key\":\"secret-" + i
+                    + "\",\"action\":\"" + (i % 2 == 0 ? "LONG" : "SHORT")
+                    + "\",\"price\":64123.45,\"symbol\":\"BTC\"},\"idempotencyKey\":\"";
+        }
+
+        BotRepository botRepository = stub(BotRepository.class, (method, args) -> switch (method) {
+            case "findByApiKey" -> Optional.ofNullable(botsByToken.get((String) args[0]));
+            default -> throw new UnsupportedOperationException(method);
+        });
+        // Stands in for the batch insert: assigns the ids the dispatcher keys on
+        BotSignalRepository botSignalRepository = stub(BotSignalRepository.class, (method, args) -> switch (method) {
+            case "saveAll" -> {
+                List<BotSignal> saved = new ArrayList<>();
+                for (Object signal : (Iterable<?>) args[0]) {
+                    ((BotSignal) signal).setId(UUID.randomUUID());
+                    saved.add((BotSignal) signal);
+                }
+                yield saved;
+            }
+            default -> throw new UnsupportedOperationException(method);
+        });
+        BotSubscriptionService fanOut = stub(BotSubscriptionService.class, (method, args) -> switch (method) {
+            case "processSubscriptions" -> {
+                fannedOut.countDown();
+                yield null;
+            }
+            default -> throw new UnsupportedOperationException(method);
+        });
+
+        source = new InMemorySignalSource(registry, BURST * 2, 256);
+        dispatcher = new SignalDispatcher(fanOut, botSignalRepository, registry, BURST);
+        ApplicationEventPublisher publisher = event -> dispatcher.onSignalReceived((SignalReceivedEvent) event);
+        listener = new TradeQueueListener(
+                new BotCredentialCache(botRepository, registry, BOTS * 2, 16, 600, 60),
+                new SignalDeduplicator(registry, 600, 1_000_000),
+                botSignalRepository,
+                new ObjectMapper(),
+                source,
+                publisher,
+                new NoOpTransactionManager());
+        set(listener, "workerCount", workers);
+        set(listener, "pollWaitMs", 100L);
+        set(listener, "errorBackoffMs", 100L);
+        listener.start();
+    }
+
+    @TearDown
+    public void tearDown() {
+        listener.stop();
+        dispatcher.stop();
+    }
+
+    @Benchmark
+    public void burst() throws InterruptedException {
+        fannedOut = new CountDownLatch(BURST);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < BURST; i++) {
+            String envelope = envelopePrefixes[i % BOTS] + "k-" + keys.incrementAndGet() + "\",\"receivedAt\":"
+                    + now + "}";
+            if (!source.offer(envelope)) {
+                throw new IllegalStateException("Signal buffer full");
+            }
+        }
+        if (!fannedOut.await(30, TimeUnit.SECONDS)) {
+            throw new IllegalStateException(fannedOut.getCount() + " signals never reached the fan-out");
+        }
+    }
+
+    private interface Handler {
+        Object handle(String method, Object[] args);
+    }
+
+    private static <T> T stub(Class<T> type, Handler handler) {
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> type.getSimpleName() + " stub";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> handler.handle(method.getName(), args);
+                }));
+    }
+
+    private static void set(Object target, String field, Object value) throws ReflectiveOperationException {
+        Field f = target.getClass().getDeclaredField(field);
+        f.setAccessible(true);
+        f.set(target, value);
+    }
+
+    // Every batch "commits" at once; nothing is written
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
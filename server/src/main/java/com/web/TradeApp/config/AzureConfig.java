@@ -3,20 +3,19 @@ package com.web.TradeApp.config;
 import com.azure.storage.queue.QueueClient;
 import com.azure.storage.queue.QueueClientBuilder;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
 @Configuration
 public class AzureConfig {
 
-    @Value("${azure.storage.connection-string}")
-    private String connectionString;
-
-    @Value("${azure.storage.queue-name}")
-    private String queueName;
-
+    // Only needed when signals come from the Azure queue (ingestion.source=azure)
     @Bean
-    public QueueClient queueClient() {
+    @ConditionalOnProperty(name = "ingestion.source", havingValue = "azure", matchIfMissing = true)
+    public QueueClient queueClient(
+            @Value("${azure.storage.connection-string}") String connectionString,
+            @Value("${azure.storage.queue-name}") String queueName) {
         return new QueueClientBuilder()
                 .connectionString(connectionString)
                 .queueName(queueName)
@@ -44,7 +44,8 @@ public class SecurityConfig {
                         "/swagger-ui.html",
                         "/swagger-ui/**",
                         "/v3/api-docs/**",
-                        "/test/**"
+                        "/test/**",
+                        "/webhook/**" // Local signal webhook (ingestion.source=webhook), authenticated by bot secret
         };
         private final String[] ADMIN = {
                         "/admin", "/admin/**",
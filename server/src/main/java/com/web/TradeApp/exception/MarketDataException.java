@@ -0,0 +1,24 @@
+package com.web.TradeApp.exception;
+
+/**
+ * A market-data call that did not produce a usable response: transport error,
+ * timeout, non-2xx status, or refused locally (rate limit / open circuit).
+ */
+public class MarketDataException extends RuntimeException {
+
+    private final int status; // HTTP status, 0 when no response was received
+
+    public MarketDataException(String message, int status) {
+        super(message);
+        this.status = status;
+    }
+
+    public MarketDataException(String message, Throwable cause) {
+        super(message, cause);
+        this.status = 0;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+}
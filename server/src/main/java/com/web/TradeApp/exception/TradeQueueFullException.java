@@ -0,0 +1,7 @@
+package com.web.TradeApp.exception;
+
+public class TradeQueueFullException extends RuntimeException {
+    public TradeQueueFullException(String message) {
+        super(message);
+    }
+}
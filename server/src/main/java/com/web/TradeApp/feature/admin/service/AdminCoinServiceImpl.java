@@ -3,6 +3,7 @@ package com.web.TradeApp.feature.admin.service;
 import java.math.BigDecimal;
 import java.util.List;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -18,6 +19,7 @@ import com.web.TradeApp.feature.coin.dto.CoinInfoResponse;
 import com.web.TradeApp.feature.coin.entity.Coin;
 import com.web.TradeApp.feature.coin.entity.CoinHolding;
 import com.web.TradeApp.feature.coin.entity.Wallet;
+import com.web.TradeApp.feature.coin.event.CoinCatalogChangedEvent;
 import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
 import com.web.TradeApp.feature.coin.repository.CoinRepository;
 import com.web.TradeApp.feature.coin.service.CoinGeckoClient;
@@ -37,7 +39,9 @@ public class AdminCoinServiceImpl implements AdminCoinService {
         private final CoinHoldingRepository coinHoldingRepository;
         private final InventoryHistoryRepository historyRepository;
         private final AdminServiceImpl adminService; // Use the new helper
+        private final AdminTreasury adminTreasury;
         private final CoinGeckoClient coinGeckoClient; // Assuming this exists
+        private final ApplicationEventPublisher eventPublisher;
 
         // =========================================================================
         // COIN MANAGEMENT (MINT / BURN)
@@ -46,8 +50,8 @@ public class AdminCoinServiceImpl implements AdminCoinService {
         @Override
         @Transactional
         public CoinDepositResponse depositCoin(CoinDepositRequest request) {
-                // 1. Get Admin Wallet
-                Wallet adminWallet = adminService.getAdminWallet();
+                // 1. Admin holdings change through the treasury (same path as trades)
+                AdminTreasury.Netting treasury = adminTreasury.open();
 
                 // 2. Validate Coin via External API (Optional but good safety)
                 if (!coinGeckoClient.isExists(request.getCoinGeckoId())) {
@@ -59,57 +63,44 @@ public class AdminCoinServiceImpl implements AdminCoinService {
                                 .orElseThrow(() -> new IdInvalidException(
                                                 "Coin not found in DB: " + request.getCoinGeckoId()));
 
-                // 4. Find or Create Admin's Holding for this Coin
-                CoinHolding adminHolding = coinHoldingRepository
-                                .findByWalletIdAndCoinId(adminWallet.getId(), coin.getId())
-                                .orElseGet(() -> CoinHolding.builder()
-                                                .wallet(adminWallet)
-                                                .coin(coin)
-                                                .amount(BigDecimal.ZERO)
-                                                .averageBuyPrice(BigDecimal.ZERO) // Admin gets it for free/minted
-                                                .build());
-
-                // 5. Add Quantity (Minting)
-                adminHolding.setAmount(adminHolding.getAmount().add(request.getQuantity()));
-                coinHoldingRepository.save(adminHolding);
+                // 4-5. Add Quantity (Minting); creates the admin holding on first deposit
+                treasury.creditCoin(coin, request.getQuantity());
+                treasury.flush();
 
                 // 6. Log History
                 saveHistory(coin, InventoryHistory.ActionType.DEPOSIT, request.getQuantity(), request.getNote());
 
+                // 7. Coin catalog reloads after commit (a deposit is how a coin goes live)
+                eventPublisher.publishEvent(new CoinCatalogChangedEvent(this));
+
                 return CoinDepositResponse.builder()
                                 .id(coin.getId())
                                 .coinGeckoId(coin.getCoinGeckoId())
                                 .symbol(coin.getSymbol())
                                 .name(coin.getName())
                                 .depositedQuantity(request.getQuantity())
-                                .newQuantity(adminHolding.getAmount()) // Return holding amount
+                                .newQuantity(currentAdminAmount(coin)) // Return holding amount
                                 .build();
         }
 
         @Override
         @Transactional
         public CoinWithdrawResponse withdrawCoin(CoinWithdrawRequest request) {
-                // 1. Get Admin Wallet & Coin
-                Wallet adminWallet = adminService.getAdminWallet();
+                // 1. Get Coin (admin holdings change through the treasury)
+                AdminTreasury.Netting treasury = adminTreasury.open();
 
                 Coin coin = coinRepository.findByCoinGeckoId(request.getCoinGeckoId())
                                 .orElseThrow(() -> new IdInvalidException(
                                                 "Coin not found: " + request.getCoinGeckoId()));
 
-                CoinHolding adminHolding = coinHoldingRepository
-                                .findByWalletIdAndCoinId(adminWallet.getId(), coin.getId())
-                                .orElseThrow(() -> new IllegalArgumentException(
-                                                "Admin has no holding of " + request.getCoinGeckoId()));
-
-                // 2. Check Sufficient Balance
-                if (adminHolding.getAmount().compareTo(request.getQuantity()) < 0) {
+                // 2. Check Sufficient Balance (reserves it; in-flight trades count too)
+                if (!treasury.tryDebitCoin(coin, request.getQuantity())) {
                         throw new IllegalArgumentException(
-                                        "Insufficient Admin Funds. Has: " + adminHolding.getAmount());
+                                        "Insufficient Admin Funds. Has: " + adminTreasury.availableCoin(coin.getId()));
                 }
 
                 // 3. Subtract Quantity (Burning)
-                adminHolding.setAmount(adminHolding.getAmount().subtract(request.getQuantity()));
-                coinHoldingRepository.save(adminHolding);
+                treasury.flush();
 
                 // 4. Log History
                 saveHistory(coin, InventoryHistory.ActionType.WITHDRAW, request.getQuantity().negate(),
@@ -119,7 +110,7 @@ public class AdminCoinServiceImpl implements AdminCoinService {
                                 .id(coin.getId())
                                 .coinGeckoId(coin.getCoinGeckoId())
                                 .withdrewQuantity(request.getQuantity())
-                                .newQuantity(adminHolding.getAmount())
+                                .newQuantity(currentAdminAmount(coin))
                                 .build();
         }
 
@@ -133,6 +124,8 @@ public class AdminCoinServiceImpl implements AdminCoinService {
                         coin.setFee(item.getFee());
                         coinRepository.save(coin);
                 }
+                // Trades read fees from the coin catalog; swap it once this commits
+                eventPublisher.publishEvent(new CoinCatalogChangedEvent(this));
         }
 
         // =========================================================================
@@ -230,6 +223,12 @@ public class AdminCoinServiceImpl implements AdminCoinService {
                                 .build();
         }
 
+        private BigDecimal currentAdminAmount(Coin coin) {
+                return coinHoldingRepository.findByWalletIdAndCoinId(adminService.getAdminWalletId(), coin.getId())
+                                .map(CoinHolding::getAmount)
+                                .orElse(BigDecimal.ZERO);
+        }
+
         private void saveHistory(Coin coin, InventoryHistory.ActionType action, BigDecimal delta, String note) {
                 historyRepository.save(InventoryHistory.builder()
                                 .coin(coin)
@@ -1,7 +1,12 @@
 package com.web.TradeApp.feature.admin.service;
 
+import java.util.UUID;
+
 import com.web.TradeApp.feature.coin.entity.Wallet;
 
 public interface AdminService {
     Wallet getAdminWallet();
+
+    // Id only, cached after the first lookup (no entity load)
+    UUID getAdminWalletId();
 }
@@ -15,7 +15,7 @@ import lombok.RequiredArgsConstructor;
 public class AdminServiceImpl implements AdminService {
     private final WalletRepository walletRepo;
 
-    private UUID cachedAdminWalletId;
+    private volatile UUID cachedAdminWalletId;
     private static final String ADMIN_USERNAME = DataSeeder.uniqueAdminUsername;
 
     @Override
@@ -30,4 +30,12 @@ public class AdminServiceImpl implements AdminService {
                 .orElseThrow(() -> new RuntimeException(
                         "CRITICAL: Cached Admin Wallet ID is invalid."));
     }
+
+    @Override
+    public UUID getAdminWalletId() {
+        if (cachedAdminWalletId == null) {
+            cachedAdminWalletId = getAdminWallet().getId();
+        }
+        return cachedAdminWalletId;
+    }
 }
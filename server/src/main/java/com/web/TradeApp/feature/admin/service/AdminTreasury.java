@@ -0,0 +1,300 @@
+package com.web.TradeApp.feature.admin.service;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.web.TradeApp.exception.InsufficientBalanceException;
+import com.web.TradeApp.exception.InsufficientCoinException;
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.entity.CoinHolding;
+import com.web.TradeApp.feature.coin.entity.Wallet;
+import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
+import com.web.TradeApp.feature.coin.repository.WalletRepository;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Counterparty side of every trade: the admin wallet balance (USDT) and the
+ * admin coin holdings.
+ *
+ * Trades used to read, modify and save the admin {@code Wallet} and
+ * {@code CoinHolding} rows themselves, which serialized all trading on two
+ * rows (and could lose updates). Now a trade or fan-out chunk opens a
+ * {@link Netting}, records its admin-side debits and credits in memory, and
+ * {@link Netting#flush()} applies one aggregated delta per asset with a
+ * conditional {@code UPDATE ... WHERE balance + delta >= 0}. The database
+ * condition is what guarantees the treasury never goes negative.
+ *
+ * Liquidity checks run against an in-memory reserved-capacity counter per
+ * asset: a debit reserves capacity up front and the reservation is settled
+ * when the transaction completes. The counter is re-synced from the database
+ * periodically; if it drifts, the conditional update still rejects an overdraw.
+ * A re-sync that overlaps a flushed or settled transaction on the same asset
+ * is dropped (its read may miss or double-count that delta) and retried on
+ * the next run.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AdminTreasury {
+
+    // Capacity key for the admin wallet USDT balance (coins use their coin id)
+    private static final UUID USDT = new UUID(0L, 0L);
+
+    private final AdminService adminService;
+    private final WalletRepository walletRepo;
+    private final CoinHoldingRepository holdingRepo;
+
+    private final ConcurrentHashMap<UUID, Capacity> capacities = new ConcurrentHashMap<>();
+
+    /**
+     * Starts collecting admin-side deltas for the current transaction.
+     */
+    public Netting open() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Treasury netting requires an active transaction");
+        }
+        Netting netting = new Netting();
+        TransactionSynchronizationManager.registerSynchronization(netting);
+        return netting;
+    }
+
+    public BigDecimal availableUsdt() {
+        return capacity(USDT).available();
+    }
+
+    public BigDecimal availableCoin(UUID coinId) {
+        return capacity(coinId).available();
+    }
+
+    /**
+     * Re-reads committed admin balances so the counters cannot drift for long
+     * (e.g. after a failed settle or a manual DB fix).
+     */
+    @Scheduled(fixedDelayString = "${admin.treasury.resync-interval-ms:30000}")
+    public void resync() {
+        for (Map.Entry<UUID, Capacity> entry : capacities.entrySet()) {
+            try {
+                Capacity capacity = entry.getValue();
+                long generation = capacity.generation();
+                if (!capacity.sync(loadCommitted(entry.getKey()), generation)) {
+                    log.debug("Treasury resync of {} raced a trade; next run retries", entry.getKey());
+                }
+            } catch (Exception e) {
+                log.warn("⚠️ Treasury resync failed for {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private Capacity capacity(UUID key) {
+        Capacity capacity = capacities.get(key);
+        if (capacity != null) {
+            return capacity;
+        }
+        // Seed outside computeIfAbsent: no DB call while holding the map bin lock
+        Capacity seeded = new Capacity(loadCommitted(key));
+        Capacity existing = capacities.putIfAbsent(key, seeded);
+        return existing != null ? existing : seeded;
+    }
+
+    private BigDecimal loadCommitted(UUID key) {
+        UUID adminWalletId = adminService.getAdminWalletId();
+        if (USDT.equals(key)) {
+            return walletRepo.findById(adminWalletId)
+                    .map(Wallet::getBalance)
+                    .orElse(BigDecimal.ZERO);
+        }
+        return holdingRepo.findByWalletIdAndCoinId(adminWalletId, key)
+                .map(CoinHolding::getAmount)
+                .orElse(BigDecimal.ZERO);
+    }
+
+    /**
+     * Known committed balance minus capacity reserved by in-flight debits.
+     *
+     * {@code generation} moves on every settle and {@code unsettled} counts
+     * deltas written to the DB but not settled yet; a sync only applies when
+     * neither changed nor is pending since its read started.
+     */
+    private static final class Capacity {
+        private BigDecimal committed;
+        private BigDecimal reserved = BigDecimal.ZERO;
+        private long generation;
+        private int unsettled;
+
+        private Capacity(BigDecimal committed) {
+            this.committed = committed;
+        }
+
+        synchronized boolean tryReserve(BigDecimal amount) {
+            if (committed.subtract(reserved).compareTo(amount) < 0) {
+                return false;
+            }
+            reserved = reserved.add(amount);
+            return true;
+        }
+
+        synchronized void flushed() {
+            unsettled++;
+        }
+
+        synchronized void settle(BigDecimal reservedAmount, BigDecimal appliedDelta, boolean wasFlushed) {
+            reserved = reserved.subtract(reservedAmount);
+            committed = committed.add(appliedDelta);
+            if (wasFlushed) {
+                unsettled--;
+            }
+            generation++;
+        }
+
+        synchronized long generation() {
+            return generation;
+        }
+
+        /**
+         * Applies a DB read that started at {@code readGeneration}; returns
+         * {@code false} (and keeps the counter) if a settle or an unsettled
+         * delta overlapped the read.
+         */
+        synchronized boolean sync(BigDecimal committedInDb, long readGeneration) {
+            if (generation != readGeneration || unsettled > 0) {
+                return false;
+            }
+            committed = committedInDb;
+            return true;
+        }
+
+        synchronized BigDecimal available() {
+            return committed.subtract(reserved);
+        }
+    }
+
+    /**
+     * Admin-side deltas of one transaction (a manual trade, a single bot trade
+     * or a whole fan-out chunk). Not thread-safe; use from the owning
+     * transaction only.
+     */
+    public final class Netting implements TransactionSynchronization {
+        private final Map<UUID, BigDecimal> deltas = new HashMap<>();
+        private final Map<UUID, BigDecimal> reservations = new HashMap<>();
+        private final Map<UUID, Coin> coins = new HashMap<>();
+        // Keys whose delta reached the DB in this transaction
+        private final Set<UUID> written = new HashSet<>();
+        private boolean flushed;
+
+        private Netting() {
+        }
+
+        /**
+         * Reserves {@code amount} USDT to pay out. Returns {@code false} when the
+         * treasury cannot cover it.
+         */
+        public boolean tryDebitUsdt(BigDecimal amount) {
+            return tryDebit(USDT, amount);
+        }
+
+        public void creditUsdt(BigDecimal amount) {
+            deltas.merge(USDT, amount, BigDecimal::add);
+        }
+
+        /**
+         * Reserves {@code quantity} of {@code coin} to hand out. Returns
+         * {@code false} when the treasury cannot cover it.
+         */
+        public boolean tryDebitCoin(Coin coin, BigDecimal quantity) {
+            coins.putIfAbsent(coin.getId(), coin);
+            return tryDebit(coin.getId(), quantity);
+        }
+
+        public void creditCoin(Coin coin, BigDecimal quantity) {
+            coins.putIfAbsent(coin.getId(), coin);
+            deltas.merge(coin.getId(), quantity, BigDecimal::add);
+        }
+
+        private boolean tryDebit(UUID key, BigDecimal amount) {
+            if (amount.signum() <= 0) {
+                return true;
+            }
+            if (!capacity(key).tryReserve(amount)) {
+                return false;
+            }
+            reservations.merge(key, amount, BigDecimal::add);
+            deltas.merge(key, amount.negate(), BigDecimal::add);
+            return true;
+        }
+
+        /**
+         * Applies one aggregated delta per asset to the admin rows. Must run
+         * inside the owning transaction; throws (and so rolls it back) if a
+         * delta would take the treasury below zero.
+         */
+        public void flush() {
+            UUID adminWalletId = adminService.getAdminWalletId();
+            for (Map.Entry<UUID, BigDecimal> entry : deltas.entrySet()) {
+                BigDecimal delta = entry.getValue();
+                if (delta.signum() == 0) {
+                    continue;
+                }
+
+                // Counted before the write so a concurrent resync cannot read it uncounted
+                markWritten(entry.getKey());
+                if (USDT.equals(entry.getKey())) {
+                    if (walletRepo.applyBalanceDelta(adminWalletId, delta) != 1) {
+                        log.error("🚨 CRITICAL: Admin USDT would go negative (delta {})", delta);
+                        throw new InsufficientBalanceException("System Liquidity Error: Cannot Process Trade");
+                    }
+                    continue;
+                }
+
+                Coin coin = coins.get(entry.getKey());
+                if (holdingRepo.applyAmountDelta(adminWalletId, coin.getId(), delta) == 1) {
+                    continue;
+                }
+                if (delta.signum() > 0 && holdingRepo.findByWalletIdAndCoinId(adminWalletId, coin.getId()).isEmpty()) {
+                    // First time the admin receives this coin
+                    holdingRepo.save(CoinHolding.builder()
+                            .wallet(walletRepo.getReferenceById(adminWalletId))
+                            .coin(coin)
+                            .amount(delta)
+                            .averageBuyPrice(BigDecimal.ZERO)
+                            .build());
+                    continue;
+                }
+                log.error("🚨 LIQUIDITY CRISIS: Admin {} would go negative (delta {})", coin.getSymbol(), delta);
+                throw new InsufficientCoinException("System Maintenance: Insufficient Liquidity");
+            }
+            flushed = true;
+        }
+
+        private void markWritten(UUID key) {
+            if (written.add(key)) {
+                capacity(key).flushed();
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            boolean applied = flushed && status == STATUS_COMMITTED;
+            // Every reserved key also has a delta, so deltas covers both
+            for (Map.Entry<UUID, BigDecimal> entry : deltas.entrySet()) {
+                Capacity capacity = capacities.get(entry.getKey());
+                if (capacity == null) {
+                    continue; // Never seeded: the first reader loads the committed value
+                }
+                capacity.settle(reservations.getOrDefault(entry.getKey(), BigDecimal.ZERO),
+                        applied ? entry.getValue() : BigDecimal.ZERO, written.contains(entry.getKey()));
+            }
+        }
+    }
+}
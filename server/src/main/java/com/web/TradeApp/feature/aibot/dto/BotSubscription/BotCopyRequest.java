@@ -17,5 +17,9 @@ public record BotCopyRequest(
 
         @NotNull @DecimalMin(value = "0.01", message = "Trade percentage must be at least 1%") @DecimalMax(value = "1.0", message = "Trade percentage cannot exceed 100%") BigDecimal tradePercentage,
 
-        @NotNull @DecimalMin(value = "0.01", message = "Max daily loss must be at least 1%") @DecimalMax(value = "1.0", message = "Max daily loss cannot exceed 100%") BigDecimal maxDailyLossPercentage) {
+        @NotNull @DecimalMin(value = "0.01", message = "Max daily loss must be at least 1%") @DecimalMax(value = "1.0", message = "Max daily loss cannot exceed 100%") BigDecimal maxDailyLossPercentage,
+
+        @Positive(message = "Stop-loss price must be greater than 0") BigDecimal stopLossPrice,
+
+        @Positive(message = "Take-profit price must be greater than 0") BigDecimal takeProfitPrice) {
 }
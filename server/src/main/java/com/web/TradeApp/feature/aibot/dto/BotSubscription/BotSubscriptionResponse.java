@@ -12,6 +12,8 @@ public record BotSubscriptionResponse(
         BigDecimal allocatedAmount,
         BigDecimal allocatedCoin,
         BigDecimal tradePercentage,
+        BigDecimal stopLossPrice,
+        BigDecimal takeProfitPrice,
         String status,
         BigDecimal totalProfit,
         Instant startedAt) {
@@ -0,0 +1,22 @@
+package com.web.TradeApp.feature.aibot.event;
+
+import java.util.UUID;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when a subscription is created, edited, paused or resumed, so the
+ * in-memory subscriber roster of its bot picks up the committed row.
+ */
+@Getter
+public class BotSubscriptionChangedEvent extends ApplicationEvent {
+    private final UUID botId;
+    private final UUID subscriptionId;
+
+    public BotSubscriptionChangedEvent(Object source, UUID botId, UUID subscriptionId) {
+        super(source);
+        this.botId = botId;
+        this.subscriptionId = subscriptionId;
+    }
+}
@@ -1,6 +1,7 @@
 package com.web.TradeApp.feature.aibot.model;
 
 import java.time.Instant;
+import java.util.UUID;
 
 import com.web.TradeApp.feature.aibot.enums.BotAction;
 import com.web.TradeApp.feature.aibot.enums.SignalStatus;
@@ -14,6 +15,7 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -22,7 +24,11 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 
 @Entity
-@Table(name = "bot_signals")
+@Table(name = "bot_signals", uniqueConstraints = {
+        // Same signal redelivered by the queue must never be stored (and fanned out) twice.
+        // Not created by ddl-auto: validate; see docs/migrations/2026-10-bot-signals-idempotency-key.sql
+        @UniqueConstraint(name = "uk_bot_signal_idempotency", columnNames = { "bot_id", "idempotency_key" })
+})
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 @AllArgsConstructor
@@ -43,6 +49,11 @@ public class BotSignal extends BaseEntity {
     @Column(name = "coin_symbol", nullable = false, length = 20)
     private String coinSymbol;
 
+    // Stamped by the webhook; falls back to the queue message id. Rows from
+    // before keys existed were backfilled with "legacy:<id>"
+    @Column(name = "idempotency_key", length = 100, nullable = false)
+    private String idempotencyKey;
+
     @Column(name = "signal_timestamp", nullable = false)
     private Instant signalTimestamp;
 
@@ -65,6 +76,21 @@ public class BotSignal extends BaseEntity {
     @Builder.Default
     private SignalStatus status = SignalStatus.PENDING; // Default
 
+    // Fan-out progress. Subscriptions are processed in id order, chunk by chunk;
+    // the cursor is the last subscription id of the last committed chunk.
+    @Column(name = "fanout_cursor")
+    private UUID fanoutCursor;
+
+    @Column(name = "fanout_succeeded")
+    private Integer fanoutSucceeded;
+
+    @Column(name = "fanout_failed")
+    private Integer fanoutFailed;
+
+    @Column(name = "fanout_started_at")
+    private Instant fanoutStartedAt;
+
+    // Set when the signal reaches EXECUTED / FAILED / EXPIRED
     @Column(name = "processed_at")
     private Instant processedAt;
 
@@ -84,4 +84,18 @@ public class BotSubscription extends BaseEntity {
     @Column(name = "max_daily_loss_percentage", columnDefinition = "DECIMAL(5,2)")
     private Double maxDailyLossPercentage;
 
+    // Optional exit levels for the bot sub-wallet: when the market price falls to the
+    // stop-loss or rises to the take-profit, all of botWalletCoin is sold (one-shot)
+    @Column(name = "stop_loss_price", precision = 18, scale = 8)
+    private BigDecimal stopLossPrice;
+
+    @Column(name = "take_profit_price", precision = 18, scale = 8)
+    private BigDecimal takeProfitPrice;
+
+    // Optimistic lock: a fill and a user edit of the same subscription conflict instead of
+    // losing one of the updates; also tells the in-memory roster whether its copy is current
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
 }
@@ -12,7 +12,10 @@ import java.math.BigDecimal;
 import com.web.TradeApp.feature.common.entity.BaseTrade;
 
 @Entity
-@Table(name = "bot_trades")
+@Table(name = "bot_trades", indexes = {
+        // Resumed fan-outs look up which subscribers a signal already traded for
+        @Index(name = "ix_bot_trades_signal_sub", columnList = "bot_signal_id, bot_subscription_id")
+})
 @EqualsAndHashCode(callSuper = true)
 @NoArgsConstructor
 @AllArgsConstructor
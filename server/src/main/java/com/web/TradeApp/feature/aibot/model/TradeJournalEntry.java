@@ -0,0 +1,50 @@
+package com.web.TradeApp.feature.aibot.model;
+
+import com.web.TradeApp.feature.common.entity.BaseEntity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Lob;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Outbox row of the trade journal: the Transaction and BotTrade records of one
+ * fan-out chunk (or one fill), written in the trade's own transaction and
+ * turned into real rows later by the journal writer.
+ */
+@Entity
+@Table(name = "trade_journal", indexes = {
+        // The writer drains oldest first
+        @Index(name = "ix_trade_journal_created", columnList = "created_at")
+})
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class TradeJournalEntry extends BaseEntity {
+
+    // JSON array of journal lines (ids and amounts only)
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+
+    @Column(name = "line_count", nullable = false)
+    private int lineCount;
+
+    // Failed flush attempts; entries past the limit are left for an operator
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+}
@@ -1,6 +1,9 @@
 package com.web.TradeApp.feature.aibot.repository;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -10,6 +13,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.web.TradeApp.feature.aibot.enums.SignalStatus;
 import com.web.TradeApp.feature.aibot.model.BotSignal;
 
 @Repository
@@ -28,4 +32,87 @@ public interface BotSignalRepository extends JpaRepository<BotSignal, UUID> {
     @Transactional
     @Query("DELETE FROM BotSignal b WHERE b.signalTimestamp < :cutoff")
     int deleteBySignalTimestampBefore(Instant cutoff);
+
+    /**
+     * Claims a signal for fan-out. Returns 0 when it already reached a terminal
+     * state (so a duplicate dispatch is a no-op).
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE BotSignal b
+            SET b.status = com.web.TradeApp.feature.aibot.enums.SignalStatus.PROCESSING,
+                b.fanoutStartedAt = COALESCE(b.fanoutStartedAt, :now)
+            WHERE b.id = :id
+              AND b.status IN (com.web.TradeApp.feature.aibot.enums.SignalStatus.PENDING,
+                               com.web.TradeApp.feature.aibot.enums.SignalStatus.PROCESSING)
+            """)
+    int markProcessing(@Param("id") UUID id, @Param("now") Instant now);
+
+    /**
+     * Records one finished chunk. Runs inside the chunk transaction, so the
+     * cursor only moves together with the trades it covers.
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE BotSignal b
+            SET b.fanoutCursor = :cursor,
+                b.fanoutSucceeded = COALESCE(b.fanoutSucceeded, 0) + :succeeded,
+                b.fanoutFailed = COALESCE(b.fanoutFailed, 0) + :failed
+            WHERE b.id = :id
+            """)
+    int advanceFanOut(@Param("id") UUID id, @Param("cursor") UUID cursor,
+            @Param("succeeded") int succeeded, @Param("failed") int failed);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE BotSignal b
+            SET b.status = :status, b.errorMessage = :errorMessage, b.processedAt = :processedAt
+            WHERE b.id = :id
+            """)
+    int finish(@Param("id") UUID id, @Param("status") SignalStatus status,
+            @Param("errorMessage") String errorMessage, @Param("processedAt") Instant processedAt);
+
+    /**
+     * Unfinished signals received in [from, to), oldest first, with their bot
+     * (recovery sweep).
+     */
+    @Query("""
+            SELECT b FROM BotSignal b
+            JOIN FETCH b.bot
+            WHERE b.status IN :statuses
+              AND b.createdAt >= :from AND b.createdAt < :to
+            ORDER BY b.createdAt ASC
+            """)
+    List<BotSignal> findUnfinished(@Param("statuses") Collection<SignalStatus> statuses,
+            @Param("from") Instant from, @Param("to") Instant to);
+
+    @Query("SELECT b FROM BotSignal b JOIN FETCH b.bot WHERE b.id = :id")
+    Optional<BotSignal> findWithBotById(@Param("id") UUID id);
+
+    /**
+     * One bot's unfinished signals, oldest first, with their bot (dispatch
+     * backlog).
+     */
+    @Query("""
+            SELECT b FROM BotSignal b
+            JOIN FETCH b.bot
+            WHERE b.bot.id = :botId AND b.status IN :statuses
+            ORDER BY b.createdAt ASC
+            """)
+    List<BotSignal> findUnfinishedByBot(@Param("botId") UUID botId,
+            @Param("statuses") Collection<SignalStatus> statuses);
+
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE BotSignal b
+            SET b.status = com.web.TradeApp.feature.aibot.enums.SignalStatus.EXPIRED,
+                b.errorMessage = :errorMessage, b.processedAt = :now
+            WHERE b.status IN :statuses AND b.createdAt < :before
+            """)
+    int expireUnfinished(@Param("statuses") Collection<SignalStatus> statuses, @Param("before") Instant before,
+            @Param("errorMessage") String errorMessage, @Param("now") Instant now);
 }
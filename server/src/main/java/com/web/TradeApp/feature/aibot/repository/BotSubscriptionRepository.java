@@ -1,14 +1,19 @@
 package com.web.TradeApp.feature.aibot.repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.web.TradeApp.feature.aibot.model.BotSubscription;
 
@@ -69,9 +74,58 @@ public interface BotSubscriptionRepository extends JpaRepository<BotSubscription
             """)
     List<BotSubscription> findByIdGreaterThanAndActiveTrueWithBotOrderByIdAsc(@Param("id") UUID id, Pageable pageable);
 
+    /**
+     * Loads one fan-out chunk with its Bot; skips subscriptions paused meanwhile
+     */
+    @Query("""
+            SELECT bs FROM BotSubscription bs
+            JOIN FETCH bs.bot
+            WHERE bs.id IN :ids AND bs.active = true
+            ORDER BY bs.id ASC
+            """)
+    List<BotSubscription> findActiveWithBotByIdIn(@Param("ids") Collection<UUID> ids);
+
     // Find all active subscriptions for a specific bot
     List<BotSubscription> findAllByBotIdAndActiveTrue(UUID botId);
 
+    // Every active subscription (subscriber roster load on startup)
+    List<BotSubscription> findAllByActiveTrue();
+
+    /**
+     * Active subscriptions with a daily loss limit, with their Bot (daily-loss
+     * guard seeding)
+     */
+    @Query("""
+            SELECT bs FROM BotSubscription bs
+            JOIN FETCH bs.bot
+            WHERE bs.active = true AND bs.maxDailyLossPercentage IS NOT NULL
+            """)
+    List<BotSubscription> findActiveWithDailyLossLimit();
+
+    /**
+     * Active subscriptions with a stop-loss or take-profit, with their Bot
+     * (price trigger index load)
+     */
+    @Query("""
+            SELECT bs FROM BotSubscription bs
+            JOIN FETCH bs.bot
+            WHERE bs.active = true AND (bs.stopLossPrice IS NOT NULL OR bs.takeProfitPrice IS NOT NULL)
+            """)
+    List<BotSubscription> findActiveWithPriceTriggers();
+
+    /**
+     * Pauses a subscription (daily loss limit breached). Returns 0 when it was
+     * already paused. Own transaction: also called from after-commit listeners.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query("""
+            UPDATE BotSubscription bs
+            SET bs.active = false, bs.stoppedAt = :now, bs.version = bs.version + 1
+            WHERE bs.id = :id AND bs.active = true
+            """)
+    int pauseActive(@Param("id") UUID id, @Param("now") Instant now);
+
     // Find all subscriptions for a specific user
     List<BotSubscription> findAllByUserId(UUID userId);
 }
@@ -1,6 +1,9 @@
 package com.web.TradeApp.feature.aibot.repository;
 
 import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import org.springframework.data.domain.Page;
@@ -32,7 +35,7 @@ public interface BotTradeRepository extends JpaRepository<BotTrade, UUID>, JpaSp
   @Query("""
       SELECT bt FROM BotTrade bt
       JOIN FETCH bt.bot b
-      JOIN FETCH bt.coin c
+      JOIN bt.coin c
       JOIN FETCH bt.botSubscription bs
       WHERE bs.id = :botSubId
         AND bs.userId = :userId
@@ -49,4 +52,28 @@ public interface BotTradeRepository extends JpaRepository<BotTrade, UUID>, JpaSp
       @Param("beginTime") Instant beginTime,
       @Param("endTime") Instant endTime,
       Pageable pageable);
+
+  /**
+   * Subscriptions (among {@code subIds}) that already hold a trade for this
+   * signal; a resumed fan-out skips them.
+   */
+  @Query("""
+      SELECT bt.botSubscription.id FROM BotTrade bt
+      WHERE bt.botSignal.id = :signalId AND bt.botSubscription.id IN :subIds
+      """)
+  Set<UUID> findTradedSubscriptionIds(@Param("signalId") UUID signalId,
+      @Param("subIds") Collection<UUID> subIds);
+
+  /**
+   * Trades of the given subscriptions since a time, newest first (daily-loss
+   * guard seeding). Returns List of Object[] where [0] = UUID subscriptionId,
+   * [1] = TradeType, [2] = quantity, [3] = priceAtExecution, [4] = notionalValue
+   */
+  @Query("""
+      SELECT bt.botSubscription.id, bt.type, bt.quantity, bt.priceAtExecution, bt.notionalValue
+      FROM BotTrade bt
+      WHERE bt.botSubscription.id IN :subIds AND bt.createdAt >= :fromTime
+      ORDER BY bt.createdAt DESC
+      """)
+  List<Object[]> findTradesSince(@Param("subIds") Collection<UUID> subIds, @Param("fromTime") Instant fromTime);
 }
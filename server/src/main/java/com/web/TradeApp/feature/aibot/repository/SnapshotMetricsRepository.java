@@ -242,4 +242,19 @@ public interface SnapshotMetricsRepository extends JpaRepository<SubscriptionSna
       """)
   List<Object[]> getSubscriptionChartData(@Param("subscriptionId") UUID subscriptionId,
       @Param("fromTime") Instant fromTime);
+
+  /**
+   * 16. PnL samples of all active subscriptions since a time (daily-loss guard
+   * seeding)
+   * Returns List of Object[] where [0] = UUID subscriptionId, [1] = Instant
+   * recordedAt, [2] = BigDecimal pnl, [3] = BigDecimal totalEquity
+   */
+  @Query("""
+      SELECT ss.botSubscription.id, ss.recordedAt, ss.pnl, ss.totalEquity
+      FROM SubscriptionSnapshot ss
+      WHERE ss.botSubscription.active = true
+        AND ss.recordedAt >= :fromTime
+      ORDER BY ss.recordedAt ASC
+      """)
+  List<Object[]> findActiveSamplesSince(@Param("fromTime") Instant fromTime);
 }
@@ -0,0 +1,43 @@
+package com.web.TradeApp.feature.aibot.repository;
+
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.web.TradeApp.feature.aibot.model.TradeJournalEntry;
+
+@Repository
+public interface TradeJournalRepository extends JpaRepository<TradeJournalEntry, UUID> {
+
+    /**
+     * Oldest unflushed entries that have not failed too often (journal writer).
+     */
+    @Query("""
+            SELECT j FROM TradeJournalEntry j
+            WHERE j.attempts < :maxAttempts
+            ORDER BY j.createdAt ASC, j.id ASC
+            """)
+    List<TradeJournalEntry> findFlushable(@Param("maxAttempts") int maxAttempts, Pageable pageable);
+
+    @Query("SELECT COUNT(j) FROM TradeJournalEntry j WHERE j.attempts < :maxAttempts")
+    long countFlushable(@Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Records a failed flush of one entry (after its transaction rolled back).
+     */
+    @Modifying
+    @Transactional
+    @Query("""
+            UPDATE TradeJournalEntry j
+            SET j.attempts = j.attempts + 1, j.lastError = :error
+            WHERE j.id = :id
+            """)
+    int markFailed(@Param("id") UUID id, @Param("error") String error);
+}
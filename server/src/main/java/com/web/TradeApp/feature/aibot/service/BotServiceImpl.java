@@ -5,6 +5,7 @@ import java.util.UUID;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -16,6 +17,7 @@ import com.web.TradeApp.feature.aibot.mapper.BotMapper;
 import com.web.TradeApp.feature.aibot.model.Bot;
 import com.web.TradeApp.feature.aibot.repository.BotRepository;
 import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
+import com.web.TradeApp.feature.ingestion.event.BotCredentialsChangedEvent;
 import com.web.TradeApp.utils.SecurityUtil;
 
 import lombok.RequiredArgsConstructor;
@@ -29,6 +31,7 @@ public class BotServiceImpl implements BotService {
     private final BotSubscriptionRepository botSubscriptionRepository;
     private final BotMapper botMapper;
     private final SecurityUtil securityUtil;
+    private final ApplicationEventPublisher eventPublisher;
 
     // 1. Inject the value from YAML
     // If it's missing, it defaults to http://localhost:8080
@@ -59,6 +62,9 @@ public class BotServiceImpl implements BotService {
         savedBot.setApiUrl(webhookUrl);
         botRepository.save(savedBot);
 
+        // Drop any negative cache entry that may exist for the new token
+        publishCredentialsChanged(savedBot);
+
         // 6. Return the credentials and webhook URL to the admin panel
         return new BotSecretResponse(
                 savedBot.getId(),
@@ -101,6 +107,7 @@ public class BotServiceImpl implements BotService {
         // Update fields using MapStruct
         botMapper.updateEntity(bot, request);
         Bot updatedBot = botRepository.save(bot);
+        publishCredentialsChanged(updatedBot);
 
         return botMapper.toResponse(updatedBot, null);
     }
@@ -108,13 +115,22 @@ public class BotServiceImpl implements BotService {
     @Override
     @Transactional
     public void deleteBot(UUID botId) {
-        if (!botRepository.existsById(botId)) {
-            throw new RuntimeException("Bot not found with ID: " + botId);
-        }
+        Bot bot = botRepository.findById(botId)
+                .orElseThrow(() -> new RuntimeException("Bot not found with ID: " + botId));
         // Must have strict foreign key constraints in DB,
         // ensure they are set to ON DELETE CASCADE, (delete others bot table as well)
         // if it not works, manually delete related entities
         botRepository.deleteById(botId);
+        publishCredentialsChanged(bot);
+    }
+
+    /**
+     * Tells the ingestion credential cache to forget this bot's webhook token.
+     */
+    private void publishCredentialsChanged(Bot bot) {
+        if (bot.getApiKey() != null) {
+            eventPublisher.publishEvent(new BotCredentialsChangedEvent(this, bot.getId(), List.of(bot.getApiKey())));
+        }
     }
 
     @Override
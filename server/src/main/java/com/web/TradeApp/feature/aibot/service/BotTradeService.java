@@ -2,10 +2,16 @@ package com.web.TradeApp.feature.aibot.service;
 
 import java.math.BigDecimal;
 
+import com.web.TradeApp.feature.aibot.model.BotSignal;
 import com.web.TradeApp.feature.aibot.model.BotSubscription;
 
 public interface BotTradeService {
-    void executeBuy(BotSubscription sub, BigDecimal price);
+    // signal is recorded on the BotTrade (per-subscriber fan-out progress)
+    void executeBuy(BotSubscription sub, BotSignal signal, BigDecimal price);
 
-    void executeSell(BotSubscription sub, BigDecimal price);
+    void executeSell(BotSubscription sub, BotSignal signal, BigDecimal price);
+
+    // Sells sellPercentage of the sub-wallet coin instead of the trade percentage
+    // (stop-loss / take-profit exits sell everything; signal is null there)
+    void executeSell(BotSubscription sub, BotSignal signal, BigDecimal price, BigDecimal sellPercentage);
 }
@@ -2,19 +2,19 @@ package com.web.TradeApp.feature.aibot.service;
 
 import com.web.TradeApp.exception.IdInvalidException;
 import com.web.TradeApp.exception.InsufficientBalanceException;
-import com.web.TradeApp.feature.admin.service.AdminService;
+import com.web.TradeApp.feature.admin.service.AdminTreasury;
+import com.web.TradeApp.feature.aibot.model.BotSignal;
 import com.web.TradeApp.feature.aibot.model.BotSubscription;
 import com.web.TradeApp.feature.aibot.model.BotTrade;
 import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
-import com.web.TradeApp.feature.aibot.repository.BotTradeRepository;
+import com.web.TradeApp.feature.aibot.service.journal.TradeJournal;
 import com.web.TradeApp.feature.coin.entity.Coin;
 import com.web.TradeApp.feature.coin.entity.CoinHolding;
 import com.web.TradeApp.feature.coin.entity.Transaction;
 import com.web.TradeApp.feature.coin.entity.Wallet;
 import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
-import com.web.TradeApp.feature.coin.repository.CoinRepository;
-import com.web.TradeApp.feature.coin.repository.TransactionRepository;
 import com.web.TradeApp.feature.coin.repository.WalletRepository;
+import com.web.TradeApp.feature.coin.service.CoinCatalog;
 import com.web.TradeApp.feature.common.entity.BaseTrade;
 
 import lombok.RequiredArgsConstructor;
@@ -23,7 +23,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -31,15 +31,14 @@ import java.math.RoundingMode;
 public class BotTradeServiceImpl implements BotTradeService {
 
         private final WalletRepository walletRepo;
-        private final CoinRepository coinRepo;
+        private final CoinCatalog coinCatalog;
         private final CoinHoldingRepository coinHoldingRepo;
-        private final TransactionRepository transactionRepo;
         private final BotSubscriptionRepository subRepo;
-        private final BotTradeRepository botTradeRepo;
-        private final AdminService adminService;
+        private final TradeJournal tradeJournal;
+        private final AdminTreasury adminTreasury;
 
         // Minimum trade value in USDT to prevent dust attacks or illogical trades
-        private static final BigDecimal MIN_TRADE_VALUE_USDT = BigDecimal.valueOf(5.0);
+        private static final BigDecimal MIN_TRADE_VALUE_USDT = TradeFillCalculator.MIN_TRADE_VALUE_USDT;
 
         /**
          * EXECUTE BUY
@@ -51,7 +50,7 @@ public class BotTradeServiceImpl implements BotTradeService {
          * 3. Apply Fees: Final BTC = (Gross USDT / Price) * (1 - SysFee) * (1 - BotFee)
          */
         @Transactional
-        public void executeBuy(BotSubscription sub, BigDecimal price) {
+        public void executeBuy(BotSubscription sub, BotSignal signal, BigDecimal price) {
                 // 1. Validate Input
                 if (price.compareTo(BigDecimal.ZERO) <= 0)
                         return;
@@ -59,13 +58,13 @@ public class BotTradeServiceImpl implements BotTradeService {
                 // get wallet of that user
                 Wallet userWallet = walletRepo.findByUserId(sub.getUserId())
                                 .orElseThrow(() -> new RuntimeException("Wallet not found"));
-                Wallet adminWallet = adminService.getAdminWallet();
+                // Admin side is netted and applied atomically (no admin row read/lock here)
+                AdminTreasury.Netting treasury = adminTreasury.open();
 
                 // 2. Calculate Gross Amount to Spend (USDT)
                 // Formula: Allocation Amount (e.g. 100) * Trade % (e.g. 0.1)
-                BigDecimal grossUsdtToSpend = sub.getBotWalletBalance()
-                                .multiply(sub.getTradePercentage())
-                                .setScale(6, RoundingMode.DOWN);
+                BigDecimal grossUsdtToSpend = TradeFillCalculator.buyNotional(sub.getBotWalletBalance(),
+                                sub.getTradePercentage());
 
                 // 3. Check Minimum Value (> 5 USDT)
                 if (grossUsdtToSpend.compareTo(MIN_TRADE_VALUE_USDT) <= 0) {
@@ -82,7 +81,7 @@ public class BotTradeServiceImpl implements BotTradeService {
                         return;
                 }
 
-                Coin coin = coinRepo.findBySymbol(sub.getBot().getCoinSymbol())
+                Coin coin = coinCatalog.findBySymbol(sub.getBot().getCoinSymbol())
                                 .orElseThrow(() -> new RuntimeException(
                                                 "Coin not found: " + sub.getBot().getCoinSymbol()));
 
@@ -90,21 +89,15 @@ public class BotTradeServiceImpl implements BotTradeService {
                 BigDecimal systemFeePct = coin.getFee(); // e.g. 0.025
                 BigDecimal botFeePct = sub.getBot().getFee(); // e.g. 0.1
 
-                // Step A: Calculate Raw BTC (without fees)
-                BigDecimal rawQuantity = grossUsdtToSpend.divide(price, 10, RoundingMode.DOWN);
-
-                // Step B: Apply Fees sequentially
-                // Formula: raw * (1-fee1) * (1-fee2)
-                BigDecimal afterSysFee = rawQuantity.multiply(BigDecimal.ONE.subtract(systemFeePct));
-                BigDecimal finalQuantity = afterSysFee.multiply(BigDecimal.ONE.subtract(botFeePct))
-                                .setScale(8, RoundingMode.DOWN);
+                // Formula: (gross / price) * (1-fee1) * (1-fee2)
+                BigDecimal finalQuantity = TradeFillCalculator.buyQuantity(grossUsdtToSpend, price, systemFeePct,
+                                botFeePct);
 
                 // 6. Execute Transfer
                 // A. USDT: User -> Admin
                 userWallet.setBalance(userWallet.getBalance().subtract(grossUsdtToSpend));
-                adminWallet.setBalance(adminWallet.getBalance().add(grossUsdtToSpend));
+                treasury.creditUsdt(grossUsdtToSpend);
                 walletRepo.save(userWallet);
-                walletRepo.save(adminWallet);
 
                 // B. COIN: Admin -> User
                 // B.1. Add Coin to user
@@ -114,24 +107,20 @@ public class BotTradeServiceImpl implements BotTradeService {
                 userHolding.setAmount(newTotalQty);
 
                 // Update Average Buy Price logic
-                BigDecimal currentCost = userHolding.getAmount().multiply(userHolding.getAverageBuyPrice());
-                BigDecimal newTotalCost = currentCost.add(grossUsdtToSpend);
-
-                if (newTotalQty.compareTo(BigDecimal.ZERO) > 0) {
-                        userHolding.setAverageBuyPrice(newTotalCost.divide(newTotalQty, 8, RoundingMode.HALF_UP));
+                BigDecimal newAveragePrice = TradeFillCalculator.averageBuyPrice(newTotalQty,
+                                userHolding.getAverageBuyPrice(), grossUsdtToSpend);
+                if (newAveragePrice != null) {
+                        userHolding.setAverageBuyPrice(newAveragePrice);
                 }
                 coinHoldingRepo.save(userHolding);
 
                 // B.2.Deduct Coin from Admin
-                CoinHolding adminHolding = getOrCreateHolding(adminWallet, coin);
-
-                // Check if Admin actually has enough coin (optional safety)
-                if (adminHolding.getAmount().compareTo(finalQuantity) < 0) {
+                // Check if Admin actually has enough coin (reserved-capacity counter)
+                if (!treasury.tryDebitCoin(coin, finalQuantity)) {
                         log.error("🚨 LIQUIDITY CRISIS: Admin wallet empty for {}", coin.getSymbol());
                         throw new RuntimeException("System Maintenance: Insufficient Liquidity");
                 }
-                adminHolding.setAmount(adminHolding.getAmount().subtract(finalQuantity));
-                coinHoldingRepo.save(adminHolding);
+                treasury.flush();
 
                 // 7. UPDATE VIRTUAL BALANCES OF BOT (The "Sub-Wallet" Logic)
                 // Decrease USDT Allocation
@@ -140,9 +129,12 @@ public class BotTradeServiceImpl implements BotTradeService {
                 sub.setBotWalletCoin(sub.getBotWalletCoin().add(finalQuantity));
                 subRepo.save(sub);
 
-                // 8. Save Records
-                saveTransaction(userWallet, coin, BaseTrade.TradeType.BUY, finalQuantity, price, grossUsdtToSpend);
-                saveBotTrade(sub, BaseTrade.TradeType.BUY, finalQuantity, price, grossUsdtToSpend, grossUsdtToSpend);
+                // 8. Save Records (journaled, written to the tables by the journal writer)
+                tradeJournal.append(
+                                List.of(buildTransaction(userWallet, coin, BaseTrade.TradeType.BUY, finalQuantity,
+                                                price, grossUsdtToSpend)),
+                                List.of(buildBotTrade(sub, signal, userWallet, coin, BaseTrade.TradeType.BUY,
+                                                finalQuantity, price, grossUsdtToSpend, grossUsdtToSpend)));
 
                 log.info("✅ BUY: User {} | Spent {} USDT | Got {} {}", sub.getUserId(), grossUsdtToSpend, finalQuantity,
                                 coin.getSymbol());
@@ -167,16 +159,25 @@ public class BotTradeServiceImpl implements BotTradeService {
          * 2. Apply Fees: Final USDT = (0.2 * Price) * (1 - SysFee) * (1 - BotFee)
          */
         @Transactional
-        public void executeSell(BotSubscription sub, BigDecimal price) {
+        public void executeSell(BotSubscription sub, BotSignal signal, BigDecimal price) {
+                executeSell(sub, signal, price, sub.getTradePercentage());
+        }
+
+        /**
+         * EXECUTE SELL of a given share of the sub-wallet coin (1 = everything).
+         * Same transfers, fees and records as a signal SELL.
+         */
+        @Transactional
+        public void executeSell(BotSubscription sub, BotSignal signal, BigDecimal price, BigDecimal sellPercentage) {
                 if (price.compareTo(BigDecimal.ZERO) <= 0)
                         return;
 
                 // 1. Fetch Wallets
                 Wallet userWallet = walletRepo.findByUserId(sub.getUserId())
                                 .orElseThrow(() -> new IdInvalidException("User Wallet not found"));
-                Wallet adminWallet = adminService.getAdminWallet();
+                AdminTreasury.Netting treasury = adminTreasury.open();
 
-                Coin coin = coinRepo.findBySymbol(sub.getBot().getCoinSymbol())
+                Coin coin = coinCatalog.findBySymbol(sub.getBot().getCoinSymbol())
                                 .orElseThrow(() -> new IdInvalidException("Coin not found"));
 
                 // User must have this holding to sell
@@ -184,10 +185,8 @@ public class BotTradeServiceImpl implements BotTradeService {
                                 .orElseThrow(() -> new InsufficientBalanceException("No holding found to sell"));
 
                 // 2. Calculate Coin to Sell based on VIRTUAL Balance
-                // Formula: Allocated Coin * Trade %
-                BigDecimal quantityToSell = sub.getBotWalletCoin()
-                                .multiply(sub.getTradePercentage())
-                                .setScale(8, RoundingMode.DOWN);
+                // Formula: Allocated Coin * Trade % (or the requested share)
+                BigDecimal quantityToSell = TradeFillCalculator.sellQuantity(sub.getBotWalletCoin(), sellPercentage);
 
                 // 3. Validations
                 if (quantityToSell.compareTo(BigDecimal.ZERO) <= 0)
@@ -212,9 +211,7 @@ public class BotTradeServiceImpl implements BotTradeService {
                 BigDecimal botFeePct = sub.getBot().getFee();
 
                 // Formula: rawUSDT * (1 - sysFee) * (1 - botFee)
-                BigDecimal afterSysFee = rawUsdtValue.multiply(BigDecimal.ONE.subtract(systemFeePct));
-                BigDecimal finalUsdt = afterSysFee.multiply(BigDecimal.ONE.subtract(botFeePct))
-                                .setScale(6, RoundingMode.DOWN);
+                BigDecimal finalUsdt = TradeFillCalculator.sellProceeds(rawUsdtValue, systemFeePct, botFeePct);
 
                 // 5. TRANSFERS (Counterparty Logic)
 
@@ -222,22 +219,18 @@ public class BotTradeServiceImpl implements BotTradeService {
                 userHolding.setAmount(userHolding.getAmount().subtract(quantityToSell));
                 coinHoldingRepo.save(userHolding);
 
-                CoinHolding adminHolding = getOrCreateHolding(adminWallet, coin);
-                adminHolding.setAmount(adminHolding.getAmount().add(quantityToSell));
-                coinHoldingRepo.save(adminHolding);
+                treasury.creditCoin(coin, quantityToSell);
 
                 // B. USDT: Admin -> User
                 // Check Admin Liquidity
-                if (adminWallet.getBalance().compareTo(finalUsdt) < 0) {
+                if (!treasury.tryDebitUsdt(finalUsdt)) {
                         log.error("🚨 CRITICAL: Admin Wallet Insufficient USDT to pay User for SELL!");
                         throw new InsufficientBalanceException("System Liquidity Error: Cannot Process Sell");
                 }
 
-                adminWallet.setBalance(adminWallet.getBalance().subtract(finalUsdt));
                 userWallet.setBalance(userWallet.getBalance().add(finalUsdt));
-
-                walletRepo.save(adminWallet);
                 walletRepo.save(userWallet);
+                treasury.flush();
 
                 // 6. UPDATE VIRTUAL BALANCES
                 // Decrease Virtual Coin
@@ -249,16 +242,19 @@ public class BotTradeServiceImpl implements BotTradeService {
                 // 7. Save Records
                 // Fee = Raw Value - Final Value Received
                 BigDecimal totalFee = rawUsdtValue.subtract(finalUsdt);
-                saveTransaction(userWallet, coin, BaseTrade.TradeType.SELL, quantityToSell, price, totalFee);
-                saveBotTrade(savedBotSub, BaseTrade.TradeType.SELL, quantityToSell, price, finalUsdt, totalFee);
+                tradeJournal.append(
+                                List.of(buildTransaction(userWallet, coin, BaseTrade.TradeType.SELL, quantityToSell,
+                                                price, totalFee)),
+                                List.of(buildBotTrade(savedBotSub, signal, userWallet, coin, BaseTrade.TradeType.SELL,
+                                                quantityToSell, price, finalUsdt, totalFee)));
 
                 log.info("✅ SELL: User {} | Sold {} {} | Got {} USDT", sub.getUserId(), quantityToSell,
                                 coin.getSymbol(), finalUsdt);
         }
 
-        private void saveTransaction(Wallet w, Coin c, BaseTrade.TradeType type, BigDecimal qty, BigDecimal price,
-                        BigDecimal feeOrNotional) {
-                Transaction tx = Transaction.builder()
+        private Transaction buildTransaction(Wallet w, Coin c, BaseTrade.TradeType type, BigDecimal qty,
+                        BigDecimal price, BigDecimal feeOrNotional) {
+                return Transaction.builder()
                                 .wallet(w)
                                 .coin(c)
                                 .type(type)
@@ -268,20 +264,18 @@ public class BotTradeServiceImpl implements BotTradeService {
                                 .notionalValue(qty.multiply(price))
                                 .feeTradeApplied(type == BaseTrade.TradeType.SELL ? feeOrNotional : BigDecimal.ZERO)
                                 .build();
-                transactionRepo.save(tx);
         }
 
-        private void saveBotTrade(BotSubscription sub, BaseTrade.TradeType type, BigDecimal qty, BigDecimal price,
-                        BigDecimal notional, BigDecimal feeOrNotional) {
-                BotTrade trade = BotTrade.builder()
+        private BotTrade buildBotTrade(BotSubscription sub, BotSignal signal, Wallet wallet, Coin coin,
+                        BaseTrade.TradeType type, BigDecimal qty, BigDecimal price, BigDecimal notional,
+                        BigDecimal feeOrNotional) {
+                return BotTrade.builder()
                                 .bot(sub.getBot())
                                 .botSubscription(sub)
-                                // Now we must fetch the User Wallet again or pass it down to ensure BaseTrade
-                                // fields are populated
-                                // Ideally, pass userWallet from executeBuy() into this method to avoid
-                                // re-fetching
-                                .wallet(walletRepo.findByUserId(sub.getUserId()).orElseThrow())
-                                .coin(coinRepo.findBySymbol(sub.getBot().getCoinSymbol()).orElse(null))
+                                .botSignal(signal)
+                                // Wallet and coin are passed down from the caller (no re-fetch)
+                                .wallet(wallet)
+                                .coin(coin)
                                 .type(type)
                                 .quantity(qty)
                                 .priceAtExecution(price)
@@ -289,6 +283,5 @@ public class BotTradeServiceImpl implements BotTradeService {
                                 .feeBotApplied(BigDecimal.ZERO)
                                 .feeTradeApplied(type == BaseTrade.TradeType.SELL ? feeOrNotional : BigDecimal.ZERO)
                                 .build();
-                botTradeRepo.save(trade);
         }
 }
\ No newline at end of file
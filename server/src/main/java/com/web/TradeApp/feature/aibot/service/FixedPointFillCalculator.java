@@ -0,0 +1,349 @@
+package com.web.TradeApp.feature.aibot.service;
+
+import java.math.BigDecimal;
+
+/**
+ * Fixed-point twin of {@link TradeFillCalculator} for the bulk fan-out.
+ *
+ * Operands are handled as unscaled {@code long}s and every intermediate
+ * product is kept exact in 128 bits (two longs), so rounding happens once, at
+ * the same scale and in the same direction as the {@code BigDecimal} chain:
+ * results are bit-identical, scale included. The arithmetic allocates nothing;
+ * only converting the entity values in and out does.
+ *
+ * Price and fees are the same for every subscriber of a chunk, so they are
+ * converted once when the calculator is created. Inputs the kernel cannot
+ * represent (negative, more than 18 significant digits, or an intermediate
+ * that would overflow) are delegated to {@link TradeFillCalculator}.
+ *
+ * Not thread-safe: it keeps its 128-bit accumulator in fields. Use one
+ * instance per chunk.
+ */
+public final class FixedPointFillCalculator {
+
+    private static final long NO_FIT = -1L;
+    private static final int MAX_LONG_DIGITS = 18;
+    private static final long[] POW10 = new long[MAX_LONG_DIGITS + 1];
+
+    static {
+        POW10[0] = 1L;
+        for (int i = 1; i < POW10.length; i++) {
+            POW10[i] = POW10[i - 1] * 10;
+        }
+    }
+
+    private final BigDecimal price;
+    private final BigDecimal systemFeePct;
+    private final BigDecimal botFeePct;
+
+    // Unscaled operands; fastPath is false when any of them did not fit
+    private final boolean fastPath;
+    private final long priceUnscaled;
+    private final int priceScale;
+    private final long keepAfterSysFee; // 1 - SysFee
+    private final int sysFeeScale;
+    private final long keepAfterBotFee; // 1 - BotFee
+    private final int botFeeScale;
+
+    // 128-bit accumulator: hi is kept non-negative, lo is unsigned
+    private long hi;
+    private long lo;
+
+    public FixedPointFillCalculator(BigDecimal price, BigDecimal systemFeePct, BigDecimal botFeePct) {
+        this.price = price;
+        this.systemFeePct = systemFeePct;
+        this.botFeePct = botFeePct;
+
+        BigDecimal p = fit(price);
+        BigDecimal sysKeep = fit(BigDecimal.ONE.subtract(systemFeePct));
+        BigDecimal botKeep = fit(BigDecimal.ONE.subtract(botFeePct));
+        this.fastPath = p != null && p.signum() > 0 && sysKeep != null && botKeep != null;
+
+        this.priceUnscaled = fastPath ? unscaled(p) : 0;
+        this.priceScale = fastPath ? p.scale() : 0;
+        this.keepAfterSysFee = fastPath ? unscaled(sysKeep) : 0;
+        this.sysFeeScale = fastPath ? sysKeep.scale() : 0;
+        this.keepAfterBotFee = fastPath ? unscaled(botKeep) : 0;
+        this.botFeeScale = fastPath ? botKeep.scale() : 0;
+    }
+
+    /**
+     * Same as {@link TradeFillCalculator#buyNotional}.
+     */
+    public BigDecimal buyNotional(BigDecimal botWalletBalance, BigDecimal tradePercentage) {
+        BigDecimal balance = fit(botWalletBalance);
+        BigDecimal pct = fit(tradePercentage);
+        if (balance != null && pct != null) {
+            load(unscaled(balance), unscaled(pct));
+            long result = rescaleDown(balance.scale() + pct.scale(), 6);
+            if (result != NO_FIT) {
+                return BigDecimal.valueOf(result, 6);
+            }
+        }
+        return TradeFillCalculator.buyNotional(botWalletBalance, tradePercentage);
+    }
+
+    /**
+     * Same as {@link TradeFillCalculator#buyQuantity} with this calculator's
+     * price and fees.
+     */
+    public BigDecimal buyQuantity(BigDecimal grossUsdt) {
+        BigDecimal gross = fastPath ? fit(grossUsdt) : null;
+        if (gross != null) {
+            // Raw quantity at scale 10, truncated: gross * 10^(10 + ps - gs) / price
+            load(unscaled(gross), 1);
+            long rawQuantity = NO_FIT;
+            int shift = 10 + priceScale - gross.scale();
+            if (shift >= 0 && multiplyPow10(shift)) {
+                divide(priceUnscaled);
+                rawQuantity = toLong();
+            }
+            if (rawQuantity != NO_FIT) {
+                load(rawQuantity, keepAfterSysFee);
+                if (multiply(keepAfterBotFee)) {
+                    long result = rescaleDown(10 + sysFeeScale + botFeeScale, 8);
+                    if (result != NO_FIT) {
+                        return BigDecimal.valueOf(result, 8);
+                    }
+                }
+            }
+        }
+        return TradeFillCalculator.buyQuantity(grossUsdt, price, systemFeePct, botFeePct);
+    }
+
+    /**
+     * Same as {@link TradeFillCalculator#averageBuyPrice}, including its
+     * {@code null} for an empty holding.
+     */
+    public BigDecimal averageBuyPrice(BigDecimal newTotalQty, BigDecimal averageBuyPrice, BigDecimal grossUsdt) {
+        BigDecimal qty = fit(newTotalQty);
+        BigDecimal avg = fit(averageBuyPrice);
+        BigDecimal gross = fit(grossUsdt);
+        if (qty != null && avg != null && gross != null) {
+            long qtyUnscaled = unscaled(qty);
+            if (qtyUnscaled == 0) {
+                return null;
+            }
+            long result = averageBuyPrice(qtyUnscaled, qty.scale(), unscaled(avg), avg.scale(),
+                    unscaled(gross), gross.scale());
+            if (result != NO_FIT) {
+                return BigDecimal.valueOf(result, 8);
+            }
+        }
+        return TradeFillCalculator.averageBuyPrice(newTotalQty, averageBuyPrice, grossUsdt);
+    }
+
+    // (qty * avg + gross) / qty at scale 8, HALF_UP
+    private long averageBuyPrice(long qty, int qtyScale, long avg, int avgScale, long gross, int grossScale) {
+        int costScale = qtyScale + avgScale;
+        int sumScale = Math.max(costScale, grossScale);
+
+        // gross aligned to the common scale, parked in locals
+        load(gross, 1);
+        if (!multiplyPow10(sumScale - grossScale)) {
+            return NO_FIT;
+        }
+        long grossHi = hi;
+        long grossLo = lo;
+
+        load(qty, avg);
+        if (!multiplyPow10(sumScale - costScale) || !add(grossHi, grossLo)) {
+            return NO_FIT;
+        }
+
+        // sum / 10^sumScale / (qty / 10^qtyScale) at scale 8
+        int shift = 8 + qtyScale - sumScale;
+        long divisor = qty;
+        if (shift >= 0) {
+            if (!multiplyPow10(shift)) {
+                return NO_FIT;
+            }
+        } else {
+            if (-shift > MAX_LONG_DIGITS || Math.multiplyHigh(qty, POW10[-shift]) != 0
+                    || qty * POW10[-shift] < 0) {
+                return NO_FIT;
+            }
+            divisor = qty * POW10[-shift];
+        }
+        long remainder = divide(divisor);
+        long quotient = toLong();
+        if (quotient == NO_FIT) {
+            return NO_FIT;
+        }
+        // HALF_UP: round away when the remainder is at least half the divisor
+        if (remainder >= divisor - remainder) {
+            return quotient == Long.MAX_VALUE ? NO_FIT : quotient + 1;
+        }
+        return quotient;
+    }
+
+    /**
+     * Same as {@link TradeFillCalculator#sellQuantity}.
+     */
+    public BigDecimal sellQuantity(BigDecimal botWalletCoin, BigDecimal tradePercentage) {
+        BigDecimal coin = fit(botWalletCoin);
+        BigDecimal pct = fit(tradePercentage);
+        if (coin != null && pct != null) {
+            load(unscaled(coin), unscaled(pct));
+            long result = rescaleDown(coin.scale() + pct.scale(), 8);
+            if (result != NO_FIT) {
+                return BigDecimal.valueOf(result, 8);
+            }
+        }
+        return TradeFillCalculator.sellQuantity(botWalletCoin, tradePercentage);
+    }
+
+    /**
+     * Same as {@link TradeFillCalculator#sellProceeds} applied to
+     * {@code quantity * price}, without materializing the raw value.
+     */
+    public BigDecimal sellProceeds(BigDecimal quantity) {
+        BigDecimal qty = fastPath ? fit(quantity) : null;
+        if (qty != null) {
+            load(unscaled(qty), priceUnscaled);
+            if (multiply(keepAfterSysFee) && multiply(keepAfterBotFee)) {
+                long result = rescaleDown(qty.scale() + priceScale + sysFeeScale + botFeeScale, 6);
+                if (result != NO_FIT) {
+                    return BigDecimal.valueOf(result, 6);
+                }
+            }
+        }
+        return TradeFillCalculator.sellProceeds(quantity.multiply(price), systemFeePct, botFeePct);
+    }
+
+    // --- Operand conversion ---
+
+    /**
+     * The value with at most 18 significant digits and a non-negative scale,
+     * or {@code null} when it is negative or cannot be held in a long.
+     * Trailing zeros are only stripped when needed (e.g. scale-18 coin amounts).
+     */
+    private static BigDecimal fit(BigDecimal value) {
+        if (value == null || value.signum() < 0) {
+            return null;
+        }
+        if (value.precision() > MAX_LONG_DIGITS) {
+            value = value.stripTrailingZeros();
+        }
+        if (value.scale() < 0) {
+            value = value.setScale(0);
+        }
+        return value.precision() > MAX_LONG_DIGITS ? null : value;
+    }
+
+    private static long unscaled(BigDecimal fitted) {
+        return fitted.unscaledValue().longValue();
+    }
+
+    // --- 128-bit accumulator ---
+
+    private void load(long a, long b) {
+        hi = Math.multiplyHigh(a, b);
+        lo = a * b;
+    }
+
+    private boolean multiply(long factor) {
+        long carry = Math.unsignedMultiplyHigh(lo, factor);
+        if (Math.multiplyHigh(hi, factor) != 0) {
+            return false;
+        }
+        long high = hi * factor;
+        if (high < 0 || high + carry < 0) {
+            return false;
+        }
+        hi = high + carry;
+        lo = lo * factor;
+        return true;
+    }
+
+    private boolean multiplyPow10(int n) {
+        for (; n > 0; n -= MAX_LONG_DIGITS) {
+            if (!multiply(POW10[Math.min(n, MAX_LONG_DIGITS)])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean add(long otherHi, long otherLo) {
+        long sum = lo + otherLo;
+        long carry = Long.compareUnsigned(sum, lo) < 0 ? 1 : 0;
+        long high = hi + otherHi + carry;
+        if (high < 0) {
+            return false;
+        }
+        hi = high;
+        lo = sum;
+        return true;
+    }
+
+    /**
+     * Truncating division by a positive divisor; the quotient stays in the
+     * accumulator and the remainder is returned.
+     */
+    private long divide(long divisor) {
+        long quotientHi = hi / divisor;
+        long quotientLo = divideUnsigned128(hi - quotientHi * divisor, lo, divisor);
+        long remainder = lo - quotientLo * divisor;
+        hi = quotientHi;
+        lo = quotientLo;
+        return remainder;
+    }
+
+    private long toLong() {
+        return hi == 0 && lo >= 0 ? lo : NO_FIT;
+    }
+
+    /**
+     * Accumulator (at {@code fromScale}) rounded DOWN to {@code toScale}.
+     * Truncating in several steps equals truncating once for non-negatives.
+     */
+    private long rescaleDown(int fromScale, int toScale) {
+        if (fromScale < toScale) {
+            return multiplyPow10(toScale - fromScale) ? toLong() : NO_FIT;
+        }
+        for (int n = fromScale - toScale; n > 0; n -= MAX_LONG_DIGITS) {
+            divide(POW10[Math.min(n, MAX_LONG_DIGITS)]);
+        }
+        return toLong();
+    }
+
+    /**
+     * Unsigned (u1:u0) / v for u1 < v, from Hacker's Delight (divlu): normalize
+     * v, then produce the quotient as two 32-bit digits.
+     */
+    static long divideUnsigned128(long u1, long u0, long v) {
+        final long b = 1L << 32;
+        int s = Long.numberOfLeadingZeros(v);
+        v <<= s;
+        long vn1 = v >>> 32;
+        long vn0 = v & 0xFFFFFFFFL;
+
+        long un32 = s == 0 ? u1 : (u1 << s) | (u0 >>> (64 - s));
+        long un10 = u0 << s;
+        long un1 = un10 >>> 32;
+        long un0 = un10 & 0xFFFFFFFFL;
+
+        long q1 = Long.divideUnsigned(un32, vn1);
+        long rhat = un32 - q1 * vn1;
+        while (Long.compareUnsigned(q1, b) >= 0 || Long.compareUnsigned(q1 * vn0, b * rhat + un1) > 0) {
+            q1--;
+            rhat += vn1;
+            if (Long.compareUnsigned(rhat, b) >= 0) {
+                break;
+            }
+        }
+
+        long un21 = un32 * b + un1 - q1 * v;
+        long q0 = Long.divideUnsigned(un21, vn1);
+        rhat = un21 - q0 * vn1;
+        while (Long.compareUnsigned(q0, b) >= 0 || Long.compareUnsigned(q0 * vn0, b * rhat + un0) > 0) {
+            q0--;
+            rhat += vn1;
+            if (Long.compareUnsigned(rhat, b) >= 0) {
+                break;
+            }
+        }
+        return q1 * b + q0;
+    }
+}
@@ -25,6 +25,9 @@ import com.web.TradeApp.feature.aibot.model.SubscriptionSnapshot;
 import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
 import com.web.TradeApp.feature.aibot.repository.SnapshotMetricsRepository;
 import com.web.TradeApp.feature.coin.service.CoinGeckoClient;
+import com.web.TradeApp.feature.coin.service.MarketPriceCache;
+import com.web.TradeApp.feature.coin.service.PriceHistoryService;
+import com.web.TradeApp.feature.coin.service.PriceSnapshot;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -37,6 +40,8 @@ public class SubSnapshotServiceImpl implements SubSnapshotService {
     private final BotSubscriptionRepository subscriptionRepo;
     private final SnapshotMetricsRepository snapshotRepo;
     private final CoinGeckoClient marketPriceService;
+    private final MarketPriceCache marketPriceCache;
+    private final PriceHistoryService priceHistoryService;
     private final PlatformTransactionManager transactionManager;
 
     @Value("${snapshot.batch-size:100}")
@@ -115,15 +120,14 @@ public class SubSnapshotServiceImpl implements SubSnapshotService {
                 .map(sub -> sub.getBot().getCoinSymbol())
                 .collect(Collectors.toSet());
 
-        // Fetch ALL prices in ONE API call (instead of N individual calls)
+        // Fetch ALL prices at once (cached ones reused, the rest in chunked batch calls)
         Map<String, BigDecimal> priceMap = new HashMap<>();
         if (!allCoinSymbols.isEmpty()) {
-            try {
-                priceMap = marketPriceService.getBatchPrices(new ArrayList<>(allCoinSymbols));
-                log.debug("📊 Fetched {} bot coin prices in one batch API call", priceMap.size());
-            } catch (Exception e) {
-                log.error("❌ Failed to fetch batch prices: {}", e.getMessage());
-            }
+            PriceSnapshot prices = marketPriceCache.snapshot(allCoinSymbols);
+            // Coins the market gave no price for fall back to their last recorded close
+            priceMap = priceHistoryService.fillFromHistory(prices.prices(), allCoinSymbols, batchTimestamp);
+            log.debug("📊 Priced {}/{} bot coins for the snapshot batch ({} stale)", priceMap.size(),
+                    allCoinSymbols.size(), prices.stale().size());
         }
 
         // Now process each subscription using the pre-fetched prices
@@ -164,7 +168,7 @@ public class SubSnapshotServiceImpl implements SubSnapshotService {
         BigDecimal currentPrice = marketPriceService.getPriceFromMap(symbol, priceMap);
 
         if (currentPrice == null || currentPrice.compareTo(BigDecimal.ZERO) <= 0) {
-            log.warn("No price available for bot coin symbol: {} (check SYMBOL_TO_ID_MAP)", symbol);
+            log.warn("No price available for bot coin symbol: {} (not in coin catalog?)", symbol);
             return null;
         }
 
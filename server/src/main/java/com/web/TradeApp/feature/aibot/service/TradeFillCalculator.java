@@ -0,0 +1,68 @@
+package com.web.TradeApp.feature.aibot.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Copy-trade fill arithmetic shared by the per-subscriber path
+ * ({@link BotTradeServiceImpl}) and the bulk fan-out, so both produce exactly
+ * the same numbers. Pure functions, no I/O.
+ */
+public final class TradeFillCalculator {
+
+    // Minimum trade value in USDT to prevent dust attacks or illogical trades
+    public static final BigDecimal MIN_TRADE_VALUE_USDT = BigDecimal.valueOf(5.0);
+
+    private TradeFillCalculator() {
+    }
+
+    /**
+     * Gross USDT to spend on a BUY: Allocation Amount * Trade Percentage.
+     */
+    public static BigDecimal buyNotional(BigDecimal botWalletBalance, BigDecimal tradePercentage) {
+        return botWalletBalance.multiply(tradePercentage).setScale(6, RoundingMode.DOWN);
+    }
+
+    /**
+     * Coins received for a BUY: (Gross USDT / Price) * (1 - SysFee) * (1 - BotFee).
+     */
+    public static BigDecimal buyQuantity(BigDecimal grossUsdt, BigDecimal price, BigDecimal systemFeePct,
+            BigDecimal botFeePct) {
+        // Step A: Raw quantity (without fees)
+        BigDecimal rawQuantity = grossUsdt.divide(price, 10, RoundingMode.DOWN);
+        // Step B: Apply fees sequentially
+        BigDecimal afterSysFee = rawQuantity.multiply(BigDecimal.ONE.subtract(systemFeePct));
+        return afterSysFee.multiply(BigDecimal.ONE.subtract(botFeePct)).setScale(8, RoundingMode.DOWN);
+    }
+
+    /**
+     * Average buy price of a holding after a BUY. Note the cost basis is taken
+     * on the already increased quantity; kept as-is so stored averages stay
+     * consistent with history. Returns {@code null} when the holding is empty
+     * (average unchanged).
+     */
+    public static BigDecimal averageBuyPrice(BigDecimal newTotalQty, BigDecimal averageBuyPrice,
+            BigDecimal grossUsdt) {
+        if (newTotalQty.compareTo(BigDecimal.ZERO) <= 0) {
+            return null;
+        }
+        BigDecimal currentCost = newTotalQty.multiply(averageBuyPrice);
+        BigDecimal newTotalCost = currentCost.add(grossUsdt);
+        return newTotalCost.divide(newTotalQty, 8, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Coins to sell on a SELL: Allocated Coin * Trade Percentage.
+     */
+    public static BigDecimal sellQuantity(BigDecimal botWalletCoin, BigDecimal tradePercentage) {
+        return botWalletCoin.multiply(tradePercentage).setScale(8, RoundingMode.DOWN);
+    }
+
+    /**
+     * USDT received for a SELL: rawUSDT * (1 - SysFee) * (1 - BotFee).
+     */
+    public static BigDecimal sellProceeds(BigDecimal rawUsdtValue, BigDecimal systemFeePct, BigDecimal botFeePct) {
+        BigDecimal afterSysFee = rawUsdtValue.multiply(BigDecimal.ONE.subtract(systemFeePct));
+        return afterSysFee.multiply(BigDecimal.ONE.subtract(botFeePct)).setScale(6, RoundingMode.DOWN);
+    }
+}
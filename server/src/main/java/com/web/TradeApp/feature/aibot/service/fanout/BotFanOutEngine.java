@@ -0,0 +1,596 @@
+package com.web.TradeApp.feature.aibot.service.fanout;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.web.TradeApp.exception.IdInvalidException;
+import com.web.TradeApp.exception.InsufficientBalanceException;
+import com.web.TradeApp.feature.admin.service.AdminTreasury;
+import com.web.TradeApp.feature.aibot.enums.BotAction;
+import com.web.TradeApp.feature.aibot.model.Bot;
+import com.web.TradeApp.feature.aibot.model.BotSignal;
+import com.web.TradeApp.feature.aibot.model.BotSubscription;
+import com.web.TradeApp.feature.aibot.model.BotTrade;
+import com.web.TradeApp.feature.aibot.repository.BotSignalRepository;
+import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
+import com.web.TradeApp.feature.aibot.repository.BotTradeRepository;
+import com.web.TradeApp.feature.aibot.service.BotTradeService;
+import com.web.TradeApp.feature.aibot.service.FixedPointFillCalculator;
+import com.web.TradeApp.feature.aibot.service.TradeFillCalculator;
+import com.web.TradeApp.feature.aibot.service.journal.TradeJournal;
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.entity.CoinHolding;
+import com.web.TradeApp.feature.coin.entity.Transaction;
+import com.web.TradeApp.feature.coin.entity.Wallet;
+import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
+import com.web.TradeApp.feature.coin.repository.WalletRepository;
+import com.web.TradeApp.feature.coin.service.CoinCatalog;
+import com.web.TradeApp.feature.coin.service.WalletSequencer;
+import com.web.TradeApp.feature.common.entity.BaseTrade;
+import com.web.TradeApp.utils.OptimisticRetry;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Set-based copy-trade fan-out.
+ *
+ * Instead of ~10 statements per subscriber ({@link BotTradeService}), each
+ * chunk of subscriptions is handled in one transaction: subscriptions, wallets
+ * and holdings are loaded with a handful of IN queries, every fill is computed
+ * in memory with {@link FixedPointFillCalculator} (bit-identical to
+ * {@link TradeFillCalculator}, which the per-subscriber path uses), and the
+ * changes go out as JDBC batches (dirty-checked updates); the chunk's
+ * Transaction and BotTrade rows are appended to the {@link TradeJournal} as a
+ * single entry.
+ *
+ * Chunks are pages of the {@link SubscriberRoster}, so a signal starts without
+ * scanning the subscriptions table, and subscribers whose cached balances make
+ * the fill fall below the minimum are skipped without being loaded. So are
+ * subscriptions the {@link DailyLossGuard} has paused, which is told about
+ * every committed fill.
+ *
+ * The admin counterparty side of the whole chunk is netted in an
+ * {@link AdminTreasury.Netting} and written as one aggregated update per asset,
+ * so the admin rows are touched once per chunk instead of once per subscriber.
+ *
+ * Failure isolation is kept per subscriber: every check runs before anything
+ * is mutated, so a subscriber that would fail is simply left untouched. If the
+ * chunk itself fails (e.g. a constraint violation at flush), it is rolled back
+ * and replayed one subscriber per transaction through {@link BotTradeService}.
+ * With the {@link WalletSequencer} enabled, chunks are not used: every
+ * subscriber's transaction runs on its user's wallet lane, all lanes of a
+ * page in parallel.
+ *
+ * Progress is recorded on the {@link BotSignal} once per chunk (a cursor plus
+ * success/failure counts). A fan-out interrupted by a restart resumes after
+ * the last recorded chunk; inside that chunk, subscribers that already hold a
+ * trade for the signal are skipped.
+ */
+@Component
+@Slf4j
+public class BotFanOutEngine {
+
+    private final BotSubscriptionRepository subRepo;
+    private final WalletRepository walletRepo;
+    private final CoinHoldingRepository holdingRepo;
+    private final CoinCatalog coinCatalog;
+    private final BotTradeRepository botTradeRepo;
+    private final TradeJournal tradeJournal;
+    private final BotSignalRepository signalRepo;
+    private final SubscriberRoster roster;
+    private final DailyLossGuard lossGuard;
+    private final AdminTreasury adminTreasury;
+    private final BotTradeService botTradeService;
+    private final OptimisticRetry optimisticRetry;
+    private final WalletSequencer walletSequencer;
+    private final TransactionTemplate txTemplate;
+    private final int chunkSize;
+
+    public BotFanOutEngine(BotSubscriptionRepository subRepo,
+            WalletRepository walletRepo,
+            CoinHoldingRepository holdingRepo,
+            CoinCatalog coinCatalog,
+            BotTradeRepository botTradeRepo,
+            TradeJournal tradeJournal,
+            BotSignalRepository signalRepo,
+            SubscriberRoster roster,
+            DailyLossGuard lossGuard,
+            AdminTreasury adminTreasury,
+            BotTradeService botTradeService,
+            OptimisticRetry optimisticRetry,
+            WalletSequencer walletSequencer,
+            PlatformTransactionManager transactionManager,
+            @Value("${bot.fanout.chunk-size:500}") int chunkSize,
+            @Value("${bot.fanout.transaction-timeout:30}") int transactionTimeout) {
+        this.subRepo = subRepo;
+        this.walletRepo = walletRepo;
+        this.holdingRepo = holdingRepo;
+        this.coinCatalog = coinCatalog;
+        this.botTradeRepo = botTradeRepo;
+        this.tradeJournal = tradeJournal;
+        this.signalRepo = signalRepo;
+        this.roster = roster;
+        this.lossGuard = lossGuard;
+        this.adminTreasury = adminTreasury;
+        this.botTradeService = botTradeService;
+        this.optimisticRetry = optimisticRetry;
+        this.walletSequencer = walletSequencer;
+        this.chunkSize = Math.max(1, chunkSize);
+
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        // REQUIRES_NEW: every chunk (or fallback subscriber) commits on its own
+        this.txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.txTemplate.setTimeout(transactionTimeout);
+    }
+
+    /**
+     * Bulk mode: one transaction and a few statements per chunk.
+     */
+    public FanOutResult fanOut(BotSignal signal, BigDecimal price) {
+        return run(signal, price, true);
+    }
+
+    /**
+     * Legacy mode: one transaction per subscriber via {@link BotTradeService}.
+     */
+    public FanOutResult fanOutPerSubscriber(BotSignal signal, BigDecimal price) {
+        return run(signal, price, false);
+    }
+
+    private FanOutResult run(BotSignal signal, BigDecimal price, boolean bulk) {
+        UUID botId = signal.getBot().getId();
+        BotAction action = signal.getAction();
+        // A chunk spans many wallets; with the wallet sequencer every fill goes to its user's lane
+        boolean chunked = bulk && !walletSequencer.isEnabled();
+        FanOutResult total = new FanOutResult(0, 0);
+
+        // Only a signal that was already started before (recovered after a restart)
+        // can have trades to skip
+        boolean resumed = signal.getFanoutStartedAt() != null;
+        if (resumed) {
+            // Its trades may still sit in the journal
+            tradeJournal.flush();
+        }
+
+        // Pages come from the in-memory roster, in id order; a recovered signal
+        // resumes after its last committed chunk (no cursor: from the first one)
+        UUID lastId = signal.getFanoutCursor();
+        while (true) {
+            List<SubscriberRoster.Entry> page = roster.page(botId, lastId, chunkSize);
+            if (page.isEmpty()) {
+                break;
+            }
+            lastId = page.get(page.size() - 1).subscriptionId();
+
+            // Subscribers an interrupted run already traded for (per-subscriber commits
+            // inside a chunk that never recorded its progress) are not traded twice
+            Set<UUID> done = resumed
+                    ? botTradeRepo.findTradedSubscriptionIds(signal.getId(),
+                            page.stream().map(SubscriberRoster.Entry::subscriptionId).toList())
+                    : Set.of();
+
+            // Fills certain to be below the minimum, and subscriptions past their daily
+            // loss limit, are skipped without loading the row
+            Map<UUID, SubscriberRoster.Entry> pending = new LinkedHashMap<>();
+            for (SubscriberRoster.Entry entry : page) {
+                if (!done.contains(entry.subscriptionId()) && entry.wouldTrade(action, price)
+                        && !lossGuard.isTripped(entry.subscriptionId())) {
+                    pending.put(entry.subscriptionId(), entry);
+                }
+            }
+            ChunkProgress progress = new ChunkProgress(signal.getId(), lastId, page.size() - pending.size());
+
+            FanOutResult chunkResult = chunked ? runChunk(pending, progress, signal, price) : null;
+            if (chunkResult == null) {
+                chunkResult = runPerSubscriber(pending, progress, signal, price);
+            }
+            total = total.plus(chunkResult);
+
+            if (page.size() < chunkSize) {
+                break;
+            }
+        }
+        roster.rebuildIfStale(botId);
+        return total;
+    }
+
+    /**
+     * Returns {@code null} when the chunk was rolled back and must be replayed.
+     *
+     * @param pending subscription id to the roster entry (version) it was picked from
+     */
+    private FanOutResult runChunk(Map<UUID, SubscriberRoster.Entry> pending, ChunkProgress progress, BotSignal signal,
+            BigDecimal price) {
+        List<BotSubscription> loaded = new ArrayList<>(pending.size());
+        FanOutResult chunkResult;
+        try {
+            chunkResult = txTemplate.execute(status -> {
+                FanOutResult result = applyChunk(pending, signal, price, loaded).plus(progress.alreadyDone());
+                // Same transaction as the trades: the cursor never runs ahead of them
+                record(progress, result);
+                return result;
+            });
+        } catch (Exception e) {
+            log.warn("⚠️ Bulk fan-out chunk of {} failed, retrying per subscriber: {}", pending.size(),
+                    e.getMessage());
+            return null;
+        }
+        // Committed: from here on nothing may send the chunk to the replay
+        afterCommit(signal.getBot().getId(), loaded, price);
+        return chunkResult;
+    }
+
+    /**
+     * Feeds committed fills to the roster and the daily-loss guard. Their
+     * failures (the guard's pause hits the DB) are logged only: the trades are
+     * already committed and must not be replayed or counted again.
+     */
+    private void afterCommit(UUID botId, List<BotSubscription> committed, BigDecimal price) {
+        try {
+            roster.applyCommitted(botId, committed);
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Roster update after fan-out failed for bot {}, rebuilding: {}", botId, e.getMessage());
+            roster.markStale(botId);
+        }
+        try {
+            lossGuard.onFills(committed, price);
+        } catch (RuntimeException e) {
+            log.error("❌ Daily loss check after fan-out failed for bot {}: {}", botId, e.getMessage());
+        }
+    }
+
+    private FanOutResult runPerSubscriber(Map<UUID, SubscriberRoster.Entry> pending, ChunkProgress progress,
+            BotSignal signal, BigDecimal price) {
+        UUID botId = signal.getBot().getId();
+        // Inline one after another, or on every user's wallet lane at once (sequencer mode)
+        List<SubscriberRoster.Entry> entries = new ArrayList<>(pending.values());
+        List<CompletableFuture<BotSubscription>> fills = new ArrayList<>(entries.size());
+        for (SubscriberRoster.Entry expected : entries) {
+            fills.add(walletSequencer.submit(expected.userId(), () -> fillOne(expected, signal, price)));
+        }
+
+        List<BotSubscription> committed = new ArrayList<>(pending.size());
+        int succeeded = 0;
+        int failed = 0;
+        for (int i = 0; i < fills.size(); i++) {
+            try {
+                BotSubscription sub = fills.get(i).join();
+                if (sub != null) {
+                    committed.add(sub);
+                } else {
+                    roster.markStale(botId); // paused or removed behind the roster
+                }
+                succeeded++;
+            } catch (Exception e) {
+                failed++;
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                log.error("❌ Failed to copy trade for Subscription ID: {} | Error: {}",
+                        entries.get(i).subscriptionId(), cause.getMessage());
+                // We continue loop so other users are not affected
+            }
+        }
+        afterCommit(botId, committed, price);
+
+        FanOutResult result = new FanOutResult(succeeded, failed).plus(progress.alreadyDone());
+        txTemplate.executeWithoutResult(status -> record(progress, result));
+        return result;
+    }
+
+    /**
+     * One subscriber in its own transaction. Returns the committed row, or
+     * {@code null} when it is no longer active.
+     */
+    private BotSubscription fillOne(SubscriberRoster.Entry expected, BotSignal signal, BigDecimal price) {
+        UUID botId = signal.getBot().getId();
+        BotAction action = signal.getAction();
+        AtomicReference<BotSubscription> loaded = new AtomicReference<>();
+        // A version conflict with a concurrent manual trade re-runs this subscriber only
+        optimisticRetry.run("bot_trade", () -> txTemplate.executeWithoutResult(status -> {
+            loaded.set(null);
+            subRepo.findActiveWithBotByIdIn(List.of(expected.subscriptionId())).stream().findFirst()
+                    .ifPresent(sub -> {
+                        loaded.set(sub);
+                        if (sub.getVersion() != expected.version()) {
+                            roster.markStale(botId);
+                        }
+                        if (action == BotAction.BUY) {
+                            botTradeService.executeBuy(sub, signal, price);
+                        } else if (action == BotAction.SELL) {
+                            botTradeService.executeSell(sub, signal, price);
+                        }
+                    });
+        }));
+        return loaded.get();
+    }
+
+    private void record(ChunkProgress progress, FanOutResult result) {
+        signalRepo.advanceFanOut(progress.signalId(), progress.chunkEnd(), result.succeeded(), result.failed());
+    }
+
+    /**
+     * Runs INSIDE the chunk transaction.
+     */
+    private FanOutResult applyChunk(Map<UUID, SubscriberRoster.Entry> pending, BotSignal signal, BigDecimal price,
+            List<BotSubscription> loaded) {
+        if (pending.isEmpty()) {
+            return new FanOutResult(0, 0);
+        }
+        List<BotSubscription> subs = subRepo.findActiveWithBotByIdIn(pending.keySet());
+        loaded.addAll(subs);
+
+        // Rows paused or edited behind the roster: trade on what was loaded, rebuild afterwards
+        if (subs.size() != pending.size()
+                || subs.stream().anyMatch(sub -> sub.getVersion() != pending.get(sub.getId()).version())) {
+            roster.markStale(signal.getBot().getId());
+        }
+        if (subs.isEmpty()) {
+            return new FanOutResult(0, 0);
+        }
+        BotAction action = signal.getAction();
+
+        Bot bot = subs.get(0).getBot();
+        Coin coin = coinCatalog.findBySymbol(bot.getCoinSymbol())
+                .orElseThrow(() -> new IdInvalidException("Coin not found: " + bot.getCoinSymbol()));
+
+        Chunk chunk = loadChunk(subs, coin, signal, price);
+
+        int succeeded = 0;
+        int failed = 0;
+        for (BotSubscription sub : subs) {
+            try {
+                if (action == BotAction.BUY) {
+                    applyBuy(chunk, sub, price);
+                } else if (action == BotAction.SELL) {
+                    applySell(chunk, sub, price);
+                }
+                succeeded++;
+            } catch (RuntimeException e) {
+                failed++;
+                log.error("❌ Failed to copy trade for User ID: {} | Error: {}", sub.getUserId(), e.getMessage());
+            }
+        }
+
+        // One aggregated admin update per asset for the whole chunk
+        chunk.treasury.flush();
+
+        // Managed wallets, holdings and subscriptions are flushed as batched UPDATEs
+        // at commit; only new rows need an explicit save.
+        if (!chunk.newHoldings.isEmpty()) {
+            holdingRepo.saveAll(chunk.newHoldings);
+        }
+        // Audit rows go to the journal as one entry for the whole chunk
+        tradeJournal.append(chunk.transactions, chunk.botTrades);
+
+        return new FanOutResult(succeeded, failed);
+    }
+
+    private Chunk loadChunk(List<BotSubscription> subs, Coin coin, BotSignal signal, BigDecimal price) {
+        List<UUID> userIds = subs.stream().map(BotSubscription::getUserId).toList();
+        Map<UUID, Wallet> walletsByUser = new HashMap<>();
+        for (Wallet wallet : walletRepo.findByUserIdIn(userIds)) {
+            walletsByUser.put(wallet.getUser().getId(), wallet);
+        }
+
+        List<UUID> walletIds = walletsByUser.values().stream().map(Wallet::getId).toList();
+        Map<UUID, CoinHolding> holdingsByWallet = new HashMap<>();
+        if (!walletIds.isEmpty()) {
+            for (CoinHolding holding : holdingRepo.findByWalletIdInAndCoinId(walletIds, coin.getId())) {
+                holdingsByWallet.put(holding.getWallet().getId(), holding);
+            }
+        }
+
+        // Price and both fees are fixed for the chunk (one bot, one coin)
+        FixedPointFillCalculator fills = new FixedPointFillCalculator(price, coin.getFee(),
+                subs.get(0).getBot().getFee());
+        return new Chunk(coin, signal, fills, walletsByUser, holdingsByWallet, adminTreasury.open(), subs.size());
+    }
+
+    /**
+     * Same rules and arithmetic as {@code BotTradeServiceImpl.executeBuy}; all
+     * checks come before the first mutation.
+     */
+    private void applyBuy(Chunk chunk, BotSubscription sub, BigDecimal price) {
+        if (price.compareTo(BigDecimal.ZERO) <= 0)
+            return;
+
+        Wallet userWallet = chunk.walletsByUser.get(sub.getUserId());
+        if (userWallet == null) {
+            throw new RuntimeException("Wallet not found");
+        }
+
+        BigDecimal grossUsdtToSpend = chunk.fills.buyNotional(sub.getBotWalletBalance(), sub.getTradePercentage());
+
+        if (grossUsdtToSpend.compareTo(TradeFillCalculator.MIN_TRADE_VALUE_USDT) <= 0) {
+            log.debug("🚫 BUY Skipped: Amount {} USDT is below minimum (5 USDT) for user {}",
+                    grossUsdtToSpend, sub.getUserId());
+            return;
+        }
+        if (userWallet.getBalance().compareTo(grossUsdtToSpend) < 0) {
+            log.warn("💰 Insufficient Wallet Funds: User {} has {} but needs {}",
+                    sub.getUserId(), userWallet.getBalance(), grossUsdtToSpend);
+            return;
+        }
+
+        BigDecimal finalQuantity = chunk.fills.buyQuantity(grossUsdtToSpend);
+
+        // Admin liquidity is reserved up front (the single path checks after moving USDT
+        // and rolls back)
+        if (!chunk.treasury.tryDebitCoin(chunk.coin, finalQuantity)) {
+            log.error("🚨 LIQUIDITY CRISIS: Admin wallet empty for {}", chunk.coin.getSymbol());
+            throw new RuntimeException("System Maintenance: Insufficient Liquidity");
+        }
+
+        // A. USDT: User -> Admin
+        userWallet.setBalance(userWallet.getBalance().subtract(grossUsdtToSpend));
+        chunk.treasury.creditUsdt(grossUsdtToSpend);
+
+        // B. COIN: Admin -> User
+        CoinHolding userHolding = chunk.holdingFor(userWallet);
+        BigDecimal newTotalQty = userHolding.getAmount().add(finalQuantity);
+        userHolding.setAmount(newTotalQty);
+        BigDecimal newAveragePrice = chunk.fills.averageBuyPrice(newTotalQty, userHolding.getAverageBuyPrice(),
+                grossUsdtToSpend);
+        if (newAveragePrice != null) {
+            userHolding.setAverageBuyPrice(newAveragePrice);
+        }
+
+        // C. Virtual balances of the bot sub-wallet
+        sub.setBotWalletBalance(sub.getBotWalletBalance().subtract(grossUsdtToSpend));
+        sub.setBotWalletCoin(sub.getBotWalletCoin().add(finalQuantity));
+
+        chunk.record(sub, userWallet, BaseTrade.TradeType.BUY, finalQuantity, price, grossUsdtToSpend,
+                grossUsdtToSpend);
+        log.debug("✅ BUY: User {} | Spent {} USDT | Got {} {}", sub.getUserId(), grossUsdtToSpend, finalQuantity,
+                chunk.coin.getSymbol());
+    }
+
+    /**
+     * Same rules and arithmetic as {@code BotTradeServiceImpl.executeSell}; all
+     * checks come before the first mutation.
+     */
+    private void applySell(Chunk chunk, BotSubscription sub, BigDecimal price) {
+        if (price.compareTo(BigDecimal.ZERO) <= 0)
+            return;
+
+        Wallet userWallet = chunk.walletsByUser.get(sub.getUserId());
+        if (userWallet == null) {
+            throw new IdInvalidException("User Wallet not found");
+        }
+        CoinHolding userHolding = chunk.holdingsByWallet.get(userWallet.getId());
+        if (userHolding == null) {
+            throw new InsufficientBalanceException("No holding found to sell");
+        }
+
+        BigDecimal quantityToSell = chunk.fills.sellQuantity(sub.getBotWalletCoin(), sub.getTradePercentage());
+        if (quantityToSell.compareTo(BigDecimal.ZERO) <= 0)
+            return;
+
+        if (userHolding.getAmount().compareTo(quantityToSell) < 0) {
+            log.warn("⚠️ Mismatch: User {} virtual alloc says sell {}, but real holding is only {}. Adjusting.",
+                    sub.getUserId(), quantityToSell, userHolding.getAmount());
+            quantityToSell = userHolding.getAmount();
+        }
+
+        BigDecimal rawUsdtValue = quantityToSell.multiply(price);
+        if (rawUsdtValue.compareTo(TradeFillCalculator.MIN_TRADE_VALUE_USDT) <= 0) {
+            log.debug("🚫 SELL Skipped: Value {} USDT is below minimum", rawUsdtValue);
+            return;
+        }
+
+        BigDecimal finalUsdt = chunk.fills.sellProceeds(quantityToSell);
+
+        if (!chunk.treasury.tryDebitUsdt(finalUsdt)) {
+            log.error("🚨 CRITICAL: Admin Wallet Insufficient USDT to pay User for SELL!");
+            throw new InsufficientBalanceException("System Liquidity Error: Cannot Process Sell");
+        }
+
+        // A. COIN: User -> Admin
+        userHolding.setAmount(userHolding.getAmount().subtract(quantityToSell));
+        chunk.treasury.creditCoin(chunk.coin, quantityToSell);
+
+        // B. USDT: Admin -> User
+        userWallet.setBalance(userWallet.getBalance().add(finalUsdt));
+
+        // C. Virtual balances (re-invest logic)
+        sub.setBotWalletCoin(sub.getBotWalletCoin().subtract(quantityToSell));
+        sub.setBotWalletBalance(sub.getBotWalletBalance().add(finalUsdt));
+
+        // Fee = Raw Value - Final Value Received
+        BigDecimal totalFee = rawUsdtValue.subtract(finalUsdt);
+        chunk.record(sub, userWallet, BaseTrade.TradeType.SELL, quantityToSell, price, finalUsdt, totalFee);
+        log.debug("✅ SELL: User {} | Sold {} {} | Got {} USDT", sub.getUserId(), quantityToSell,
+                chunk.coin.getSymbol(), finalUsdt);
+    }
+
+    /**
+     * Everything one chunk transaction reads and writes.
+     */
+    private static final class Chunk {
+        private final Coin coin;
+        private final BotSignal signal;
+        private final FixedPointFillCalculator fills;
+        private final Map<UUID, Wallet> walletsByUser;
+        private final Map<UUID, CoinHolding> holdingsByWallet;
+        private final AdminTreasury.Netting treasury;
+        private final List<CoinHolding> newHoldings = new ArrayList<>();
+        private final List<Transaction> transactions;
+        private final List<BotTrade> botTrades;
+
+        private Chunk(Coin coin, BotSignal signal, FixedPointFillCalculator fills, Map<UUID, Wallet> walletsByUser,
+                Map<UUID, CoinHolding> holdingsByWallet, AdminTreasury.Netting treasury, int expectedTrades) {
+            this.coin = coin;
+            this.signal = signal;
+            this.fills = fills;
+            this.walletsByUser = walletsByUser;
+            this.holdingsByWallet = holdingsByWallet;
+            this.treasury = treasury;
+            this.transactions = new ArrayList<>(expectedTrades);
+            this.botTrades = new ArrayList<>(expectedTrades);
+        }
+
+        private CoinHolding holdingFor(Wallet wallet) {
+            return holdingsByWallet.computeIfAbsent(wallet.getId(), id -> {
+                CoinHolding created = CoinHolding.builder()
+                        .wallet(wallet)
+                        .coin(coin)
+                        .amount(BigDecimal.ZERO)
+                        .averageBuyPrice(BigDecimal.ZERO)
+                        .build();
+                newHoldings.add(created);
+                return created;
+            });
+        }
+
+        private void record(BotSubscription sub, Wallet wallet, BaseTrade.TradeType type, BigDecimal qty,
+                BigDecimal price, BigDecimal notional, BigDecimal feeOrNotional) {
+            BigDecimal tradeFee = type == BaseTrade.TradeType.SELL ? feeOrNotional : BigDecimal.ZERO;
+            transactions.add(Transaction.builder()
+                    .wallet(wallet)
+                    .coin(coin)
+                    .type(type)
+                    .source(Transaction.Source.BOT)
+                    .quantity(qty)
+                    .priceAtExecution(price)
+                    .notionalValue(qty.multiply(price))
+                    .feeTradeApplied(tradeFee)
+                    .build());
+            botTrades.add(BotTrade.builder()
+                    .bot(sub.getBot())
+                    .botSubscription(sub)
+                    .botSignal(signal)
+                    .wallet(wallet)
+                    .coin(coin)
+                    .type(type)
+                    .quantity(qty)
+                    .priceAtExecution(price)
+                    .notionalValue(notional)
+                    .feeBotApplied(BigDecimal.ZERO)
+                    .feeTradeApplied(tradeFee)
+                    .build());
+        }
+    }
+
+    /**
+     * Where a chunk ends and how many of its subscribers were already done.
+     */
+    private record ChunkProgress(UUID signalId, UUID chunkEnd, int alreadyDoneCount) {
+        FanOutResult alreadyDone() {
+            return new FanOutResult(alreadyDoneCount, 0);
+        }
+    }
+}
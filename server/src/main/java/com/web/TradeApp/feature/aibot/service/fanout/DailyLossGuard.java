@@ -0,0 +1,388 @@
+package com.web.TradeApp.feature.aibot.service.fanout;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.web.TradeApp.feature.aibot.event.BotSubscriptionChangedEvent;
+import com.web.TradeApp.feature.aibot.model.BotSubscription;
+import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
+import com.web.TradeApp.feature.aibot.repository.BotTradeRepository;
+import com.web.TradeApp.feature.aibot.repository.SnapshotMetricsRepository;
+import com.web.TradeApp.feature.aibot.service.journal.TradeJournal;
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.event.MarketPricesUpdatedEvent;
+import com.web.TradeApp.feature.coin.service.CoinCatalog;
+import com.web.TradeApp.feature.coin.service.MarketPriceCache;
+import com.web.TradeApp.feature.common.entity.BaseTrade.TradeType;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Enforces {@code BotSubscription.maxDailyLossPercentage}.
+ *
+ * Every subscription with a limit gets a rolling window of PnL samples
+ * ({@code equity - netInvestment}, one per bucket) kept in memory and updated
+ * incrementally: from the committed balances after each fill and from every
+ * market price tick. When the PnL has dropped from the start of the window by
+ * the limit (as a share of the equity at that point), the subscription is
+ * paused and the fan-out skips it from then on. Resuming it starts a fresh
+ * window.
+ *
+ * No aggregate query runs per trade. After a restart the window is seeded
+ * from the {@link com.web.TradeApp.feature.aibot.model.SubscriptionSnapshot}s
+ * inside it; subscriptions without one get their window start rebuilt by
+ * rewinding their bot trades from the current balances.
+ *
+ * PnL is tracked in {@code double}: it only decides when to pause, it never
+ * moves money.
+ */
+@Component
+@Slf4j
+public class DailyLossGuard {
+
+    private final BotSubscriptionRepository subRepo;
+    private final SnapshotMetricsRepository snapshotRepo;
+    private final BotTradeRepository botTradeRepo;
+    private final TradeJournal tradeJournal;
+    private final CoinCatalog coinCatalog;
+    private final MarketPriceCache marketPriceCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+
+    private final Duration window;
+    private final long bucketMinutes;
+    private final int buckets;
+
+    private static final int SEED_BATCH = 1000;
+
+    private final ConcurrentHashMap<UUID, Tracker> trackers = new ConcurrentHashMap<>();
+    // CoinGecko id -> subscriptions to re-value on a tick of that coin
+    private final ConcurrentHashMap<String, Set<UUID>> byCoin = new ConcurrentHashMap<>();
+
+    public DailyLossGuard(BotSubscriptionRepository subRepo,
+            SnapshotMetricsRepository snapshotRepo,
+            BotTradeRepository botTradeRepo,
+            TradeJournal tradeJournal,
+            CoinCatalog coinCatalog,
+            MarketPriceCache marketPriceCache,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${bot.risk.daily-loss.window-hours:24}") long windowHours,
+            @Value("${bot.risk.daily-loss.bucket-minutes:15}") long bucketMinutes) {
+        this.subRepo = subRepo;
+        this.snapshotRepo = snapshotRepo;
+        this.botTradeRepo = botTradeRepo;
+        this.tradeJournal = tradeJournal;
+        this.coinCatalog = coinCatalog;
+        this.marketPriceCache = marketPriceCache;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.window = Duration.ofHours(windowHours);
+        this.bucketMinutes = Math.max(1, bucketMinutes);
+        this.buckets = (int) (window.toMinutes() / this.bucketMinutes) + 1;
+        Gauge.builder("bot.risk.daily_loss.tracked", trackers, Map::size)
+                .description("Subscriptions with a daily loss limit being tracked")
+                .register(meterRegistry);
+    }
+
+    /**
+     * True when the subscription breached its limit; its pause may still be
+     * committing, so the fan-out checks this as well as the active flag.
+     */
+    public boolean isTripped(UUID subscriptionId) {
+        Tracker tracker = trackers.get(subscriptionId);
+        return tracker != null && tracker.tripped;
+    }
+
+    /**
+     * Committed state of subscriptions after a fan-out chunk, at the fill price.
+     */
+    public void onFills(Collection<BotSubscription> subs, BigDecimal price) {
+        long bucket = bucketOf(Instant.now());
+        double fillPrice = price.doubleValue();
+        for (BotSubscription sub : subs) {
+            Tracker tracker = trackers.get(sub.getId());
+            if (tracker != null) {
+                tracker.update(sub);
+                evaluate(tracker, fillPrice, bucket);
+            }
+        }
+    }
+
+    // Off the publishing thread: a tick may come from a trade request or a dispatch lane
+    @Async
+    @EventListener
+    public void onPriceTick(MarketPricesUpdatedEvent event) {
+        long bucket = bucketOf(Instant.now());
+        event.getPrices().forEach((coinGeckoId, price) -> {
+            Set<UUID> subIds = byCoin.get(coinGeckoId);
+            if (subIds == null || price == null) {
+                return;
+            }
+            double tick = price.doubleValue();
+            for (UUID subId : subIds) {
+                Tracker tracker = trackers.get(subId);
+                if (tracker != null) {
+                    evaluate(tracker, tick, bucket);
+                }
+            }
+        });
+    }
+
+    /**
+     * Tracks new and edited subscriptions and drops paused ones; a resumed
+     * subscription starts with an empty window.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubscriptionChanged(BotSubscriptionChangedEvent event) {
+        List<BotSubscription> found = subRepo.findActiveWithBotByIdIn(List.of(event.getSubscriptionId()));
+        BotSubscription sub = found.isEmpty() ? null : found.get(0);
+        if (sub == null || sub.getMaxDailyLossPercentage() == null) {
+            untrack(event.getSubscriptionId());
+            return;
+        }
+        Tracker existing = trackers.get(sub.getId());
+        if (existing != null && !existing.tripped) {
+            existing.update(sub);
+            return;
+        }
+        // Resumed after a breach (or first seen): fresh window
+        untrack(sub.getId());
+        Tracker tracker = track(sub);
+        if (tracker != null) {
+            seedCurrent(tracker, Instant.now());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void seed() {
+        Instant now = Instant.now();
+        Instant from = now.minus(window);
+
+        for (BotSubscription sub : subRepo.findActiveWithDailyLossLimit()) {
+            track(sub);
+        }
+        if (trackers.isEmpty()) {
+            return;
+        }
+
+        // 1. Snapshots inside the window, oldest first
+        for (Object[] row : snapshotRepo.findActiveSamplesSince(from)) {
+            Tracker tracker = trackers.get((UUID) row[0]);
+            if (tracker != null) {
+                tracker.sample(bucketOf((Instant) row[1]), toDouble(row[2]), toDouble(row[3]));
+            }
+        }
+
+        // 2. No snapshot yet: window start = balances before the window's trades
+        // (journaled trades are flushed first so the rewind sees all of them)
+        tradeJournal.flush();
+        List<UUID> unsampled = trackers.values().stream()
+                .filter(tracker -> !tracker.hasSamples())
+                .map(tracker -> tracker.subscriptionId)
+                .toList();
+        Map<UUID, double[]> rewound = new HashMap<>();
+        for (int i = 0; i < unsampled.size(); i += SEED_BATCH) {
+            List<UUID> batch = unsampled.subList(i, Math.min(i + SEED_BATCH, unsampled.size()));
+            for (Object[] row : botTradeRepo.findTradesSince(batch, from)) {
+                rewind(rewound, trackers.get((UUID) row[0]), row);
+            }
+        }
+        long windowStart = bucketOf(from) + 1;
+        rewound.forEach((subId, state) -> {
+            Tracker tracker = trackers.get(subId);
+            double equity = state[0] + state[1] * state[2];
+            tracker.sample(windowStart, equity - tracker.netInvestment, equity);
+        });
+
+        // 3. Current value of everyone, at the cached price
+        for (Tracker tracker : trackers.values()) {
+            seedCurrent(tracker, now);
+        }
+        log.info("🛡️ Daily-loss guard seeded: {} subscriptions ({} from trades)", trackers.size(), rewound.size());
+    }
+
+    // Undoes one trade (rows come newest first); state = [balance, coin, earliest trade price]
+    private static void rewind(Map<UUID, double[]> rewound, Tracker tracker, Object[] row) {
+        double[] state = rewound.computeIfAbsent(tracker.subscriptionId,
+                id -> new double[] { tracker.balance, tracker.coin, 0 });
+        double quantity = toDouble(row[2]);
+        double notional = toDouble(row[4]);
+        if (row[1] == TradeType.BUY) {
+            state[0] += notional;
+            state[1] -= quantity;
+        } else {
+            state[0] -= notional;
+            state[1] += quantity;
+        }
+        state[2] = toDouble(row[3]);
+    }
+
+    private void seedCurrent(Tracker tracker, Instant now) {
+        try {
+            double price = marketPriceCache.getPrice(tracker.coinGeckoId).doubleValue();
+            evaluate(tracker, price, bucketOf(now));
+        } catch (RuntimeException e) {
+            // No price yet: the first tick of the coin evaluates it
+            log.debug("Daily-loss guard: no price for {} yet: {}", tracker.coinGeckoId, e.getMessage());
+        }
+    }
+
+    private void evaluate(Tracker tracker, double price, long bucket) {
+        double lossRatio = tracker.observe(price, bucket, buckets);
+        if (Double.isNaN(lossRatio)) {
+            return;
+        }
+        pause(tracker, lossRatio);
+    }
+
+    private void pause(Tracker tracker, double lossRatio) {
+        int paused = subRepo.pauseActive(tracker.subscriptionId, Instant.now());
+        if (paused == 0) {
+            return;
+        }
+        meterRegistry.counter("bot.risk.daily_loss.paused").increment();
+        log.warn("🛑 Subscription {} paused: lost {}% in {}h (limit {}%)", tracker.subscriptionId,
+                String.format("%.2f", lossRatio * 100), window.toHours(),
+                String.format("%.2f", tracker.limit * 100));
+        // Roster and this guard drop it once the pause is visible
+        eventPublisher.publishEvent(new BotSubscriptionChangedEvent(this, tracker.botId, tracker.subscriptionId));
+    }
+
+    private Tracker track(BotSubscription sub) {
+        Coin coin = coinCatalog.findBySymbol(sub.getBot().getCoinSymbol()).orElse(null);
+        if (coin == null) {
+            return null;
+        }
+        Tracker tracker = new Tracker(sub.getId(), sub.getBot().getId(), coin.getCoinGeckoId(), buckets);
+        tracker.update(sub);
+        trackers.put(sub.getId(), tracker);
+        byCoin.computeIfAbsent(coin.getCoinGeckoId(), id -> ConcurrentHashMap.newKeySet()).add(sub.getId());
+        return tracker;
+    }
+
+    private void untrack(UUID subscriptionId) {
+        Tracker removed = trackers.remove(subscriptionId);
+        if (removed != null) {
+            Set<UUID> subIds = byCoin.get(removed.coinGeckoId);
+            if (subIds != null) {
+                subIds.remove(subscriptionId);
+            }
+        }
+    }
+
+    private long bucketOf(Instant time) {
+        return time.getEpochSecond() / 60 / bucketMinutes;
+    }
+
+    private static double toDouble(Object value) {
+        return value == null ? 0 : ((BigDecimal) value).doubleValue();
+    }
+
+    /**
+     * Window of one subscription: a ring with the first sample of each bucket.
+     */
+    private static final class Tracker {
+        private final UUID subscriptionId;
+        private final UUID botId;
+        private final String coinGeckoId;
+
+        private final long[] bucketIds;
+        private final double[] pnls;
+        private final double[] equities;
+
+        private volatile double limit;
+        private volatile double netInvestment;
+        private volatile double balance;
+        private volatile double coin;
+        private volatile boolean tripped;
+
+        private Tracker(UUID subscriptionId, UUID botId, String coinGeckoId, int buckets) {
+            this.subscriptionId = subscriptionId;
+            this.botId = botId;
+            this.coinGeckoId = coinGeckoId;
+            this.bucketIds = new long[buckets];
+            this.pnls = new double[buckets];
+            this.equities = new double[buckets];
+            Arrays.fill(bucketIds, Long.MIN_VALUE);
+        }
+
+        private synchronized void update(BotSubscription sub) {
+            // Requests send a fraction (0.10); older rows hold a percentage (10.0)
+            double raw = sub.getMaxDailyLossPercentage() != null ? sub.getMaxDailyLossPercentage() : 1;
+            limit = raw > 1 ? raw / 100 : raw;
+            netInvestment = toDouble(sub.getNetInvestment());
+            balance = toDouble(sub.getBotWalletBalance());
+            coin = toDouble(sub.getBotWalletCoin());
+        }
+
+        private synchronized boolean hasSamples() {
+            for (long id : bucketIds) {
+                if (id != Long.MIN_VALUE) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private synchronized void sample(long bucket, double pnl, double equity) {
+            int slot = (int) Math.floorMod(bucket, (long) bucketIds.length);
+            if (bucketIds[slot] != bucket) {
+                bucketIds[slot] = bucket;
+                pnls[slot] = pnl;
+                equities[slot] = equity;
+            }
+        }
+
+        /**
+         * Records the current value and returns the loss ratio when this
+         * observation newly breaches the limit, NaN otherwise.
+         */
+        private synchronized double observe(double price, long bucket, int buckets) {
+            double equity = balance + coin * price;
+            double pnl = equity - netInvestment;
+            sample(bucket, pnl, equity);
+            if (tripped) {
+                return Double.NaN;
+            }
+
+            // Oldest sample still inside the window
+            for (long b = bucket - buckets + 1; b <= bucket; b++) {
+                int slot = (int) Math.floorMod(b, (long) bucketIds.length);
+                if (bucketIds[slot] != b) {
+                    continue;
+                }
+                double startEquity = equities[slot];
+                if (startEquity <= 0) {
+                    return Double.NaN;
+                }
+                double lossRatio = (pnls[slot] - pnl) / startEquity;
+                if (lossRatio >= limit) {
+                    tripped = true;
+                    return lossRatio;
+                }
+                return Double.NaN;
+            }
+            return Double.NaN;
+        }
+    }
+}
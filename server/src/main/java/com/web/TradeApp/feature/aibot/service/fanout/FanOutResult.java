@@ -0,0 +1,16 @@
+package com.web.TradeApp.feature.aibot.service.fanout;
+
+/**
+ * Outcome of fanning one signal out to a bot's subscribers. Skipped trades
+ * (below minimum, not enough funds) count as succeeded, as before.
+ */
+public record FanOutResult(int succeeded, int failed) {
+
+    public int total() {
+        return succeeded + failed;
+    }
+
+    FanOutResult plus(FanOutResult other) {
+        return new FanOutResult(succeeded + other.succeeded, failed + other.failed);
+    }
+}
@@ -0,0 +1,231 @@
+package com.web.TradeApp.feature.aibot.service.fanout;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.web.TradeApp.feature.aibot.enums.BotAction;
+import com.web.TradeApp.feature.aibot.event.BotSubscriptionChangedEvent;
+import com.web.TradeApp.feature.aibot.model.BotSubscription;
+import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
+import com.web.TradeApp.feature.aibot.service.TradeFillCalculator;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory list of every bot's active subscriptions, in id order.
+ *
+ * The fan-out pages through it instead of scanning {@code bot_subscriptions}
+ * for each signal, and uses the cached trade percentage and virtual balances
+ * to skip subscribers whose fill would be below the minimum without loading
+ * them at all.
+ *
+ * It is kept current by whoever changes a subscription: fills update it after
+ * their transaction commits, and copy/update/pause/resume publish a
+ * {@link BotSubscriptionChangedEvent}. Every entry carries the row's
+ * {@code @Version}; when the fan-out loads a row whose version differs (the
+ * row changed behind the roster's back), the bot is marked stale and rebuilt
+ * from the DB. All bots are loaded on startup and re-synced periodically.
+ *
+ * Reads are lock-free; changes to one bot's roster are serialized on it.
+ */
+@Component
+@Slf4j
+public class SubscriberRoster {
+
+    private final BotSubscriptionRepository subRepo;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<UUID, BotRoster> rosters = new ConcurrentHashMap<>();
+
+    public SubscriberRoster(BotSubscriptionRepository subRepo, MeterRegistry meterRegistry) {
+        this.subRepo = subRepo;
+        this.meterRegistry = meterRegistry;
+        Gauge.builder("bot.roster.subscribers", rosters,
+                r -> r.values().stream().mapToInt(BotRoster::size).sum())
+                .description("Active subscriptions held in the in-memory roster")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Next page of a bot's active subscriptions with an id after {@code after}
+     * ({@code null}: from the first one). Ids are in {@link UUID#compareTo}
+     * order, which compares signed halves, so there is no all-zero lower bound.
+     */
+    public List<Entry> page(UUID botId, UUID after, int limit) {
+        ConcurrentSkipListMap<UUID, Entry> entries = loaded(botId).entries;
+        Collection<Entry> from = after == null ? entries.values() : entries.tailMap(after, false).values();
+        List<Entry> page = new ArrayList<>(limit);
+        for (Entry entry : from) {
+            if (page.size() == limit) {
+                break;
+            }
+            page.add(entry);
+        }
+        return page;
+    }
+
+    /**
+     * Records the committed state of subscriptions a fan-out loaded. Only
+     * entries still in the roster are updated, and never to an older version,
+     * so a late update cannot undo a pause or an edit applied meanwhile.
+     */
+    public void applyCommitted(UUID botId, Collection<BotSubscription> subs) {
+        BotRoster roster = roster(botId);
+        synchronized (roster) {
+            for (BotSubscription sub : subs) {
+                roster.entries.computeIfPresent(sub.getId(),
+                        (id, current) -> current.version() <= sub.getVersion() ? Entry.of(sub) : current);
+            }
+        }
+    }
+
+    /**
+     * The fan-out saw rows that disagree with the roster (other version,
+     * paused or gone); the bot is rebuilt once its fan-out finishes.
+     */
+    public void markStale(UUID botId) {
+        roster(botId).stale = true;
+    }
+
+    public void rebuildIfStale(UUID botId) {
+        BotRoster roster = roster(botId);
+        if (roster.stale) {
+            rebuild(botId, roster, "mismatch");
+        }
+    }
+
+    /**
+     * Picks up the committed row after a copy, edit, pause or resume. The row
+     * is re-read under the bot's lock so it cannot race a rebuild.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubscriptionChanged(BotSubscriptionChangedEvent event) {
+        BotRoster roster = roster(event.getBotId());
+        synchronized (roster) {
+            if (!roster.loaded) {
+                return; // The first page() reads the committed row anyway
+            }
+            subRepo.findById(event.getSubscriptionId()).ifPresentOrElse(sub -> {
+                if (sub.isActive()) {
+                    roster.entries.merge(sub.getId(), Entry.of(sub),
+                            (current, fresh) -> fresh.version() >= current.version() ? fresh : current);
+                } else {
+                    roster.entries.remove(sub.getId());
+                }
+            }, () -> roster.entries.remove(event.getSubscriptionId()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadAll() {
+        Map<UUID, List<BotSubscription>> byBot = subRepo.findAllByActiveTrue().stream()
+                .collect(Collectors.groupingBy(sub -> sub.getBot().getId()));
+        byBot.forEach((botId, subs) -> {
+            BotRoster roster = rosters.computeIfAbsent(botId, id -> new BotRoster());
+            synchronized (roster) {
+                roster.replace(subs);
+            }
+        });
+        meterRegistry.counter("bot.roster.rebuilds", "reason", "startup").increment();
+        log.info("👥 Subscriber roster loaded: {} bots, {} active subscriptions", byBot.size(),
+                byBot.values().stream().mapToInt(List::size).sum());
+    }
+
+    /**
+     * Safety net for changes made outside this instance (other nodes, SQL).
+     */
+    @Scheduled(fixedDelayString = "${bot.roster.resync-interval-ms:300000}",
+            initialDelayString = "${bot.roster.resync-interval-ms:300000}")
+    public void resync() {
+        rosters.forEach((botId, roster) -> rebuild(botId, roster, "resync"));
+    }
+
+    private BotRoster roster(UUID botId) {
+        return rosters.computeIfAbsent(botId, id -> new BotRoster());
+    }
+
+    // Bots without subscribers at startup (or created since) are loaded on first use
+    private BotRoster loaded(UUID botId) {
+        BotRoster roster = roster(botId);
+        if (!roster.loaded) {
+            synchronized (roster) {
+                if (!roster.loaded) {
+                    rebuild(botId, roster, "miss");
+                }
+            }
+        }
+        return roster;
+    }
+
+    private void rebuild(UUID botId, BotRoster roster, String reason) {
+        synchronized (roster) {
+            roster.stale = false;
+            roster.replace(subRepo.findAllByBotIdAndActiveTrue(botId));
+        }
+        meterRegistry.counter("bot.roster.rebuilds", "reason", reason).increment();
+        log.debug("👥 Roster of bot {} rebuilt ({}): {} subscribers", botId, reason, roster.size());
+    }
+
+    private static final class BotRoster {
+        private volatile ConcurrentSkipListMap<UUID, Entry> entries = new ConcurrentSkipListMap<>();
+        private volatile boolean loaded;
+        private volatile boolean stale;
+
+        private void replace(List<BotSubscription> subs) {
+            ConcurrentSkipListMap<UUID, Entry> fresh = new ConcurrentSkipListMap<>();
+            for (BotSubscription sub : subs) {
+                fresh.put(sub.getId(), Entry.of(sub));
+            }
+            entries = fresh;
+            loaded = true;
+        }
+
+        private int size() {
+            return entries.size();
+        }
+    }
+
+    /**
+     * What the fan-out needs to know about a subscription before loading it.
+     */
+    public record Entry(UUID subscriptionId, UUID userId, BigDecimal tradePercentage, BigDecimal botWalletBalance,
+            BigDecimal botWalletCoin, long version) {
+
+        static Entry of(BotSubscription sub) {
+            return new Entry(sub.getId(), sub.getUserId(), sub.getTradePercentage(), sub.getBotWalletBalance(),
+                    sub.getBotWalletCoin(), sub.getVersion());
+        }
+
+        /**
+         * False when the fill is certain to be skipped as below the minimum
+         * (same rules as the fan-out; the real holding can only lower a SELL).
+         */
+        public boolean wouldTrade(BotAction action, BigDecimal price) {
+            if (action == BotAction.BUY) {
+                return TradeFillCalculator.buyNotional(botWalletBalance, tradePercentage)
+                        .compareTo(TradeFillCalculator.MIN_TRADE_VALUE_USDT) > 0;
+            }
+            if (action == BotAction.SELL) {
+                BigDecimal quantity = TradeFillCalculator.sellQuantity(botWalletCoin, tradePercentage);
+                return quantity.signum() > 0
+                        && quantity.multiply(price).compareTo(TradeFillCalculator.MIN_TRADE_VALUE_USDT) > 0;
+            }
+            return true;
+        }
+    }
+}
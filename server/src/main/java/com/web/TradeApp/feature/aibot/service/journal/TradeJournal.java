@@ -0,0 +1,367 @@
+package com.web.TradeApp.feature.aibot.service.journal;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.web.TradeApp.feature.aibot.model.Bot;
+import com.web.TradeApp.feature.aibot.model.BotSignal;
+import com.web.TradeApp.feature.aibot.model.BotSubscription;
+import com.web.TradeApp.feature.aibot.model.BotTrade;
+import com.web.TradeApp.feature.aibot.model.TradeJournalEntry;
+import com.web.TradeApp.feature.aibot.repository.BotTradeRepository;
+import com.web.TradeApp.feature.aibot.repository.TradeJournalRepository;
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.entity.Transaction;
+import com.web.TradeApp.feature.coin.entity.Wallet;
+import com.web.TradeApp.feature.coin.repository.TransactionRepository;
+import com.web.TradeApp.feature.common.entity.BaseTrade.TradeType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Write-behind journal for the audit rows of bot fills ({@link Transaction}
+ * and {@link BotTrade}).
+ *
+ * A fill no longer inserts its audit rows in the trade transaction. The
+ * records of a whole fan-out chunk are appended as one
+ * {@link TradeJournalEntry} (an outbox row, committed atomically with the
+ * balances it describes). A background writer turns entries into real rows in
+ * large JDBC batches, oldest first, every {@code flush-interval-ms}: that is
+ * the bound on how far the tables lag behind.
+ *
+ * Readers that must see every fill read through the unflushed tail by
+ * flushing it first: bot trade history (only when the subscription has
+ * entries pending), resumed fan-outs and the daily-loss guard seeding.
+ * Entries left by a previous run are drained on startup.
+ *
+ * The audit rows get their {@code created_at} when they are flushed, at most
+ * the journal lag after the fill. An entry that keeps failing is left in the
+ * table after {@code max-attempts} (with its last error) instead of blocking
+ * the entries behind it. With {@code bot.journal.enabled=false} rows are
+ * inserted directly, as before.
+ *
+ * Flushing is serialized in this instance; like the dispatch lanes, the
+ * journal assumes a single application node.
+ */
+@Component
+@Slf4j
+public class TradeJournal {
+
+    private final TradeJournalRepository journalRepo;
+    private final TransactionRepository transactionRepo;
+    private final BotTradeRepository botTradeRepo;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate txTemplate;
+
+    private final boolean enabled;
+    private final int batchEntries;
+    private final int maxAttempts;
+
+    private final Object flushLock = new Object();
+    // Subscription -> committed journal entries holding its trades, not yet flushed
+    private final ConcurrentHashMap<UUID, Integer> pendingBySubscription = new ConcurrentHashMap<>();
+    private final AtomicLong pendingEntries = new AtomicLong();
+    // Until the backlog of a previous run is flushed, any subscription may have entries
+    private volatile boolean drained;
+
+    private final Counter flushedEntries;
+    private final Counter failedEntries;
+    private final Timer lag;
+
+    private static final TypeReference<List<Line>> LINES = new TypeReference<>() {
+    };
+
+    public TradeJournal(TradeJournalRepository journalRepo,
+            TransactionRepository transactionRepo,
+            BotTradeRepository botTradeRepo,
+            EntityManager entityManager,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${bot.journal.enabled:true}") boolean enabled,
+            @Value("${bot.journal.batch-entries:20}") int batchEntries,
+            @Value("${bot.journal.max-attempts:5}") int maxAttempts,
+            @Value("${bot.fanout.transaction-timeout:30}") int transactionTimeout) {
+        this.journalRepo = journalRepo;
+        this.transactionRepo = transactionRepo;
+        this.botTradeRepo = botTradeRepo;
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.batchEntries = Math.max(1, batchEntries);
+        this.maxAttempts = Math.max(1, maxAttempts);
+
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        // REQUIRES_NEW: a read-through flush never joins the caller's transaction
+        this.txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.txTemplate.setTimeout(transactionTimeout);
+
+        Gauge.builder("bot.journal.pending", pendingEntries, AtomicLong::get)
+                .description("Journal entries committed but not flushed yet")
+                .register(meterRegistry);
+        this.flushedEntries = Counter.builder("bot.journal.flushed")
+                .description("Journal entries written to the audit tables")
+                .register(meterRegistry);
+        this.failedEntries = Counter.builder("bot.journal.failed")
+                .description("Failed attempts to flush a journal entry")
+                .register(meterRegistry);
+        this.lag = Timer.builder("bot.journal.lag")
+                .description("Time from append to flush of a journal entry")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Records the audit rows of fills. Must run inside the trade transaction:
+     * the entry commits (or rolls back) with the balances it describes.
+     */
+    public void append(List<Transaction> transactions, List<BotTrade> botTrades) {
+        if (transactions.isEmpty() && botTrades.isEmpty()) {
+            return;
+        }
+        if (!enabled) {
+            transactionRepo.saveAll(transactions);
+            botTradeRepo.saveAll(botTrades);
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Trade journal append requires an active transaction");
+        }
+
+        List<Line> lines = new ArrayList<>(transactions.size() + botTrades.size());
+        transactions.forEach(tx -> lines.add(Line.of(tx)));
+        botTrades.forEach(trade -> lines.add(Line.of(trade)));
+        journalRepo.save(TradeJournalEntry.builder()
+                .payload(serialize(lines))
+                .lineCount(lines.size())
+                .build());
+
+        List<UUID> subIds = botTrades.stream().map(trade -> trade.getBotSubscription().getId()).toList();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pendingEntries.incrementAndGet();
+                subIds.forEach(subId -> pendingBySubscription.merge(subId, 1, Integer::sum));
+            }
+        });
+    }
+
+    /**
+     * Read-through for one subscription ({@code null} = any): flushes the
+     * journal if it may still hold trades of it.
+     */
+    public void flushIfPending(UUID subscriptionId) {
+        if (!enabled) {
+            return;
+        }
+        boolean pending = subscriptionId == null
+                ? !pendingBySubscription.isEmpty()
+                : pendingBySubscription.containsKey(subscriptionId);
+        if (!drained || pending) {
+            flush();
+        }
+    }
+
+    /**
+     * Writes every flushable entry. Returns the number of entries written; a
+     * pass stops early when an entry fails (the next flush retries it).
+     */
+    public int flush() {
+        if (!enabled) {
+            return 0;
+        }
+        synchronized (flushLock) {
+            int flushed = 0;
+            while (true) {
+                List<TradeJournalEntry> batch = journalRepo.findFlushable(maxAttempts,
+                        PageRequest.of(0, batchEntries));
+                if (batch.isEmpty()) {
+                    drained = true;
+                    return flushed;
+                }
+                int written = writeBatch(batch);
+                flushed += written;
+                if (written < batch.size()) {
+                    return flushed;
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${bot.journal.flush-interval-ms:500}")
+    public void scheduledFlush() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("❌ Trade journal flush failed: {}", e.getMessage());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void drainPreviousRun() {
+        int flushed = flush();
+        if (flushed > 0) {
+            log.info("♻️ Trade journal: flushed {} entries left by the previous run", flushed);
+        }
+    }
+
+    // One transaction for the batch; on failure every entry is retried on its own
+    private int writeBatch(List<TradeJournalEntry> batch) {
+        try {
+            List<UUID> subIds = txTemplate.execute(status -> insert(batch));
+            flushed(batch, subIds);
+            return batch.size();
+        } catch (RuntimeException batchError) {
+            log.warn("⚠️ Journal batch of {} entries failed, flushing one by one: {}", batch.size(),
+                    batchError.getMessage());
+        }
+
+        int written = 0;
+        for (TradeJournalEntry entry : batch) {
+            try {
+                List<UUID> subIds = txTemplate.execute(status -> insert(List.of(entry)));
+                flushed(List.of(entry), subIds);
+                written++;
+            } catch (RuntimeException e) {
+                failedEntries.increment();
+                String error = String.valueOf(e.getMessage());
+                journalRepo.markFailed(entry.getId(), error.substring(0, Math.min(error.length(), 1000)));
+                log.error("❌ Journal entry {} ({} lines) failed to flush (attempt {}/{}): {}", entry.getId(),
+                        entry.getLineCount(), entry.getAttempts() + 1, maxAttempts, e.getMessage());
+            }
+        }
+        return written;
+    }
+
+    // Inserts the rows of the entries and deletes them; returns the subscriptions they covered
+    private List<UUID> insert(List<TradeJournalEntry> entries) {
+        List<Transaction> transactions = new ArrayList<>();
+        List<BotTrade> botTrades = new ArrayList<>();
+        List<UUID> subIds = new ArrayList<>();
+        for (TradeJournalEntry entry : entries) {
+            for (Line line : deserialize(entry.getPayload())) {
+                if (line.sub() == null) {
+                    transactions.add(toTransaction(line));
+                } else {
+                    botTrades.add(toBotTrade(line));
+                    subIds.add(line.sub());
+                }
+            }
+        }
+        transactionRepo.saveAll(transactions);
+        botTradeRepo.saveAll(botTrades);
+        journalRepo.deleteAllByIdInBatch(entries.stream().map(TradeJournalEntry::getId).toList());
+        return subIds;
+    }
+
+    private void flushed(List<TradeJournalEntry> entries, List<UUID> subIds) {
+        Instant now = Instant.now();
+        for (TradeJournalEntry entry : entries) {
+            if (entry.getCreatedAt() != null) {
+                lag.record(Duration.between(entry.getCreatedAt(), now));
+            }
+        }
+        flushedEntries.increment(entries.size());
+        // Entries of a previous run were never counted
+        pendingEntries.updateAndGet(pending -> Math.max(0, pending - entries.size()));
+        for (UUID subId : subIds) {
+            pendingBySubscription.computeIfPresent(subId, (id, count) -> count > 1 ? count - 1 : null);
+        }
+    }
+
+    private Transaction toTransaction(Line line) {
+        return Transaction.builder()
+                .wallet(entityManager.getReference(Wallet.class, line.wallet()))
+                .coin(entityManager.getReference(Coin.class, line.coin()))
+                .type(line.type())
+                .source(line.source())
+                .quantity(line.quantity())
+                .priceAtExecution(line.price())
+                .notionalValue(line.notional())
+                .feeTradeApplied(line.feeTrade())
+                .build();
+    }
+
+    private BotTrade toBotTrade(Line line) {
+        return BotTrade.builder()
+                .bot(entityManager.getReference(Bot.class, line.bot()))
+                .botSubscription(entityManager.getReference(BotSubscription.class, line.sub()))
+                .botSignal(line.signal() != null ? entityManager.getReference(BotSignal.class, line.signal()) : null)
+                .wallet(entityManager.getReference(Wallet.class, line.wallet()))
+                .coin(entityManager.getReference(Coin.class, line.coin()))
+                .type(line.type())
+                .quantity(line.quantity())
+                .priceAtExecution(line.price())
+                .notionalValue(line.notional())
+                .feeBotApplied(line.feeBot())
+                .feeTradeApplied(line.feeTrade())
+                .build();
+    }
+
+    private String serialize(List<Line> lines) {
+        try {
+            return objectMapper.writeValueAsString(lines);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize trade journal entry", e);
+        }
+    }
+
+    private List<Line> deserialize(String payload) {
+        try {
+            return objectMapper.readValue(payload, LINES);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Corrupt trade journal entry", e);
+        }
+    }
+
+    /**
+     * One audit row, by ids. BotTrade lines carry the subscription (and bot,
+     * signal, bot fee); Transaction lines carry the source.
+     */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    record Line(UUID wallet, UUID coin, UUID bot, UUID sub, UUID signal, TradeType type,
+            Transaction.Source source, BigDecimal quantity, BigDecimal price, BigDecimal notional,
+            BigDecimal feeTrade, BigDecimal feeBot) {
+
+        static Line of(Transaction tx) {
+            return new Line(tx.getWallet().getId(), tx.getCoin().getId(), null, null, null, tx.getType(),
+                    tx.getSource(), tx.getQuantity(), tx.getPriceAtExecution(), tx.getNotionalValue(),
+                    tx.getFeeTradeApplied(), null);
+        }
+
+        static Line of(BotTrade trade) {
+            return new Line(trade.getWallet().getId(), trade.getCoin().getId(), trade.getBot().getId(),
+                    trade.getBotSubscription().getId(),
+                    trade.getBotSignal() != null ? trade.getBotSignal().getId() : null, trade.getType(), null,
+                    trade.getQuantity(), trade.getPriceAtExecution(), trade.getNotionalValue(),
+                    trade.getFeeTradeApplied(), trade.getFeeBotApplied());
+        }
+    }
+}
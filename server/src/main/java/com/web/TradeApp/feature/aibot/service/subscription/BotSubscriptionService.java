@@ -6,13 +6,11 @@ import com.web.TradeApp.feature.aibot.dto.BotSubscription.BotCopyRequest;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.BotSubscriptionResponse;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.BotUpdateRequest;
 import com.web.TradeApp.feature.aibot.model.BotSignal;
-import com.web.TradeApp.feature.ingestion.event.SignalReceivedEvent;
 
 public interface BotSubscriptionService {
 
-    void onSignalReceived(SignalReceivedEvent event);
-
-    // process all subscription based on BotSignal
+    // process all subscription based on BotSignal (called per bot, in order, by
+    // SignalDispatcher)
     void processSubscriptions(BotSignal signal);
 
     BotSubscriptionResponse copyBot(UUID userId, BotCopyRequest request);
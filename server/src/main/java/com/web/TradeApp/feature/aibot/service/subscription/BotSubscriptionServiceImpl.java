@@ -1,12 +1,12 @@
 package com.web.TradeApp.feature.aibot.service.subscription;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
-import java.util.List;
 import java.util.UUID;
 
-import org.springframework.context.event.EventListener;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import com.web.TradeApp.exception.IdInvalidException;
@@ -14,23 +14,26 @@ import com.web.TradeApp.exception.InsufficientBalanceException;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.BotCopyRequest;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.BotSubscriptionResponse;
 import com.web.TradeApp.feature.aibot.dto.BotSubscription.BotUpdateRequest;
-import com.web.TradeApp.feature.aibot.enums.BotAction;
+import com.web.TradeApp.feature.aibot.enums.SignalStatus;
+import com.web.TradeApp.feature.aibot.event.BotSubscriptionChangedEvent;
 import com.web.TradeApp.feature.aibot.mapper.BotSubMapper;
 import com.web.TradeApp.feature.aibot.model.Bot;
 import com.web.TradeApp.feature.aibot.model.BotSignal;
 import com.web.TradeApp.feature.aibot.model.BotSubscription;
 import com.web.TradeApp.feature.aibot.repository.BotRepository;
+import com.web.TradeApp.feature.aibot.repository.BotSignalRepository;
 import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
-import com.web.TradeApp.feature.aibot.service.BotTradeService;
+import com.web.TradeApp.feature.aibot.service.fanout.BotFanOutEngine;
+import com.web.TradeApp.feature.aibot.service.fanout.FanOutResult;
 import com.web.TradeApp.feature.coin.entity.Coin;
 import com.web.TradeApp.feature.coin.entity.CoinHolding;
 import com.web.TradeApp.feature.coin.entity.Wallet;
 import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
-import com.web.TradeApp.feature.coin.repository.CoinRepository;
 import com.web.TradeApp.feature.coin.repository.WalletRepository;
-import com.web.TradeApp.feature.coin.service.CoinGeckoClient;
-import com.web.TradeApp.feature.ingestion.event.SignalReceivedEvent;
+import com.web.TradeApp.feature.coin.service.CoinCatalog;
+import com.web.TradeApp.feature.coin.service.MarketPriceCache;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -42,29 +45,41 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
 
     private final BotSubscriptionRepository subRepo;
     private final BotRepository botRepo;
-    private final BotTradeService botTradeService;
+    private final BotFanOutEngine fanOutEngine;
     private final WalletRepository walletRepo;
     private final BotSubMapper botSubMapper;
-    private final CoinRepository coinRepo;
+    private final CoinCatalog coinCatalog;
     private final CoinHoldingRepository holdingRepo;
-    private final CoinGeckoClient coinGeckoClient;
+    private final MarketPriceCache marketPriceCache;
+    private final BotSignalRepository signalRepo;
+    private final MeterRegistry meterRegistry;
+    private final ApplicationEventPublisher eventPublisher;
 
-    @Async
-    @EventListener
-    @Transactional
-    @Override
-    public void onSignalReceived(SignalReceivedEvent event) {
-        BotSignal signal = event.getSignal();
-        processSubscriptions(signal);
-    }
+    @Value("${bot.fanout.bulk-enabled:true}")
+    private boolean bulkFanOut;
+
+    @Value("${bot.fanout.retry.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${bot.fanout.retry.backoff-ms:1000}")
+    private long retryBackoffMs;
 
     @Override
     public void processSubscriptions(BotSignal signal) {
         Bot bot = signal.getBot();
+        Instant startedAt = Instant.now();
+
+        // 0. Claim the signal; one that already reached a terminal state is never re-run
+        if (signalRepo.markProcessing(signal.getId(), startedAt) == 0) {
+            log.info("ℹ️ Signal {} already processed, skipping", signal.getId());
+            return;
+        }
+
         // 1. Validate Price
         // We use the price from the SIGNAL (Python Bot) for consistency.
         if (signal.getPrice() == null || signal.getPrice() <= 0) {
             log.error("🚫 Signal Ignored: Invalid Price for Bot {}", bot.getName());
+            finishSignal(signal, SignalStatus.FAILED, "Invalid price", startedAt);
             return;
         }
         BigDecimal executionPrice = BigDecimal.valueOf(signal.getPrice());
@@ -72,35 +87,80 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
         log.info("📢 Starting Fan-Out for Bot: {} | Action: {} | Price: {}",
                 bot.getName(), signal.getAction(), executionPrice);
 
-        // 2. Fetch Active Subscriptions
-        List<BotSubscription> subscriptions = subRepo.findByBotIdAndActiveTrue(bot.getId());
-        if (subscriptions.isEmpty()) {
+        // 2. Fan out over active subscriptions in chunks. No outer transaction: each
+        // chunk (bulk) or subscriber (per-subscriber) commits on its own, so one
+        // failing user never rolls back the others.
+        FanOutResult result = fanOutWithRetry(signal, executionPrice);
+        if (result == null) {
+            return;
+        }
+
+        // 3. Terminal state (partial failures stay EXECUTED, with the count recorded)
+        boolean allFailed = result.failed() > 0 && result.succeeded() == 0;
+        String failures = result.failed() > 0
+                ? String.format("%d of %d subscribers failed", result.failed(), result.total())
+                : null;
+        finishSignal(signal, allFailed ? SignalStatus.FAILED : SignalStatus.EXECUTED, failures, startedAt);
+
+        if (result.total() == 0) {
             log.info("ℹ️ No active subscribers for bot {}", bot.getName());
             return;
         }
-        int successCount = 0;
-        int failCount = 0;
+        log.info("✅ Fan-Out Complete. Success: {} | Failed: {}", result.succeeded(), result.failed());
+    }
 
-        for (BotSubscription sub : subscriptions) {
+    /**
+     * Runs the fan-out, retrying an interrupted one in place with exponential
+     * backoff. The retry stays on the bot's dispatch lane, so later signals of
+     * the bot wait behind it, and resumes from the progress recorded in the
+     * table. Returns {@code null} when it gave up: the signal stays PROCESSING
+     * and the recovery sweep picks it up again.
+     */
+    private FanOutResult fanOutWithRetry(BotSignal signal, BigDecimal executionPrice) {
+        BotSignal attempt = signal;
+        for (int i = 1;; i++) {
             try {
-                processSingleSubscription(sub, signal.getAction(), executionPrice);
-                successCount++;
-            } catch (Exception e) {
-                failCount++;
-                log.error("❌ Failed to copy trade for User ID: {} | Error: {}", sub.getUserId(), e.getMessage());
-                // We continue loop so other users are not affected
+                return bulkFanOut
+                        ? fanOutEngine.fanOut(attempt, executionPrice)
+                        : fanOutEngine.fanOutPerSubscriber(attempt, executionPrice);
+            } catch (RuntimeException e) {
+                if (i >= maxAttempts) {
+                    log.error("❌ Fan-Out of signal {} failed {} times, left for the recovery sweep: {}",
+                            signal.getId(), i, e.getMessage());
+                    return null;
+                }
+                long backoff = retryBackoffMs << (i - 1);
+                log.warn("⚠️ Fan-Out of signal {} interrupted (attempt {}/{}), retrying in {} ms: {}",
+                        signal.getId(), i, maxAttempts, backoff, e.getMessage());
+                try {
+                    Thread.sleep(backoff);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt(); // Shutting down; the sweep resumes it after restart
+                    return null;
+                }
+                // Re-read the cursor and start time: the retry resumes after the last
+                // committed chunk and skips subscribers already traded in the failed one
+                attempt = signalRepo.findWithBotById(signal.getId())
+                        .filter(current -> current.getStatus() == SignalStatus.PROCESSING)
+                        .orElse(null);
+                if (attempt == null) {
+                    log.info("ℹ️ Signal {} was finished elsewhere, not retrying", signal.getId());
+                    return null;
+                }
             }
         }
-
-        log.info("✅ Fan-Out Complete. Success: {} | Failed: {}", successCount, failCount);
     }
 
-    private void processSingleSubscription(BotSubscription sub, BotAction action, BigDecimal price) {
-        // Delegate the transactional heavy lifting to SimulationTradeService
-        if (action == BotAction.BUY) {
-            botTradeService.executeBuy(sub, price);
-        } else if (action == BotAction.SELL) {
-            botTradeService.executeSell(sub, price);
+    private void finishSignal(BotSignal signal, SignalStatus status, String errorMessage, Instant startedAt) {
+        Instant now = Instant.now();
+        signalRepo.finish(signal.getId(), status, errorMessage, now);
+
+        // This run only vs. receipt to terminal state (includes queueing and any restart)
+        meterRegistry.timer("bot.fanout.duration", "status", status.name())
+                .record(Duration.between(startedAt, now));
+        if (signal.getCreatedAt() != null) {
+            meterRegistry.timer("bot.signal.completion_latency", "status", status.name())
+                    .record(Duration.between(signal.getCreatedAt(), now));
         }
     }
 
@@ -114,6 +174,7 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
 
         // validate balance
         validateSufficientAsset(userId, request.botId(), request.botWalletBalance(), request.botWalletCoin());
+        validatePriceTriggers(request.stopLossPrice(), request.takeProfitPrice());
 
         Bot bot = botRepo.findById(request.botId())
                 .orElseThrow(() -> new IdInvalidException("bot id is null"));
@@ -131,6 +192,7 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
         sub.setNetInvestment(netInvestment);
 
         BotSubscription savedSub = subRepo.save(sub);
+        eventPublisher.publishEvent(new BotSubscriptionChangedEvent(this, bot.getId(), savedSub.getId()));
 
         log.info("✅ Bot copied successfully: User={}, Bot={}, Net Investment={}",
                 userId, bot.getId(), netInvestment);
@@ -154,6 +216,7 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
         // We re-run validation to ensure the user has enough funds for the updated
         // target
         validateSufficientAsset(userId, sub.getBot().getId(), request.botWalletBalance(), request.botWalletCoin());
+        validatePriceTriggers(request.stopLossPrice(), request.takeProfitPrice());
 
         // 5. Tính lại Net Investment khi update
         BigDecimal oldNetInvestment = sub.getNetInvestment();
@@ -169,6 +232,8 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
         sub.setNetInvestment(newNetInvestment);
 
         BotSubscription updatedSub = subRepo.save(sub);
+        // Roster picks the row up after commit
+        eventPublisher.publishEvent(new BotSubscriptionChangedEvent(this, sub.getBot().getId(), botSubId));
 
         log.info("✅ Bot subscription updated: Sub={}, Net Investment: {} → {} (Change: {})",
                 botSubId, oldNetInvestment, newNetInvestment, netInvestmentChange);
@@ -198,7 +263,7 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
             Bot bot = botRepo.findById(botId)
                     .orElseThrow(() -> new IdInvalidException("Bot not found: " + botId));
 
-            Coin coin = coinRepo.findBySymbol(bot.getCoinSymbol())
+            Coin coin = coinCatalog.findBySymbol(bot.getCoinSymbol())
                     .orElseThrow(() -> new IdInvalidException("Coin not found for symbol: " + bot.getCoinSymbol()));
 
             // 2. Find user's holding of that coin
@@ -217,6 +282,16 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
         }
     }
 
+    /**
+     * Stop-loss and take-profit are both optional, but a stop-loss at or above
+     * the take-profit would fire on every price.
+     */
+    private void validatePriceTriggers(BigDecimal stopLossPrice, BigDecimal takeProfitPrice) {
+        if (stopLossPrice != null && takeProfitPrice != null && stopLossPrice.compareTo(takeProfitPrice) >= 0) {
+            throw new IllegalArgumentException("Stop-loss price must be below the take-profit price.");
+        }
+    }
+
     /**
      * Tính Net Investment (Tổng vốn đầu tư gốc quy đổi ra USDT)
      * 
@@ -236,10 +311,10 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
         }
 
         // Lấy thông tin coin và giá hiện tại
-        Coin coin = coinRepo.findBySymbol(coinSymbol)
+        Coin coin = coinCatalog.findBySymbol(coinSymbol)
                 .orElseThrow(() -> new IdInvalidException("Coin not found: " + coinSymbol));
 
-        BigDecimal currentPrice = coinGeckoClient.getCurrentPrice(coin.getCoinGeckoId());
+        BigDecimal currentPrice = marketPriceCache.getPrice(coin.getCoinGeckoId());
 
         // Tính giá trị coin quy đổi ra USDT
         BigDecimal coinValueInUsdt = botWalletCoin.multiply(currentPrice);
@@ -270,6 +345,7 @@ public class BotSubscriptionServiceImpl implements BotSubscriptionService {
             sub.setStoppedAt(null); // Clear stop time if resuming
         }
         BotSubscription savedSub = subRepo.save(sub);
+        eventPublisher.publishEvent(new BotSubscriptionChangedEvent(this, sub.getBot().getId(), botSubId));
         return botSubMapper.toResponse(savedSub);
     }
 
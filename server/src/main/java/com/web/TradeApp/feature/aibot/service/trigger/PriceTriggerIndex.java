@@ -0,0 +1,144 @@
+package com.web.TradeApp.feature.aibot.service.trigger;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stop-loss and take-profit levels of all subscriptions, sorted per coin.
+ *
+ * Each coin has two maps keyed by threshold: stop-losses fire when the price
+ * falls to or below them, take-profits when it rises to or above them. A tick
+ * only visits the range of thresholds it crossed ({@code tailMap} of the
+ * stop-losses, {@code headMap} of the take-profits), so its cost depends on
+ * how many triggers fire, not on how many are armed.
+ *
+ * Triggers are one-shot: a crossed subscription is removed (both levels)
+ * before it is returned, so each crossing is handed out exactly once.
+ * Changes to one coin are serialized on that coin's book.
+ */
+class PriceTriggerIndex {
+
+    enum Kind {
+        STOP_LOSS, TAKE_PROFIT
+    }
+
+    /**
+     * A crossed level, returned by {@link #crossed}.
+     */
+    record Fired(UUID subscriptionId, UUID botId, UUID userId, Kind kind, BigDecimal threshold) {
+    }
+
+    private record Owner(UUID botId, UUID userId) {
+    }
+
+    private record Registration(String coinGeckoId, BigDecimal stopLoss, BigDecimal takeProfit) {
+    }
+
+    // CoinGecko id -> levels of that coin
+    private final ConcurrentHashMap<String, Book> books = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Registration> registrations = new ConcurrentHashMap<>();
+
+    /**
+     * Arms (or re-arms) a subscription's levels, replacing any previous ones.
+     * Both null simply removes it.
+     */
+    void put(UUID subscriptionId, UUID botId, UUID userId, String coinGeckoId, BigDecimal stopLoss,
+            BigDecimal takeProfit) {
+        remove(subscriptionId);
+        if (stopLoss == null && takeProfit == null) {
+            return;
+        }
+        Book book = books.computeIfAbsent(coinGeckoId, id -> new Book());
+        synchronized (book) {
+            Registration registration = new Registration(coinGeckoId, stopLoss, takeProfit);
+            Owner owner = new Owner(botId, userId);
+            Registration racing = registrations.put(subscriptionId, registration);
+            if (racing != null && racing.coinGeckoId().equals(coinGeckoId)) {
+                book.unlink(subscriptionId, racing); // A concurrent put won the first race
+            }
+            if (stopLoss != null) {
+                book.stopLosses.computeIfAbsent(stopLoss, t -> new HashMap<>()).put(subscriptionId, owner);
+            }
+            if (takeProfit != null) {
+                book.takeProfits.computeIfAbsent(takeProfit, t -> new HashMap<>()).put(subscriptionId, owner);
+            }
+        }
+    }
+
+    void remove(UUID subscriptionId) {
+        Registration registration = registrations.get(subscriptionId);
+        if (registration == null) {
+            return;
+        }
+        Book book = books.get(registration.coinGeckoId());
+        synchronized (book) {
+            // Re-read under the lock: a tick may have fired it meanwhile
+            if (registrations.remove(subscriptionId, registration)) {
+                book.unlink(subscriptionId, registration);
+            }
+        }
+    }
+
+    /**
+     * Removes and returns every subscription whose level {@code price} reached.
+     */
+    List<Fired> crossed(String coinGeckoId, BigDecimal price) {
+        Book book = books.get(coinGeckoId);
+        if (book == null) {
+            return List.of();
+        }
+        Map<UUID, Fired> fired = new LinkedHashMap<>();
+        synchronized (book) {
+            collect(book.stopLosses.tailMap(price, true), Kind.STOP_LOSS, fired);
+            collect(book.takeProfits.headMap(price, true), Kind.TAKE_PROFIT, fired);
+            for (UUID subscriptionId : fired.keySet()) {
+                Registration registration = registrations.remove(subscriptionId);
+                if (registration != null) {
+                    book.unlink(subscriptionId, registration);
+                }
+            }
+        }
+        return new ArrayList<>(fired.values());
+    }
+
+    int size() {
+        return registrations.size();
+    }
+
+    private static void collect(NavigableMap<BigDecimal, Map<UUID, Owner>> hit, Kind kind, Map<UUID, Fired> fired) {
+        hit.forEach((threshold, subscribers) -> subscribers.forEach((subscriptionId, owner) -> fired.putIfAbsent(
+                subscriptionId, new Fired(subscriptionId, owner.botId(), owner.userId(), kind, threshold))));
+    }
+
+    private static final class Book {
+        private final TreeMap<BigDecimal, Map<UUID, Owner>> stopLosses = new TreeMap<>();
+        private final TreeMap<BigDecimal, Map<UUID, Owner>> takeProfits = new TreeMap<>();
+
+        private void unlink(UUID subscriptionId, Registration registration) {
+            unlink(stopLosses, registration.stopLoss(), subscriptionId);
+            unlink(takeProfits, registration.takeProfit(), subscriptionId);
+        }
+
+        private static void unlink(TreeMap<BigDecimal, Map<UUID, Owner>> levels, BigDecimal threshold,
+                UUID subscriptionId) {
+            if (threshold == null) {
+                return;
+            }
+            Map<UUID, Owner> subscribers = levels.get(threshold);
+            if (subscribers != null) {
+                subscribers.remove(subscriptionId);
+                if (subscribers.isEmpty()) {
+                    levels.remove(threshold);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.web.TradeApp.feature.aibot.service.trigger;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.web.TradeApp.feature.aibot.event.BotSubscriptionChangedEvent;
+import com.web.TradeApp.feature.aibot.model.BotSubscription;
+import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
+import com.web.TradeApp.feature.aibot.service.BotTradeService;
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.event.MarketPricesUpdatedEvent;
+import com.web.TradeApp.feature.coin.service.CoinCatalog;
+import com.web.TradeApp.feature.coin.service.WalletSequencer;
+import com.web.TradeApp.feature.ingestion.SignalDispatcher;
+import com.web.TradeApp.utils.OptimisticRetry;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fires subscription stop-loss / take-profit levels on market price ticks.
+ *
+ * Levels live in a {@link PriceTriggerIndex}, loaded on startup and kept
+ * current from {@link BotSubscriptionChangedEvent}s. Every
+ * {@link MarketPricesUpdatedEvent} takes the crossed levels out of the index
+ * and queues their sells on the bot's dispatch lane, so an exit never runs
+ * alongside a fan-out of the same bot. Ticks are handled off the publishing
+ * thread (a price read can publish one from an HTTP request or from a bot's
+ * own lane), and queueing never waits: a full lane re-arms the level.
+ *
+ * The sell goes through {@link BotTradeService} (same transfers, fees and
+ * records as a signal SELL) for the whole sub-wallet coin, at the tick price.
+ * Both levels are cleared in the same transaction. A level that changed
+ * before the sell ran is not sold; the index already holds the new one. A
+ * sell that fails is rolled back and its levels are re-armed from the row.
+ */
+@Component
+@Slf4j
+public class PriceTriggerMonitor {
+
+    private final BotSubscriptionRepository subRepo;
+    private final CoinCatalog coinCatalog;
+    private final BotTradeService botTradeService;
+    private final SignalDispatcher dispatcher;
+    private final OptimisticRetry optimisticRetry;
+    private final WalletSequencer walletSequencer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final TransactionTemplate txTemplate;
+
+    private final PriceTriggerIndex index = new PriceTriggerIndex();
+
+    public PriceTriggerMonitor(BotSubscriptionRepository subRepo,
+            CoinCatalog coinCatalog,
+            BotTradeService botTradeService,
+            SignalDispatcher dispatcher,
+            OptimisticRetry optimisticRetry,
+            WalletSequencer walletSequencer,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            PlatformTransactionManager transactionManager,
+            @Value("${bot.fanout.transaction-timeout:30}") int transactionTimeout) {
+        this.subRepo = subRepo;
+        this.coinCatalog = coinCatalog;
+        this.botTradeService = botTradeService;
+        this.dispatcher = dispatcher;
+        this.optimisticRetry = optimisticRetry;
+        this.walletSequencer = walletSequencer;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.txTemplate.setTimeout(transactionTimeout);
+
+        Gauge.builder("bot.trigger.armed", index, PriceTriggerIndex::size)
+                .description("Subscriptions with a stop-loss or take-profit armed")
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        List<BotSubscription> subs = subRepo.findActiveWithPriceTriggers();
+        subs.forEach(this::arm);
+        log.info("🎯 Price trigger index loaded: {} subscriptions", index.size());
+    }
+
+    /**
+     * Re-reads the committed row: new or edited levels are armed, paused
+     * subscriptions and cleared levels are dropped.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubscriptionChanged(BotSubscriptionChangedEvent event) {
+        reload(event.getSubscriptionId());
+    }
+
+    @Async
+    @EventListener
+    public void onPriceTick(MarketPricesUpdatedEvent event) {
+        event.getPrices().forEach((coinGeckoId, price) -> {
+            if (price == null || price.signum() <= 0) {
+                return;
+            }
+            for (PriceTriggerIndex.Fired fired : index.crossed(coinGeckoId, price)) {
+                log.info("🎯 {} of subscription {} hit at {} (level {})", fired.kind(), fired.subscriptionId(),
+                        price, fired.threshold());
+                if (!dispatcher.runOnLane(fired.botId(), () -> sell(fired, price))) {
+                    // Lane full: re-arm from the row, the next tick tries again
+                    log.warn("⚠️ Dispatch lane full for Bot {}; trigger of subscription {} re-armed",
+                            fired.botId(), fired.subscriptionId());
+                    rearm(fired);
+                }
+            }
+        });
+    }
+
+    private void sell(PriceTriggerIndex.Fired fired, BigDecimal price) {
+        String kind = fired.kind().name();
+        try {
+            BotSubscription sold = walletSequencer.execute(fired.userId(), () -> optimisticRetry.execute(
+                    "trigger_sell", () -> txTemplate.execute(status -> sellInTransaction(fired, price))));
+            if (sold == null) {
+                meterRegistry.counter("bot.trigger.fired", "kind", kind, "outcome", "stale").increment();
+                return;
+            }
+            meterRegistry.counter("bot.trigger.fired", "kind", kind, "outcome", "sold").increment();
+            // Roster, daily-loss guard and this index pick up the committed row
+            eventPublisher.publishEvent(new BotSubscriptionChangedEvent(this, fired.botId(), sold.getId()));
+        } catch (RuntimeException e) {
+            meterRegistry.counter("bot.trigger.fired", "kind", kind, "outcome", "failed").increment();
+            log.error("❌ {} sell failed for subscription {}: {}", kind, fired.subscriptionId(), e.getMessage());
+            // Rolled back, so the row still holds its levels: arm them again
+            rearm(fired);
+        }
+    }
+
+    private void rearm(PriceTriggerIndex.Fired fired) {
+        try {
+            reload(fired.subscriptionId());
+        } catch (RuntimeException e) {
+            // Armed again on the next change of the subscription, or at the next startup
+            log.error("❌ Could not re-arm trigger of subscription {}: {}", fired.subscriptionId(), e.getMessage());
+        }
+    }
+
+    private BotSubscription sellInTransaction(PriceTriggerIndex.Fired fired, BigDecimal price) {
+        List<BotSubscription> found = subRepo.findActiveWithBotByIdIn(List.of(fired.subscriptionId()));
+        if (found.isEmpty()) {
+            return null; // Paused or removed since
+        }
+        BotSubscription sub = found.get(0);
+        BigDecimal level = fired.kind() == PriceTriggerIndex.Kind.STOP_LOSS
+                ? sub.getStopLossPrice()
+                : sub.getTakeProfitPrice();
+        if (level == null || level.compareTo(fired.threshold()) != 0) {
+            return null; // Edited since
+        }
+
+        // One-shot: both levels go with the position
+        sub.setStopLossPrice(null);
+        sub.setTakeProfitPrice(null);
+        botTradeService.executeSell(sub, null, price, BigDecimal.ONE);
+        subRepo.save(sub);
+        return sub;
+    }
+
+    private void reload(UUID subscriptionId) {
+        List<BotSubscription> found = subRepo.findActiveWithBotByIdIn(List.of(subscriptionId));
+        if (found.isEmpty()) {
+            index.remove(subscriptionId);
+            return;
+        }
+        arm(found.get(0));
+    }
+
+    private void arm(BotSubscription sub) {
+        Coin coin = coinCatalog.findBySymbol(sub.getBot().getCoinSymbol()).orElse(null);
+        if (coin == null) {
+            index.remove(sub.getId());
+            return;
+        }
+        index.put(sub.getId(), sub.getBot().getId(), sub.getUserId(), coin.getCoinGeckoId(),
+                sub.getStopLossPrice(), sub.getTakeProfitPrice());
+    }
+}
@@ -0,0 +1,38 @@
+package com.web.TradeApp.feature.coin.controller;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.web.TradeApp.feature.coin.dto.PriceCandleResponse;
+import com.web.TradeApp.feature.coin.service.PriceHistoryService;
+import com.web.TradeApp.feature.common.Annotation.ApiMessage;
+
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("market")
+@RequiredArgsConstructor
+public class MarketController {
+
+    private final PriceHistoryService priceHistoryService;
+
+    /**
+     * OHLC candles for one coin; interval is 1m, 5m, 1h or 1d, times ISO-8601.
+     */
+    @GetMapping("/candles")
+    @ApiMessage("Price candles fetched successfully")
+    public ResponseEntity<List<PriceCandleResponse>> getCandles(
+            @RequestParam String coin,
+            @RequestParam(defaultValue = "1h") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        return ResponseEntity.ok(priceHistoryService.getCandles(coin, interval, from, to));
+    }
+}
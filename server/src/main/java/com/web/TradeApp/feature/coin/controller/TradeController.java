@@ -3,15 +3,25 @@ package com.web.TradeApp.feature.coin.controller;
 import java.util.UUID;
 
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import com.web.TradeApp.feature.coin.dto.BatchTradeRequest;
+import com.web.TradeApp.feature.coin.dto.BatchTradeResponse;
 import com.web.TradeApp.feature.coin.dto.BuyCoinRequest;
+import com.web.TradeApp.feature.coin.dto.QuoteRequest;
+import com.web.TradeApp.feature.coin.dto.QuoteResponse;
 import com.web.TradeApp.feature.coin.dto.SellCoinRequest;
+import com.web.TradeApp.feature.coin.dto.TradeOrderResponse;
 import com.web.TradeApp.feature.coin.dto.TradeResponse;
+import com.web.TradeApp.feature.coin.service.TradeOrderQueue;
 import com.web.TradeApp.feature.coin.service.TradeService;
 import com.web.TradeApp.feature.common.Annotation.ApiMessage;
 import com.web.TradeApp.utils.SecurityUtil;
@@ -25,6 +35,16 @@ import lombok.RequiredArgsConstructor;
 public class TradeController {
 
     private final TradeService tradeService;
+    private final TradeOrderQueue tradeOrderQueue;
+
+    @PostMapping("/quote")
+    @ApiMessage("Quote issued successfully")
+    public ResponseEntity<QuoteResponse> quote(@Valid @RequestBody QuoteRequest request) {
+        UUID userId = SecurityUtil.getCurrentUserId()
+                .orElseThrow(() -> new RuntimeException("User not authenticated"));
+
+        return ResponseEntity.ok(tradeService.quote(userId, request));
+    }
 
     @PostMapping("/buy")
     @ApiMessage("Coin purchased successfully")
@@ -45,4 +65,49 @@ public class TradeController {
         TradeResponse response = tradeService.sellCoin(userId, request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
+
+    @PostMapping("/batch")
+    @ApiMessage("Batch order processed")
+    public ResponseEntity<BatchTradeResponse> executeBatch(@Valid @RequestBody BatchTradeRequest request) {
+        UUID userId = SecurityUtil.getCurrentUserId()
+                .orElseThrow(() -> new RuntimeException("User not authenticated"));
+
+        BatchTradeResponse response = tradeService.executeBatch(userId, request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PostMapping("/orders/buy")
+    @ApiMessage("Buy order accepted")
+    public ResponseEntity<TradeOrderResponse> submitBuy(@Valid @RequestBody BuyCoinRequest request) {
+        UUID userId = SecurityUtil.getCurrentUserId()
+                .orElseThrow(() -> new RuntimeException("User not authenticated"));
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(tradeOrderQueue.submitBuy(userId, request));
+    }
+
+    @PostMapping("/orders/sell")
+    @ApiMessage("Sell order accepted")
+    public ResponseEntity<TradeOrderResponse> submitSell(@Valid @RequestBody SellCoinRequest request) {
+        UUID userId = SecurityUtil.getCurrentUserId()
+                .orElseThrow(() -> new RuntimeException("User not authenticated"));
+
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(tradeOrderQueue.submitSell(userId, request));
+    }
+
+    @GetMapping("/orders/{orderId}")
+    @ApiMessage("Order status fetched")
+    public ResponseEntity<TradeOrderResponse> getOrder(@PathVariable UUID orderId) {
+        UUID userId = SecurityUtil.getCurrentUserId()
+                .orElseThrow(() -> new RuntimeException("User not authenticated"));
+
+        return ResponseEntity.ok(tradeOrderQueue.status(userId, orderId));
+    }
+
+    @GetMapping(value = "/orders/{orderId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrder(@PathVariable UUID orderId) {
+        UUID userId = SecurityUtil.getCurrentUserId()
+                .orElseThrow(() -> new RuntimeException("User not authenticated"));
+
+        return tradeOrderQueue.subscribe(userId, orderId);
+    }
 }
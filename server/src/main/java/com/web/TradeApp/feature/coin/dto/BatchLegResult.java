@@ -0,0 +1,22 @@
+package com.web.TradeApp.feature.coin.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchLegResult {
+
+    public enum Status {
+        FILLED, REJECTED
+    }
+
+    private int index; // Position of the leg in the request
+    private Status status;
+    private TradeResponse trade; // Set when FILLED
+    private String error; // Set when REJECTED
+}
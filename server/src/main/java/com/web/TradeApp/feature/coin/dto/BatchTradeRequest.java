@@ -0,0 +1,33 @@
+package com.web.TradeApp.feature.coin.dto;
+
+import java.util.List;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTradeRequest {
+
+    public enum Mode {
+        ALL_OR_NOTHING, // Any rejected leg rejects the whole batch
+        BEST_EFFORT // Rejected legs are reported, the others still execute
+    }
+
+    @NotNull(message = "Mode is required")
+    @Builder.Default
+    private Mode mode = Mode.ALL_OR_NOTHING;
+
+    @NotEmpty(message = "At least one leg is required")
+    @Size(max = 20, message = "At most 20 legs per batch")
+    @Valid
+    private List<BatchTradeLeg> legs;
+}
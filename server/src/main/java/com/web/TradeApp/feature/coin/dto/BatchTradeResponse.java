@@ -0,0 +1,22 @@
+package com.web.TradeApp.feature.coin.dto;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchTradeResponse {
+
+    private String mode;
+    private int filled;
+    private int rejected;
+    private BigDecimal newWalletBalance;
+    private List<BatchLegResult> legs; // Same order as the request
+}
@@ -22,4 +22,7 @@ public class BuyCoinRequest {
     @NotNull(message = "Quantity is required")
     @DecimalMin(value = "0.00000001", message = "Quantity must be greater than 0")
     private BigDecimal quantity;
+
+    // Optional: token from /trades/quote; the trade then executes at the quoted price
+    private String quoteToken;
 }
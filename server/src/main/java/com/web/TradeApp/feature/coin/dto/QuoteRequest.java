@@ -0,0 +1,30 @@
+package com.web.TradeApp.feature.coin.dto;
+
+import java.math.BigDecimal;
+
+import com.web.TradeApp.feature.common.entity.BaseTrade.TradeType;
+
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteRequest {
+
+    @NotBlank(message = "Coin symbol is required")
+    private String coinSymbol;
+
+    @NotNull(message = "Side is required")
+    private TradeType side;
+
+    @NotNull(message = "Quantity is required")
+    @DecimalMin(value = "0.00000001", message = "Quantity must be greater than 0")
+    private BigDecimal quantity;
+}
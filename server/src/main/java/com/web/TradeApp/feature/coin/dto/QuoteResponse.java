@@ -0,0 +1,26 @@
+package com.web.TradeApp.feature.coin.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class QuoteResponse {
+
+    private String quoteToken; // Pass as quoteToken to /trades/buy or /trades/sell before expiresAt
+    private String side; // BUY or SELL
+    private String coinSymbol;
+    private BigDecimal quantity;
+    private BigDecimal price;
+    private BigDecimal notionalValue;
+    private BigDecimal fee;
+    private BigDecimal totalCost; // For BUY: notionalValue + fee; For SELL: notionalValue - fee
+    private Instant expiresAt;
+}
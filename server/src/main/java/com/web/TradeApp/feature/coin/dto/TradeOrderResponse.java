@@ -0,0 +1,30 @@
+package com.web.TradeApp.feature.coin.dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TradeOrderResponse {
+
+    public enum Status {
+        QUEUED, RUNNING, FILLED, FAILED
+    }
+
+    private String orderId;
+    private Status status;
+    private String tradeType; // BUY or SELL
+    private String coinSymbol;
+    private BigDecimal quantity;
+    private Instant submittedAt;
+    private Instant completedAt;
+    private TradeResponse trade; // Set when FILLED
+    private String error; // Set when FAILED
+}
@@ -10,6 +10,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
 import jakarta.persistence.UniqueConstraint;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -41,4 +42,9 @@ public class CoinHolding extends BaseEntity {
 
     @Column(precision = 19, scale = 8)
     private BigDecimal averageBuyPrice;
+
+    // Optimistic lock: concurrent trades on the same holding conflict instead of losing updates
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
 }
@@ -0,0 +1,107 @@
+package com.web.TradeApp.feature.coin.entity;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+
+import com.web.TradeApp.feature.common.entity.BaseEntity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * OHLC candle of one coin's USD price over one interval, built from market
+ * price ticks (1m) and rolled up into the coarser tiers.
+ */
+@Entity
+@Table(name = "price_candles", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_price_candle", columnNames = { "coin_gecko_id", "candle_interval", "open_time" })
+}, indexes = {
+        // Rollups and retention scan one tier by time
+        @Index(name = "ix_price_candle_interval_time", columnList = "candle_interval, open_time")
+})
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Getter
+@Setter
+public class PriceCandle extends BaseEntity {
+
+    public enum Interval {
+        M1("1m", Duration.ofMinutes(1)),
+        M5("5m", Duration.ofMinutes(5)),
+        H1("1h", Duration.ofHours(1)),
+        D1("1d", Duration.ofDays(1));
+
+        private final String code;
+        private final Duration length;
+
+        Interval(String code, Duration length) {
+            this.code = code;
+            this.length = length;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        public Duration getLength() {
+            return length;
+        }
+
+        /**
+         * Start of the interval containing {@code time} (UTC-aligned).
+         */
+        public Instant openTimeOf(Instant time) {
+            long millis = length.toMillis();
+            return Instant.ofEpochMilli(Math.floorDiv(time.toEpochMilli(), millis) * millis);
+        }
+
+        public static Interval fromCode(String code) {
+            for (Interval interval : values()) {
+                if (interval.code.equalsIgnoreCase(code)) {
+                    return interval;
+                }
+            }
+            throw new IllegalArgumentException("Unknown candle interval: " + code + " (use 1m, 5m, 1h or 1d)");
+        }
+    }
+
+    @Column(name = "coin_gecko_id", nullable = false, length = 100)
+    private String coinGeckoId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "candle_interval", nullable = false, length = 8)
+    private Interval interval;
+
+    @Column(name = "open_time", nullable = false)
+    private Instant openTime;
+
+    @Column(name = "open_price", nullable = false, precision = 19, scale = 8)
+    private BigDecimal open;
+
+    @Column(name = "high_price", nullable = false, precision = 19, scale = 8)
+    private BigDecimal high;
+
+    @Column(name = "low_price", nullable = false, precision = 19, scale = 8)
+    private BigDecimal low;
+
+    @Column(name = "close_price", nullable = false, precision = 19, scale = 8)
+    private BigDecimal close;
+
+    // Price ticks (1m) or lower-tier candles (rollups) merged into this one
+    @Column(name = "sample_count", nullable = false)
+    private int sampleCount;
+}
@@ -14,6 +14,7 @@ import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
+import jakarta.persistence.Version;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.EqualsAndHashCode;
@@ -41,6 +42,11 @@ public class Wallet extends BaseEntity {
     @Column(nullable = false, precision = 19, scale = 8)
     private BigDecimal netInvestment; // in USD
 
+    // Optimistic lock: concurrent trades on the same wallet conflict instead of losing updates
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private long version;
+
     @OneToMany(mappedBy = "wallet", cascade = CascadeType.ALL, orphanRemoval = true)
     @Builder.Default
     private List<CoinHolding> coinHoldings = new ArrayList<>();
@@ -0,0 +1,14 @@
+package com.web.TradeApp.feature.coin.event;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published whenever rows of the {@code coins} table may have changed (fees,
+ * newly listed coins), so the in-memory coin catalog is reloaded.
+ */
+public class CoinCatalogChangedEvent extends ApplicationEvent {
+
+    public CoinCatalogChangedEvent(Object source) {
+        super(source);
+    }
+}
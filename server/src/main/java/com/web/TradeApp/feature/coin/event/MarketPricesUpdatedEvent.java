@@ -0,0 +1,21 @@
+package com.web.TradeApp.feature.coin.event;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published after the market price cache stored fresh prices (a price tick),
+ * keyed by CoinGecko id.
+ */
+@Getter
+public class MarketPricesUpdatedEvent extends ApplicationEvent {
+    private final Map<String, BigDecimal> prices;
+
+    public MarketPricesUpdatedEvent(Object source, Map<String, BigDecimal> prices) {
+        super(source);
+        this.prices = prices;
+    }
+}
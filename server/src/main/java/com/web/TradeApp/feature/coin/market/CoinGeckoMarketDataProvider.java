@@ -0,0 +1,133 @@
+package com.web.TradeApp.feature.coin.market;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.web.TradeApp.exception.MarketDataException;
+import com.web.TradeApp.utils.MarketDataHttpClient;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Live prices from the public CoinGecko API (default provider).
+ */
+@Component
+@Profile("!simulator")
+@Slf4j
+public class CoinGeckoMarketDataProvider implements MarketDataProvider {
+
+    private static final String COINGECKO_BASE_URL = "https://api.coingecko.com/api/v3";
+
+    private static final String COINGECKO_PRICE_URL = COINGECKO_BASE_URL + "/simple/price?ids=%s&vs_currencies=usd";
+
+    // Shared pooled client: timeouts, rate limit and circuit breaker per host
+    private final MarketDataHttpClient httpClient;
+
+    private final int chunkSize;
+    private final Duration chunkMaxWait;
+
+    public CoinGeckoMarketDataProvider(MarketDataHttpClient httpClient,
+            @Value("${market.price.batch.chunk-size:100}") int chunkSize,
+            @Value("${market.price.batch.chunk-max-wait-ms:10000}") long chunkMaxWaitMs) {
+        this.httpClient = httpClient;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.chunkMaxWait = Duration.ofMillis(chunkMaxWaitMs);
+    }
+
+    @Override
+    public boolean exists(String coinGeckoId) {
+        String url = COINGECKO_BASE_URL + "/coins/" + encode(coinGeckoId);
+        try {
+            httpClient.get("coin", URI.create(url));
+            return true;
+        } catch (MarketDataException e) {
+            if (e.getStatus() == 404) {
+                return false;
+            }
+            throw e;
+        }
+    }
+
+    @Override
+    public BigDecimal getPrice(String coinGeckoId) {
+        String url = String.format(COINGECKO_PRICE_URL, encode(coinGeckoId));
+        JsonNode response = httpClient.get("simple_price", URI.create(url));
+
+        if (response.has(coinGeckoId)) {
+            JsonNode priceNode = response.get(coinGeckoId).get("usd");
+
+            if (priceNode != null && priceNode.isNumber()) {
+                return priceNode.decimalValue();
+            }
+
+            throw new RuntimeException("Invalid price format from CoinGecko: " + priceNode);
+        }
+
+        throw new RuntimeException("Failed to fetch price for: " + coinGeckoId + " | " + url);
+    }
+
+    /**
+     * {@code chunk-size} ids per API call (one URL holding hundreds of ids
+     * exceeds URL and provider limits). Chunks are sent concurrently; when they
+     * outnumber the rate budget the extra ones are paced by the shared client
+     * (up to {@code chunk-max-wait-ms}). A failed chunk only leaves its coins out.
+     */
+    @Override
+    public Map<String, BigDecimal> getPrices(List<String> coinGeckoIds) {
+        List<List<String>> chunks = new ArrayList<>();
+        for (int from = 0; from < coinGeckoIds.size(); from += chunkSize) {
+            chunks.add(coinGeckoIds.subList(from, Math.min(from + chunkSize, coinGeckoIds.size())));
+        }
+        List<CompletableFuture<JsonNode>> responses = chunks.stream()
+                .map(chunk -> httpClient.getAsync("simple_price_batch",
+                        URI.create(String.format(COINGECKO_PRICE_URL, encode(String.join(",", chunk)))),
+                        chunkMaxWait))
+                .toList();
+
+        Map<String, BigDecimal> prices = new HashMap<>();
+        int failedChunks = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            try {
+                responses.get(i).join().fields().forEachRemaining(entry -> {
+                    JsonNode priceNode = entry.getValue().get("usd");
+
+                    if (priceNode != null && priceNode.isNumber()) {
+                        prices.put(entry.getKey(), priceNode.decimalValue());
+                    }
+                });
+            } catch (CompletionException e) {
+                failedChunks++;
+                log.warn("⚠️ Price chunk {}/{} ({} coins) failed: {}", i + 1, chunks.size(), chunks.get(i).size(),
+                        e.getCause() != null ? e.getCause().getMessage() : e.getMessage());
+            }
+        }
+        if (failedChunks > 0) {
+            log.warn("⚠️ Batch prices partial: {}/{} coins fetched, {}/{} chunks failed", prices.size(),
+                    coinGeckoIds.size(), failedChunks, chunks.size());
+        }
+        return prices;
+    }
+
+    @Override
+    public String name() {
+        return "coingecko";
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,39 @@
+package com.web.TradeApp.feature.coin.market;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Where USD prices come from, behind {@code CoinGeckoClient}.
+ *
+ * Everything is keyed by CoinGecko id and follows the CoinGecko
+ * {@code /simple/price?vs_currencies=usd} shape: id -> USD price. Exactly one
+ * implementation is active, selected by profile: the live CoinGecko API by
+ * default, or the deterministic simulator under the {@code simulator} profile.
+ */
+public interface MarketDataProvider {
+
+    /**
+     * Current price of one coin.
+     *
+     * @throws RuntimeException when no price can be obtained
+     */
+    BigDecimal getPrice(String coinGeckoId);
+
+    /**
+     * Current prices of many coins. Coins that could not be priced are absent
+     * from the result; a partial failure does not throw.
+     */
+    Map<String, BigDecimal> getPrices(List<String> coinGeckoIds);
+
+    /**
+     * Whether the provider knows the coin (used when listing new coins).
+     */
+    boolean exists(String coinGeckoId);
+
+    /**
+     * Short name for logs.
+     */
+    String name();
+}
@@ -0,0 +1,144 @@
+package com.web.TradeApp.feature.coin.market;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Offline, deterministic prices for load tests and benchmarks
+ * ({@code simulator} profile).
+ *
+ * Each coin follows a geometric random walk with one step every
+ * {@code step-ms} since {@code origin-epoch-ms} (startup when 0). Step
+ * {@code n} of coin {@code c} is drawn from a generator seeded only by
+ * ({@code seed}, {@code c}, {@code n}), so a price depends on the elapsed time
+ * and never on who asked or how often: two runs with the same seed see the same
+ * series. Coins start at their {@code start-prices} entry, or at a seeded value
+ * between 0.5 and 5000 USD. Every id is treated as listed.
+ */
+@Component
+@Profile("simulator")
+@Slf4j
+public class SimulatedMarketDataProvider implements MarketDataProvider {
+
+    private static final double MIN_START = 0.5;
+    private static final double MAX_START = 5000;
+
+    private final long seed;
+    private final long stepMs;
+    private final double volatility;
+    private final long originMs;
+    private final Map<String, Double> startPrices;
+
+    private final ConcurrentHashMap<String, Walk> walks = new ConcurrentHashMap<>();
+
+    public SimulatedMarketDataProvider(
+            @Value("${market.simulator.seed:42}") long seed,
+            @Value("${market.simulator.step-ms:1000}") long stepMs,
+            @Value("${market.simulator.volatility:0.001}") double volatility,
+            @Value("${market.simulator.origin-epoch-ms:0}") long originEpochMs,
+            @Value("${market.simulator.start-prices:}") String startPrices) {
+        this.seed = seed;
+        this.stepMs = Math.max(1, stepMs);
+        this.volatility = volatility;
+        this.originMs = originEpochMs > 0 ? originEpochMs : System.currentTimeMillis();
+        this.startPrices = parseStartPrices(startPrices);
+        log.info("🧪 Market data simulator active: seed={}, step={}ms, volatility={}, {} start prices",
+                seed, this.stepMs, volatility, this.startPrices.size());
+    }
+
+    @Override
+    public BigDecimal getPrice(String coinGeckoId) {
+        return priceAt(coinGeckoId, currentStep());
+    }
+
+    @Override
+    public Map<String, BigDecimal> getPrices(List<String> coinGeckoIds) {
+        long step = currentStep();
+        Map<String, BigDecimal> prices = new HashMap<>();
+        for (String id : coinGeckoIds) {
+            prices.put(id, priceAt(id, step));
+        }
+        return prices;
+    }
+
+    @Override
+    public boolean exists(String coinGeckoId) {
+        return true;
+    }
+
+    @Override
+    public String name() {
+        return "simulator";
+    }
+
+    private long currentStep() {
+        return Math.max(0, (System.currentTimeMillis() - originMs) / stepMs);
+    }
+
+    private BigDecimal priceAt(String coinGeckoId, long step) {
+        String id = coinGeckoId.toLowerCase(Locale.ROOT);
+        double price = walks.computeIfAbsent(id, this::newWalk).advanceTo(step);
+        return BigDecimal.valueOf(price).setScale(8, RoundingMode.HALF_UP);
+    }
+
+    private Walk newWalk(String id) {
+        long coinSeed = seed * 0x9E3779B97F4A7C15L + id.hashCode(); // String.hashCode is stable across JVMs
+        Double configured = startPrices.get(id);
+        double start = configured != null
+                ? configured
+                : Math.exp(new SplittableRandom(coinSeed).nextDouble(Math.log(MIN_START), Math.log(MAX_START)));
+        return new Walk(coinSeed, start);
+    }
+
+    // "bitcoin:65000,ethereum:3500"
+    private static Map<String, Double> parseStartPrices(String spec) {
+        Map<String, Double> prices = new HashMap<>();
+        if (spec == null || spec.isBlank()) {
+            return prices;
+        }
+        for (String entry : spec.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("market.simulator.start-prices entry must be id:price, got: " + entry);
+            }
+            prices.put(parts[0].trim().toLowerCase(Locale.ROOT), Double.parseDouble(parts[1].trim()));
+        }
+        return prices;
+    }
+
+    /**
+     * One coin's walk, advanced lazily to the requested step.
+     */
+    private final class Walk {
+        private final long coinSeed;
+        private long step;
+        private double price;
+
+        private Walk(long coinSeed, double start) {
+            this.coinSeed = coinSeed;
+            this.price = start;
+        }
+
+        synchronized double advanceTo(long target) {
+            while (step < target) {
+                step++;
+                double z = new SplittableRandom(coinSeed ^ (step * 0xBF58476D1CE4E5B9L)).nextGaussian();
+                // Log-normal step: drift-free, never crosses zero
+                price *= Math.exp(volatility * z - volatility * volatility / 2);
+            }
+            return price;
+        }
+    }
+}
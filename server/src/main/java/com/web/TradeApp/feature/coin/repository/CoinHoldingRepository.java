@@ -1,10 +1,15 @@
 package com.web.TradeApp.feature.coin.repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.web.TradeApp.feature.coin.entity.CoinHolding;
@@ -15,4 +20,23 @@ public interface CoinHoldingRepository extends JpaRepository<CoinHolding, UUID>
     Optional<CoinHolding> findByWalletIdAndCoinId(UUID walletId, UUID coinId);
 
     List<CoinHolding> findByWallet_User_Id(UUID userId);
+
+    // Bulk variant for fan-out chunks: holdings of many wallets for one coin
+    List<CoinHolding> findByWalletIdInAndCoinId(Collection<UUID> walletIds, UUID coinId);
+
+    // Batch orders: one wallet's holdings of the coins in the batch
+    List<CoinHolding> findByWalletIdAndCoinIdIn(UUID walletId, Collection<UUID> coinIds);
+
+    /**
+     * Atomic amount change that refuses to go below zero (used for the admin
+     * treasury). Returns 0 when the row is missing or the delta would overdraw it.
+     * Bumps the version so a concurrently loaded copy cannot write back a stale amount.
+     */
+    @Modifying
+    @Query("""
+            UPDATE CoinHolding h SET h.amount = h.amount + :delta, h.version = h.version + 1
+            WHERE h.wallet.id = :walletId AND h.coin.id = :coinId AND h.amount + :delta >= 0
+            """)
+    int applyAmountDelta(@Param("walletId") UUID walletId, @Param("coinId") UUID coinId,
+            @Param("delta") BigDecimal delta);
 }
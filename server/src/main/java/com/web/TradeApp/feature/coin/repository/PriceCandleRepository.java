@@ -0,0 +1,53 @@
+package com.web.TradeApp.feature.coin.repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.web.TradeApp.feature.coin.entity.PriceCandle;
+
+@Repository
+public interface PriceCandleRepository extends JpaRepository<PriceCandle, UUID> {
+
+    // Range query API: one coin, one tier, oldest first
+    List<PriceCandle> findByCoinGeckoIdAndIntervalAndOpenTimeGreaterThanEqualAndOpenTimeLessThanOrderByOpenTimeAsc(
+            String coinGeckoId, PriceCandle.Interval interval, Instant from, Instant to, Pageable pageable);
+
+    // Rollups: every coin's candles of one tier inside a window
+    List<PriceCandle> findByIntervalAndOpenTimeGreaterThanEqualAndOpenTimeLessThan(
+            PriceCandle.Interval interval, Instant from, Instant to);
+
+    // Upserts: candles of one tier/time that already exist
+    List<PriceCandle> findByIntervalAndOpenTimeAndCoinGeckoIdIn(
+            PriceCandle.Interval interval, Instant openTime, Collection<String> coinGeckoIds);
+
+    // Point-in-time price: last candle of a tier opened at or before a time
+    Optional<PriceCandle> findFirstByCoinGeckoIdAndIntervalAndOpenTimeLessThanEqualOrderByOpenTimeDesc(
+            String coinGeckoId, PriceCandle.Interval interval, Instant time);
+
+    Optional<PriceCandle> findFirstByIntervalOrderByOpenTimeDesc(PriceCandle.Interval interval);
+
+    Optional<PriceCandle> findFirstByIntervalOrderByOpenTimeAsc(PriceCandle.Interval interval);
+
+    // Rollup catch-up: first candle after a gap
+    Optional<PriceCandle> findFirstByIntervalAndOpenTimeGreaterThanEqualOrderByOpenTimeAsc(
+            PriceCandle.Interval interval, Instant from);
+
+    /**
+     * Retention: drops one tier's candles older than {@code cutoff}.
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM PriceCandle c WHERE c.interval = :interval AND c.openTime < :cutoff")
+    int deleteOlderThan(@Param("interval") PriceCandle.Interval interval, @Param("cutoff") Instant cutoff);
+}
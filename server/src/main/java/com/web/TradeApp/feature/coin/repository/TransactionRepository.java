@@ -43,7 +43,7 @@ public interface TransactionRepository extends JpaRepository<Transaction, UUID>
   @Query("""
       SELECT t FROM Transaction t
       JOIN FETCH t.wallet w
-      JOIN FETCH t.coin c
+      JOIN t.coin c
       WHERE w.user.id = :userId
         AND t.source = 'MANUAL'
         AND (:tradeType IS NULL OR t.type = :tradeType)
@@ -1,11 +1,14 @@
 package com.web.TradeApp.feature.coin.repository;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -16,6 +19,21 @@ import com.web.TradeApp.feature.coin.entity.Wallet;
 public interface WalletRepository extends JpaRepository<Wallet, UUID> {
     Optional<Wallet> findByUserId(UUID userId);
 
+    // Bulk variant for fan-out chunks (one query instead of one per subscriber)
+    List<Wallet> findByUserIdIn(Collection<UUID> userIds);
+
+    /**
+     * Atomic balance change that refuses to go below zero (used for the admin
+     * treasury). Returns 0 when the row is missing or the delta would overdraw it.
+     * Bumps the version so a concurrently loaded copy cannot write back a stale balance.
+     */
+    @Modifying
+    @Query("""
+            UPDATE Wallet w SET w.balance = w.balance + :delta, w.version = w.version + 1
+            WHERE w.id = :id AND w.balance + :delta >= 0
+            """)
+    int applyBalanceDelta(@Param("id") UUID id, @Param("delta") BigDecimal delta);
+
     // Look up Wallet directly by the linked User's username
     // Spring Data JPA automatically parses "User_Username" to join the tables.
     // only for admin
@@ -0,0 +1,158 @@
+package com.web.TradeApp.feature.coin.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.event.CoinCatalogChangedEvent;
+import com.web.TradeApp.feature.coin.repository.CoinRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Process-wide, read-only view of the {@code coins} table.
+ *
+ * Every trade used to look its coin up by symbol (a bot trade up to three
+ * times). The table only changes on admin fee updates and listings, so the
+ * whole thing is kept as an immutable snapshot indexed by symbol, id and
+ * CoinGecko id, and swapped atomically after a committed change
+ * ({@link CoinCatalogChangedEvent}).
+ *
+ * Returned coins are detached and shared between threads: use them for reads
+ * and as association references only, never modify them. Writes go through
+ * {@link CoinRepository}.
+ */
+@Component
+@Slf4j
+public class CoinCatalog {
+
+    private final CoinRepository coinRepository;
+    private final long missReloadIntervalNanos;
+
+    private volatile Snapshot snapshot;
+    private volatile long lastLoadNanos;
+
+    public CoinCatalog(CoinRepository coinRepository,
+            @Value("${coin.catalog.miss-reload-interval-ms:60000}") long missReloadIntervalMs) {
+        this.coinRepository = coinRepository;
+        this.missReloadIntervalNanos = missReloadIntervalMs * 1_000_000L;
+    }
+
+    public Optional<Coin> findBySymbol(String symbol) {
+        return symbol == null ? Optional.empty() : lookup(s -> s.bySymbol.get(symbol.toUpperCase(Locale.ROOT)));
+    }
+
+    public Optional<Coin> findById(UUID id) {
+        return id == null ? Optional.empty() : lookup(s -> s.byId.get(id));
+    }
+
+    public Optional<Coin> findByCoinGeckoId(String coinGeckoId) {
+        return coinGeckoId == null ? Optional.empty()
+                : lookup(s -> s.byGeckoId.get(coinGeckoId.toLowerCase(Locale.ROOT)));
+    }
+
+    /**
+     * Maps a symbol (BTC) to its CoinGecko id (bitcoin). Anything that is not a
+     * listed symbol is assumed to already be a CoinGecko id.
+     */
+    public String toCoinGeckoId(String symbolOrId) {
+        Coin coin = current().bySymbol.get(symbolOrId.toUpperCase(Locale.ROOT));
+        return coin != null ? coin.getCoinGeckoId() : symbolOrId.toLowerCase(Locale.ROOT);
+    }
+
+    public Collection<Coin> all() {
+        return current().byId.values();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Reload after the changing transaction commits, so the catalog never
+     * publishes uncommitted (or rolled back) fees.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCatalogChanged(CoinCatalogChangedEvent event) {
+        reload();
+    }
+
+    public synchronized void reload() {
+        List<Coin> coins = coinRepository.findAll();
+        Map<String, Coin> bySymbol = new HashMap<>();
+        Map<UUID, Coin> byId = new HashMap<>();
+        Map<String, Coin> byGeckoId = new HashMap<>();
+
+        for (Coin row : coins) {
+            // Own copy, so nothing outside can reach the instance a session loaded
+            Coin coin = copyOf(row);
+            bySymbol.put(coin.getSymbol().toUpperCase(Locale.ROOT), coin);
+            byId.put(coin.getId(), coin);
+            byGeckoId.put(coin.getCoinGeckoId().toLowerCase(Locale.ROOT), coin);
+        }
+
+        snapshot = new Snapshot(Map.copyOf(bySymbol), Map.copyOf(byId), Map.copyOf(byGeckoId));
+        lastLoadNanos = System.nanoTime();
+        log.info("🪙 Coin catalog loaded: {} coins", coins.size());
+    }
+
+    private Optional<Coin> lookup(Function<Snapshot, Coin> finder) {
+        Coin coin = finder.apply(current());
+        if (coin == null && isStale()) {
+            // Possibly listed behind our back (seeder, manual insert): reload at most once per interval
+            synchronized (this) {
+                if (isStale()) {
+                    reload();
+                }
+            }
+            coin = finder.apply(snapshot);
+        }
+        return Optional.ofNullable(coin);
+    }
+
+    private boolean isStale() {
+        return System.nanoTime() - lastLoadNanos > missReloadIntervalNanos;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static Coin copyOf(Coin row) {
+        Coin coin = Coin.builder()
+                .coinGeckoId(row.getCoinGeckoId())
+                .name(row.getName())
+                .symbol(row.getSymbol())
+                .fee(row.getFee())
+                .build();
+        coin.setId(row.getId());
+        coin.setCreatedAt(row.getCreatedAt());
+        coin.setUpdatedAt(row.getUpdatedAt());
+        return coin;
+    }
+
+    private record Snapshot(Map<String, Coin> bySymbol, Map<UUID, Coin> byId, Map<String, Coin> byGeckoId) {
+    }
+}
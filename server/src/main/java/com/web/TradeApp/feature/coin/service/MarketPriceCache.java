@@ -0,0 +1,254 @@
+package com.web.TradeApp.feature.coin.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.web.TradeApp.exception.StalePriceException;
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.event.MarketPricesUpdatedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shared USD prices for every coin in the {@link CoinCatalog}.
+ *
+ * A background job refreshes all catalog coins with one chunked batch call,
+ * so reads are a lock-free lookup in an immutable map. A read older than
+ * {@code refresh-after} (or a coin the job has not seen yet) fetches that coin
+ * in the foreground; concurrent readers of the same coin share that one
+ * in-flight request. If the fetch fails, a price up to {@code max-age} old is
+ * still served; anything older is rejected with {@link StalePriceException}
+ * rather than trading on it.
+ *
+ * Every store is announced as a {@link MarketPricesUpdatedEvent} (price tick).
+ */
+@Component
+@Slf4j
+public class MarketPriceCache {
+
+    private final CoinCatalog coinCatalog;
+    private final CoinGeckoClient coinGeckoClient;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Duration refreshAfter;
+    private final Duration maxAge;
+    private final long fetchTimeoutMs;
+
+    private volatile Map<String, PricePoint> prices = Map.of();
+    private final ConcurrentHashMap<String, CompletableFuture<BigDecimal>> inFlight = new ConcurrentHashMap<>();
+
+    private final Counter hits;
+    private final Counter fetches;
+    private final Counter staleServed;
+    private final Counter rejected;
+
+    public MarketPriceCache(CoinCatalog coinCatalog,
+            CoinGeckoClient coinGeckoClient,
+            ApplicationEventPublisher eventPublisher,
+            MeterRegistry meterRegistry,
+            @Value("${market.price.refresh-after-ms:30000}") long refreshAfterMs,
+            @Value("${market.price.max-age-ms:120000}") long maxAgeMs,
+            @Value("${market.price.fetch-timeout-ms:5000}") long fetchTimeoutMs) {
+        this.coinCatalog = coinCatalog;
+        this.coinGeckoClient = coinGeckoClient;
+        this.eventPublisher = eventPublisher;
+        this.refreshAfter = Duration.ofMillis(refreshAfterMs);
+        this.maxAge = Duration.ofMillis(maxAgeMs);
+        this.fetchTimeoutMs = fetchTimeoutMs;
+
+        this.hits = lookups(meterRegistry, "hit", "Prices served from the cache");
+        this.fetches = lookups(meterRegistry, "fetch", "Reads that fetched (or joined a fetch of) the price");
+        this.staleServed = lookups(meterRegistry, "stale", "Fetch failed, served a price within max-age");
+        this.rejected = lookups(meterRegistry, "rejected", "No price within max-age; caller rejected");
+    }
+
+    private static Counter lookups(MeterRegistry registry, String result, String description) {
+        return Counter.builder("market.price.lookups")
+                .tag("result", result)
+                .description(description)
+                .register(registry);
+    }
+
+    /**
+     * Current USD price of a coin, by CoinGecko id.
+     *
+     * @throws StalePriceException when no price newer than {@code max-age} can
+     *                             be obtained
+     */
+    public BigDecimal getPrice(String coinGeckoId) {
+        PricePoint cached = prices.get(coinGeckoId);
+        Instant now = Instant.now();
+        if (cached != null && cached.isYoungerThan(refreshAfter, now)) {
+            hits.increment();
+            return cached.price();
+        }
+
+        fetches.increment();
+        try {
+            return fetchCoalesced(coinGeckoId);
+        } catch (Exception e) {
+            PricePoint latest = prices.get(coinGeckoId);
+            if (latest != null && latest.isYoungerThan(maxAge, Instant.now())) {
+                staleServed.increment();
+                log.warn("⚠️ Price fetch for {} failed, serving price from {}: {}",
+                        coinGeckoId, latest.fetchedAt(), e.getMessage());
+                return latest.price();
+            }
+            rejected.increment();
+            throw new StalePriceException("No recent market price for " + coinGeckoId + ". Please retry shortly.");
+        }
+    }
+
+    /**
+     * Prices of many coins at once (symbols or CoinGecko ids), for batch jobs.
+     *
+     * Fresh cached prices are used as-is; the rest are fetched with one chunked
+     * batch call. A coin whose chunk failed falls back to its last price within
+     * {@code max-age}, flagged stale, and is left out if it has none. Never
+     * throws for a failed fetch.
+     */
+    public PriceSnapshot snapshot(Collection<String> symbolsOrIds) {
+        Set<String> ids = new HashSet<>();
+        symbolsOrIds.forEach(symbolOrId -> ids.add(coinCatalog.toCoinGeckoId(symbolOrId)));
+
+        Map<String, PricePoint> current = prices;
+        Instant now = Instant.now();
+        Map<String, BigDecimal> result = new HashMap<>();
+        List<String> toFetch = new ArrayList<>();
+        for (String id : ids) {
+            PricePoint cached = current.get(id);
+            if (cached != null && cached.isYoungerThan(refreshAfter, now)) {
+                hits.increment();
+                result.put(id, cached.price());
+            } else {
+                toFetch.add(id);
+            }
+        }
+
+        Set<String> stale = new HashSet<>();
+        if (!toFetch.isEmpty()) {
+            fetches.increment(toFetch.size());
+            Map<String, BigDecimal> fetched = coinGeckoClient.getBatchPrices(toFetch);
+            store(fetched, Instant.now());
+            publish(fetched);
+            result.putAll(fetched);
+
+            for (String id : toFetch) {
+                if (fetched.containsKey(id)) {
+                    continue;
+                }
+                PricePoint latest = prices.get(id);
+                if (latest != null && latest.isYoungerThan(maxAge, Instant.now())) {
+                    staleServed.increment();
+                    result.put(id, latest.price());
+                    stale.add(id);
+                } else {
+                    rejected.increment();
+                }
+            }
+            if (result.size() < ids.size() || !stale.isEmpty()) {
+                log.warn("⚠️ Price snapshot partial: {} stale, {} missing of {} coins", stale.size(),
+                        ids.size() - result.size(), ids.size());
+            }
+        }
+        return new PriceSnapshot(Map.copyOf(result), Set.copyOf(stale));
+    }
+
+    /**
+     * Refreshes every catalog coin with one chunked batch call. Coins of a
+     * failed chunk keep their previous price until the next run.
+     */
+    @Scheduled(fixedDelayString = "${market.price.refresh-interval-ms:15000}")
+    public void refresh() {
+        List<String> ids = coinCatalog.all().stream().map(Coin::getCoinGeckoId).toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        try {
+            Map<String, BigDecimal> fetched = coinGeckoClient.getBatchPrices(ids);
+            store(fetched, Instant.now());
+            publish(fetched);
+            if (fetched.size() < ids.size()) {
+                log.warn("⚠️ Market price refresh partial: {}/{} coins", fetched.size(), ids.size());
+            } else {
+                log.debug("📈 Market prices refreshed: {}/{} coins", fetched.size(), ids.size());
+            }
+        } catch (Exception e) {
+            log.warn("⚠️ Market price refresh failed: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The first caller for a coin performs the fetch; everyone arriving while it
+     * is in flight waits on the same future.
+     */
+    private BigDecimal fetchCoalesced(String coinGeckoId)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        CompletableFuture<BigDecimal> mine = new CompletableFuture<>();
+        CompletableFuture<BigDecimal> existing = inFlight.putIfAbsent(coinGeckoId, mine);
+        if (existing != null) {
+            return existing.get(fetchTimeoutMs, TimeUnit.MILLISECONDS);
+        }
+
+        try {
+            BigDecimal price = coinGeckoClient.getCurrentPrice(coinGeckoId);
+            store(Map.of(coinGeckoId, price), Instant.now());
+            mine.complete(price);
+            publish(Map.of(coinGeckoId, price));
+            return price;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(coinGeckoId, mine);
+        }
+    }
+
+    // Copy-on-write: readers always see a complete, immutable map
+    private synchronized void store(Map<String, BigDecimal> fetched, Instant fetchedAt) {
+        if (fetched.isEmpty()) {
+            return;
+        }
+        Map<String, PricePoint> next = new HashMap<>(prices);
+        fetched.forEach((id, price) -> next.put(id, new PricePoint(price, fetchedAt)));
+        prices = Map.copyOf(next);
+    }
+
+    // Outside the store lock: listeners may do real work per tick
+    private void publish(Map<String, BigDecimal> fetched) {
+        if (fetched.isEmpty()) {
+            return;
+        }
+        try {
+            eventPublisher.publishEvent(new MarketPricesUpdatedEvent(this, fetched));
+        } catch (RuntimeException e) {
+            log.warn("⚠️ Price tick listener failed: {}", e.getMessage());
+        }
+    }
+
+    private record PricePoint(BigDecimal price, Instant fetchedAt) {
+        boolean isYoungerThan(Duration age, Instant now) {
+            return fetchedAt.plus(age).isAfter(now);
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.web.TradeApp.feature.coin.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.web.TradeApp.feature.coin.entity.PriceCandle;
+import com.web.TradeApp.feature.coin.entity.PriceCandle.Interval;
+import com.web.TradeApp.feature.coin.event.MarketPricesUpdatedEvent;
+import com.web.TradeApp.feature.coin.repository.PriceCandleRepository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Turns market price ticks into persisted OHLC candles.
+ *
+ * Every {@link MarketPricesUpdatedEvent} updates an in-memory 1-minute candle
+ * per coin. The writer ({@code flush-interval-ms}) persists the minutes that
+ * have ended, then rolls closed buckets up tier by tier (1m -> 5m -> 1h -> 1d)
+ * from the candles already stored, so a rollup is always recomputed from
+ * complete data and survives restarts. Each tier keeps
+ * {@code retention-days.<tier>} days (0 = forever).
+ *
+ * Writes are upserts on (coin, interval, open time): a minute that was
+ * partly recorded before a restart, or by another node, is merged rather than
+ * duplicated. The minute in progress at shutdown is lost.
+ */
+@Component
+@Slf4j
+public class PriceHistoryRecorder {
+
+    // Roll-up source of each tier, in processing order
+    private static final Map<Interval, Interval> SOURCES = new EnumMap<>(Map.of(
+            Interval.M5, Interval.M1,
+            Interval.H1, Interval.M5,
+            Interval.D1, Interval.H1));
+
+    // Cap on buckets rolled per tier per run (catch-up after downtime spreads over runs)
+    private static final int MAX_BUCKETS_PER_RUN = 500;
+    // Closed minutes kept for retry while the database is unavailable
+    private static final int MAX_PENDING = 100_000;
+
+    private final PriceCandleRepository candleRepo;
+    private final TransactionTemplate txTemplate;
+    private final boolean enabled;
+    private final Map<Interval, Integer> retentionDays = new EnumMap<>(Interval.class);
+
+    // CoinGecko id -> minute being built
+    private final ConcurrentHashMap<String, Building> building = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<PriceCandle> closed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger closedCount = new AtomicInteger();
+    // Next bucket to roll up per tier; only touched by the (synchronized) writer
+    private final Map<Interval, Instant> nextRollup = new EnumMap<>(Interval.class);
+
+    private final Counter written;
+    private final Counter dropped;
+
+    public PriceHistoryRecorder(PriceCandleRepository candleRepo,
+            PlatformTransactionManager transactionManager,
+            MeterRegistry meterRegistry,
+            @Value("${market.candles.enabled:true}") boolean enabled,
+            @Value("${market.candles.retention-days.m1:7}") int m1RetentionDays,
+            @Value("${market.candles.retention-days.m5:30}") int m5RetentionDays,
+            @Value("${market.candles.retention-days.h1:365}") int h1RetentionDays,
+            @Value("${market.candles.retention-days.d1:0}") int d1RetentionDays) {
+        this.candleRepo = candleRepo;
+        this.enabled = enabled;
+        this.retentionDays.put(Interval.M1, m1RetentionDays);
+        this.retentionDays.put(Interval.M5, m5RetentionDays);
+        this.retentionDays.put(Interval.H1, h1RetentionDays);
+        this.retentionDays.put(Interval.D1, d1RetentionDays);
+
+        this.txTemplate = new TransactionTemplate(transactionManager);
+        this.txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        Gauge.builder("market.candles.pending", closedCount, AtomicInteger::get)
+                .description("Closed 1m candles waiting to be written")
+                .register(meterRegistry);
+        this.written = Counter.builder("market.candles.written")
+                .description("Candles inserted or updated, all tiers")
+                .register(meterRegistry);
+        this.dropped = Counter.builder("market.candles.dropped")
+                .description("Closed 1m candles discarded because too many were pending")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onPriceTick(MarketPricesUpdatedEvent event) {
+        if (!enabled) {
+            return;
+        }
+        Instant minute = Interval.M1.openTimeOf(Instant.now());
+        event.getPrices().forEach((coinGeckoId, price) -> {
+            if (price == null || price.signum() <= 0) {
+                return;
+            }
+            building.compute(coinGeckoId, (id, current) -> {
+                if (current != null && current.openTime.equals(minute)) {
+                    current.add(price);
+                    return current;
+                }
+                if (current != null) {
+                    close(current);
+                }
+                return new Building(id, minute, price);
+            });
+        });
+    }
+
+    /**
+     * Persists ended minutes, then rolls up every tier.
+     */
+    @Scheduled(fixedDelayString = "${market.candles.flush-interval-ms:15000}")
+    public synchronized void flush() {
+        if (!enabled) {
+            return;
+        }
+        Instant minute = Interval.M1.openTimeOf(Instant.now());
+        // Coins that stopped ticking still close their minute
+        for (String coinGeckoId : building.keySet()) {
+            building.computeIfPresent(coinGeckoId, (id, current) -> {
+                if (current.openTime.isBefore(minute)) {
+                    close(current);
+                    return null;
+                }
+                return current;
+            });
+        }
+
+        List<PriceCandle> minutes = new ArrayList<>();
+        for (PriceCandle candle; (candle = closed.poll()) != null;) {
+            closedCount.decrementAndGet();
+            minutes.add(candle);
+        }
+        if (!minutes.isEmpty()) {
+            try {
+                txTemplate.executeWithoutResult(status -> upsert(Interval.M1, minutes, true));
+            } catch (RuntimeException e) {
+                log.warn("⚠️ Writing {} price candles failed, retrying next run: {}", minutes.size(), e.getMessage());
+                minutes.forEach(this::close);
+                return; // Rollups need the minutes in the table first
+            }
+        }
+
+        for (Map.Entry<Interval, Interval> tier : SOURCES.entrySet()) {
+            try {
+                rollUp(tier.getKey(), tier.getValue(), tier.getKey().openTimeOf(minute));
+            } catch (RuntimeException e) {
+                log.warn("⚠️ {} candle rollup failed: {}", tier.getKey().getCode(), e.getMessage());
+                nextRollup.remove(tier.getKey()); // Re-derive from the table next run
+                return;
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${market.candles.retention-interval-ms:3600000}")
+    public void applyRetention() {
+        Instant now = Instant.now();
+        retentionDays.forEach((interval, days) -> {
+            if (days <= 0) {
+                return;
+            }
+            int deleted = candleRepo.deleteOlderThan(interval, now.minus(Duration.ofDays(days)));
+            if (deleted > 0) {
+                log.info("🧹 Removed {} {} candles older than {} days", deleted, interval.getCode(), days);
+            }
+        });
+    }
+
+    /**
+     * Rolls {@code tier} buckets that ended by {@code boundary} up from the
+     * {@code source} tier.
+     */
+    private void rollUp(Interval tier, Interval source, Instant boundary) {
+        Instant next = nextRollup.computeIfAbsent(tier, t -> firstUnrolled(t, source).orElse(null));
+        if (next == null) {
+            nextRollup.remove(tier);
+            return;
+        }
+        Duration length = tier.getLength();
+        for (int i = 0; i < MAX_BUCKETS_PER_RUN && !next.plus(length).isAfter(boundary); i++) {
+            Instant bucket = next;
+            List<PriceCandle> sources = candleRepo.findByIntervalAndOpenTimeGreaterThanEqualAndOpenTimeLessThan(
+                    source, bucket, bucket.plus(length));
+            if (sources.isEmpty()) {
+                // Gap (downtime): jump to the next bucket that has data
+                Optional<PriceCandle> after = candleRepo
+                        .findFirstByIntervalAndOpenTimeGreaterThanEqualOrderByOpenTimeAsc(source, bucket.plus(length));
+                next = after.map(c -> tier.openTimeOf(c.getOpenTime())).orElse(tier.openTimeOf(boundary));
+                continue;
+            }
+            List<PriceCandle> rolled = sources.stream()
+                    .collect(Collectors.groupingBy(PriceCandle::getCoinGeckoId))
+                    .entrySet().stream()
+                    .map(coin -> aggregate(coin.getKey(), tier, bucket, coin.getValue()))
+                    .toList();
+            txTemplate.executeWithoutResult(status -> upsert(tier, rolled, false));
+            next = bucket.plus(length);
+        }
+        nextRollup.put(tier, next);
+    }
+
+    // Bucket after the newest candle of the tier, or the first bucket with source data
+    private Optional<Instant> firstUnrolled(Interval tier, Interval source) {
+        Optional<Instant> afterLatest = candleRepo.findFirstByIntervalOrderByOpenTimeDesc(tier)
+                .map(latest -> latest.getOpenTime().plus(tier.getLength()));
+        if (afterLatest.isPresent()) {
+            return afterLatest;
+        }
+        return candleRepo.findFirstByIntervalOrderByOpenTimeAsc(source)
+                .map(oldest -> tier.openTimeOf(oldest.getOpenTime()));
+    }
+
+    private static PriceCandle aggregate(String coinGeckoId, Interval tier, Instant openTime, List<PriceCandle> parts) {
+        parts.sort(Comparator.comparing(PriceCandle::getOpenTime));
+        return PriceCandle.builder()
+                .coinGeckoId(coinGeckoId)
+                .interval(tier)
+                .openTime(openTime)
+                .open(parts.get(0).getOpen())
+                .high(parts.stream().map(PriceCandle::getHigh).max(Comparator.naturalOrder()).orElseThrow())
+                .low(parts.stream().map(PriceCandle::getLow).min(Comparator.naturalOrder()).orElseThrow())
+                .close(parts.get(parts.size() - 1).getClose())
+                .sampleCount(parts.stream().mapToInt(PriceCandle::getSampleCount).sum())
+                .build();
+    }
+
+    /**
+     * Inserts candles, or updates the stored ones with the same coin and open
+     * time: merged with them ({@code merge}, partial minutes) or replaced
+     * (rollups, recomputed from complete data).
+     */
+    private void upsert(Interval interval, List<PriceCandle> candles, boolean merge) {
+        Map<Instant, List<PriceCandle>> byOpenTime = candles.stream()
+                .collect(Collectors.groupingBy(PriceCandle::getOpenTime));
+        List<PriceCandle> toSave = new ArrayList<>();
+        byOpenTime.forEach((openTime, group) -> {
+            Map<String, PriceCandle> stored = candleRepo.findByIntervalAndOpenTimeAndCoinGeckoIdIn(interval, openTime,
+                    group.stream().map(PriceCandle::getCoinGeckoId).toList()).stream()
+                    .collect(Collectors.toMap(PriceCandle::getCoinGeckoId, Function.identity()));
+            for (PriceCandle candle : group) {
+                PriceCandle existing = stored.get(candle.getCoinGeckoId());
+                if (existing == null) {
+                    toSave.add(candle);
+                    continue;
+                }
+                if (merge) {
+                    existing.setHigh(existing.getHigh().max(candle.getHigh()));
+                    existing.setLow(existing.getLow().min(candle.getLow()));
+                    existing.setClose(candle.getClose());
+                    existing.setSampleCount(existing.getSampleCount() + candle.getSampleCount());
+                } else {
+                    existing.setOpen(candle.getOpen());
+                    existing.setHigh(candle.getHigh());
+                    existing.setLow(candle.getLow());
+                    existing.setClose(candle.getClose());
+                    existing.setSampleCount(candle.getSampleCount());
+                }
+                toSave.add(existing);
+            }
+        });
+        candleRepo.saveAll(toSave);
+        written.increment(toSave.size());
+    }
+
+    private void close(Building minute) {
+        close(minute.toCandle());
+    }
+
+    private void close(PriceCandle candle) {
+        if (closedCount.get() >= MAX_PENDING) {
+            dropped.increment();
+            return;
+        }
+        closed.add(candle);
+        closedCount.incrementAndGet();
+    }
+
+    /**
+     * A 1-minute candle still receiving ticks. Only touched inside
+     * {@code building.compute*}, which serializes access per coin.
+     */
+    private static final class Building {
+        private final String coinGeckoId;
+        private final Instant openTime;
+        private final BigDecimal open;
+        private BigDecimal high;
+        private BigDecimal low;
+        private BigDecimal close;
+        private int samples = 1;
+
+        private Building(String coinGeckoId, Instant openTime, BigDecimal price) {
+            this.coinGeckoId = coinGeckoId;
+            this.openTime = openTime;
+            this.open = price;
+            this.high = price;
+            this.low = price;
+            this.close = price;
+        }
+
+        private void add(BigDecimal price) {
+            high = high.max(price);
+            low = low.min(price);
+            close = price;
+            samples++;
+        }
+
+        private PriceCandle toCandle() {
+            return PriceCandle.builder()
+                    .coinGeckoId(coinGeckoId)
+                    .interval(Interval.M1)
+                    .openTime(openTime)
+                    .open(open)
+                    .high(high)
+                    .low(low)
+                    .close(close)
+                    .sampleCount(samples)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.web.TradeApp.feature.coin.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.web.TradeApp.feature.coin.dto.PriceCandleResponse;
+
+public interface PriceHistoryService {
+    List<PriceCandleResponse> getCandles(String symbolOrId, String interval, Instant from, Instant to);
+
+    Optional<BigDecimal> getPriceAt(String symbolOrId, Instant time);
+
+    Map<String, BigDecimal> fillFromHistory(Map<String, BigDecimal> prices, Collection<String> symbolsOrIds,
+            Instant time);
+}
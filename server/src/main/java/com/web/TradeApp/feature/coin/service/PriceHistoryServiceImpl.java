@@ -0,0 +1,132 @@
+package com.web.TradeApp.feature.coin.service;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import com.web.TradeApp.exception.InvalidFilterValueException;
+import com.web.TradeApp.feature.coin.dto.PriceCandleResponse;
+import com.web.TradeApp.feature.coin.entity.PriceCandle;
+import com.web.TradeApp.feature.coin.entity.PriceCandle.Interval;
+import com.web.TradeApp.feature.coin.repository.PriceCandleRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reads the local price history written by {@link PriceHistoryRecorder}; never
+ * calls the market data provider. Only closed candles are stored, so the
+ * current interval is not part of any result.
+ */
+@Service
+@Slf4j
+public class PriceHistoryServiceImpl implements PriceHistoryService {
+
+    // Candles returned when the caller gives no start
+    private static final int DEFAULT_POINTS = 200;
+
+    private final PriceCandleRepository candleRepo;
+    private final CoinCatalog coinCatalog;
+    private final int maxPoints;
+
+    public PriceHistoryServiceImpl(PriceCandleRepository candleRepo,
+            CoinCatalog coinCatalog,
+            @Value("${market.candles.max-points:1000}") int maxPoints) {
+        this.candleRepo = candleRepo;
+        this.coinCatalog = coinCatalog;
+        this.maxPoints = maxPoints;
+    }
+
+    /**
+     * Candles of one coin opened in [from, to), oldest first. {@code to}
+     * defaults to now and {@code from} to {@value #DEFAULT_POINTS} intervals
+     * before it.
+     */
+    @Override
+    public List<PriceCandleResponse> getCandles(String symbolOrId, String interval, Instant from, Instant to) {
+        Interval tier;
+        try {
+            tier = Interval.fromCode(interval);
+        } catch (IllegalArgumentException e) {
+            throw new InvalidFilterValueException(e.getMessage(), e);
+        }
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(tier.getLength().multipliedBy(DEFAULT_POINTS));
+        if (!start.isBefore(end)) {
+            throw new InvalidFilterValueException("'from' must be before 'to'", null);
+        }
+        long points = (end.toEpochMilli() - start.toEpochMilli()) / tier.getLength().toMillis();
+        if (points > maxPoints) {
+            throw new InvalidFilterValueException("Range covers " + points + " " + tier.getCode()
+                    + " candles; at most " + maxPoints + " per request. Narrow it or use a larger interval.", null);
+        }
+
+        String coinGeckoId = coinCatalog.toCoinGeckoId(symbolOrId);
+        return candleRepo.findByCoinGeckoIdAndIntervalAndOpenTimeGreaterThanEqualAndOpenTimeLessThanOrderByOpenTimeAsc(
+                coinGeckoId, tier, start, end, PageRequest.of(0, maxPoints + 1)).stream()
+                .map(candle -> PriceCandleResponse.builder()
+                        .openTime(candle.getOpenTime())
+                        .open(candle.getOpen())
+                        .high(candle.getHigh())
+                        .low(candle.getLow())
+                        .close(candle.getClose())
+                        .build())
+                .toList();
+    }
+
+    /**
+     * Last recorded price at {@code time}: the close of the finest candle
+     * covering it, or else of the latest candle that ended before it (any tier).
+     * Empty when nothing was recorded up to then.
+     */
+    @Override
+    public Optional<BigDecimal> getPriceAt(String symbolOrId, Instant time) {
+        String coinGeckoId = coinCatalog.toCoinGeckoId(symbolOrId);
+        PriceCandle latest = null;
+        for (Interval tier : Interval.values()) {
+            Optional<PriceCandle> candle = candleRepo
+                    .findFirstByCoinGeckoIdAndIntervalAndOpenTimeLessThanEqualOrderByOpenTimeDesc(coinGeckoId, tier, time);
+            if (candle.isEmpty()) {
+                continue;
+            }
+            Instant closeTime = candle.get().getOpenTime().plus(tier.getLength());
+            if (closeTime.isAfter(time)) {
+                return Optional.of(candle.get().getClose());
+            }
+            if (latest == null || closeTime.isAfter(latest.getOpenTime().plus(latest.getInterval().getLength()))) {
+                latest = candle.get();
+            }
+        }
+        return Optional.ofNullable(latest).map(PriceCandle::getClose);
+    }
+
+    /**
+     * Copy of {@code prices} (keyed by CoinGecko id) where every coin of
+     * {@code symbolsOrIds} the market gave no price for carries its last
+     * recorded close at {@code time}, so a provider outage does not value a
+     * holding at zero. Coins with no history stay absent.
+     */
+    @Override
+    public Map<String, BigDecimal> fillFromHistory(Map<String, BigDecimal> prices, Collection<String> symbolsOrIds,
+            Instant time) {
+        Map<String, BigDecimal> filled = new HashMap<>(prices);
+        for (String symbolOrId : symbolsOrIds) {
+            String coinGeckoId = coinCatalog.toCoinGeckoId(symbolOrId);
+            if (filled.containsKey(coinGeckoId)) {
+                continue;
+            }
+            getPriceAt(coinGeckoId, time).ifPresent(price -> {
+                log.info("📼 No market price for {}; using recorded close {}", coinGeckoId, price);
+                filled.put(coinGeckoId, price);
+            });
+        }
+        return filled;
+    }
+}
@@ -0,0 +1,23 @@
+package com.web.TradeApp.feature.coin.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Prices of a set of coins taken at one point, keyed by CoinGecko id.
+ *
+ * Coins whose fetch failed but that still have a price within
+ * {@code market.price.max-age} carry that last known price and are listed in
+ * {@code stale}; coins with no usable price are absent from {@code prices}.
+ */
+public record PriceSnapshot(Map<String, BigDecimal> prices, Set<String> stale) {
+
+    public BigDecimal price(String coinGeckoId) {
+        return prices.get(coinGeckoId);
+    }
+
+    public boolean isStale(String coinGeckoId) {
+        return stale.contains(coinGeckoId);
+    }
+}
@@ -0,0 +1,306 @@
+package com.web.TradeApp.feature.coin.service;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.web.TradeApp.exception.CoinNotFoundException;
+import com.web.TradeApp.exception.ConflictException;
+import com.web.TradeApp.exception.InsufficientBalanceException;
+import com.web.TradeApp.exception.InsufficientCoinException;
+import com.web.TradeApp.exception.InvalidTokenException;
+import com.web.TradeApp.exception.StalePriceException;
+import com.web.TradeApp.exception.TradeQueueFullException;
+import com.web.TradeApp.feature.coin.dto.BuyCoinRequest;
+import com.web.TradeApp.feature.coin.dto.SellCoinRequest;
+import com.web.TradeApp.feature.coin.dto.TradeOrderResponse;
+import com.web.TradeApp.feature.coin.dto.TradeResponse;
+import com.web.TradeApp.feature.common.entity.BaseTrade.TradeType;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Asynchronous manual trades: accept now, execute on a bounded pool.
+ *
+ * An accepted order gets an id and runs {@link TradeService#buyCoin} /
+ * {@link TradeService#sellCoin} on one of {@code trade.async.workers}
+ * threads, so the request thread is released before the price fetch and the
+ * DB writes. When {@code queue-capacity} orders are already waiting, new ones
+ * are refused with {@link TradeQueueFullException} (503) instead of piling up.
+ *
+ * The outcome can be polled or streamed over SSE (one {@code status} event
+ * per state change). Orders are held in memory on the node that accepted them
+ * and dropped {@code retention-ms} after they finish.
+ *
+ * Metrics: {@code trade.orders.queue.depth}, {@code trade.orders.active},
+ * {@code trade.orders.queue.wait} (time from accept to start),
+ * {@code trade.orders.execution} and {@code trade.orders.rejected}.
+ */
+@Component
+@Slf4j
+public class TradeOrderQueue {
+
+    private final TradeService tradeService;
+    private final ThreadPoolExecutor executor;
+    private final long sseTimeoutMs;
+    private final Duration retention;
+
+    private final ConcurrentHashMap<UUID, Order> orders = new ConcurrentHashMap<>();
+
+    private final Timer queueWait;
+    private final Timer execution;
+    private final Counter rejected;
+
+    public TradeOrderQueue(TradeService tradeService,
+            MeterRegistry meterRegistry,
+            @Value("${trade.async.workers:8}") int workers,
+            @Value("${trade.async.queue-capacity:500}") int queueCapacity,
+            @Value("${trade.async.sse-timeout-ms:60000}") long sseTimeoutMs,
+            @Value("${trade.async.retention-ms:600000}") long retentionMs) {
+        this.tradeService = tradeService;
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.retention = Duration.ofMillis(retentionMs);
+
+        AtomicInteger threadIds = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueCapacity)),
+                task -> {
+                    Thread thread = new Thread(task, "trade-order-" + threadIds.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        Gauge.builder("trade.orders.queue.depth", executor, e -> e.getQueue().size())
+                .description("Accepted orders waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("trade.orders.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Orders executing right now")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("trade.orders.queue.wait")
+                .description("Time an order waited between acceptance and execution")
+                .register(meterRegistry);
+        this.execution = Timer.builder("trade.orders.execution")
+                .description("Time spent executing an order")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("trade.orders.rejected")
+                .description("Orders refused because the queue was full")
+                .register(meterRegistry);
+    }
+
+    public TradeOrderResponse submitBuy(UUID userId, BuyCoinRequest request) {
+        return submit(userId, TradeType.BUY, request.getCoinSymbol(), request.getQuantity(),
+                () -> tradeService.buyCoin(userId, request));
+    }
+
+    public TradeOrderResponse submitSell(UUID userId, SellCoinRequest request) {
+        return submit(userId, TradeType.SELL, request.getCoinSymbol(), request.getQuantity(),
+                () -> tradeService.sellCoin(userId, request));
+    }
+
+    public TradeOrderResponse status(UUID userId, UUID orderId) {
+        return find(userId, orderId).snapshot();
+    }
+
+    /**
+     * Streams the order's state changes; the stream ends once it has finished.
+     */
+    public SseEmitter subscribe(UUID userId, UUID orderId) {
+        Order order = find(userId, orderId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        order.attach(emitter);
+        return emitter;
+    }
+
+    /**
+     * Forgets finished orders once their retention has passed.
+     */
+    @Scheduled(fixedDelayString = "${trade.async.cleanup-interval-ms:60000}")
+    public void evictFinished() {
+        Instant cutoff = Instant.now().minus(retention);
+        orders.values().removeIf(order -> order.finishedBefore(cutoff));
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("⚠️ {} trade orders still pending at shutdown", executor.getQueue().size());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private TradeOrderResponse submit(UUID userId, TradeType type, String coinSymbol, BigDecimal quantity,
+            Supplier<TradeResponse> trade) {
+        Order order = new Order(UUID.randomUUID(), userId, type, coinSymbol.toUpperCase(), quantity);
+        orders.put(order.id, order);
+        try {
+            executor.execute(() -> run(order, trade));
+        } catch (RejectedExecutionException e) {
+            orders.remove(order.id);
+            rejected.increment();
+            throw new TradeQueueFullException("Too many orders in progress. Please retry shortly.");
+        }
+        return order.snapshot();
+    }
+
+    private void run(Order order, Supplier<TradeResponse> trade) {
+        queueWait.record(Duration.between(order.submittedAt, Instant.now()));
+        order.start();
+        Timer.Sample sample = Timer.start();
+        try {
+            order.fill(trade.get());
+        } catch (RuntimeException e) {
+            order.fail(describe(e));
+            log.warn("⚠️ Order {} ({} {} {}) failed: {}", order.id, order.type, order.quantity, order.coinSymbol,
+                    e.getMessage());
+        } finally {
+            sample.stop(execution);
+        }
+    }
+
+    // What the synchronous endpoints would have told the client
+    private static String describe(RuntimeException e) {
+        if (e instanceof InsufficientBalanceException || e instanceof InsufficientCoinException
+                || e instanceof CoinNotFoundException || e instanceof StalePriceException
+                || e instanceof ConflictException || e instanceof InvalidTokenException) {
+            return e.getMessage();
+        }
+        if (e instanceof ObjectOptimisticLockingFailureException) {
+            return "Your balance changed while this request was processed. Please retry.";
+        }
+        return "An unexpected error occurred. Please try again later.";
+    }
+
+    private Order find(UUID userId, UUID orderId) {
+        Order order = orders.get(orderId);
+        if (order == null || !order.userId.equals(userId)) {
+            throw new NoSuchElementException("Order not found: " + orderId);
+        }
+        return order;
+    }
+
+    private static final class Order {
+        private final UUID id;
+        private final UUID userId;
+        private final TradeType type;
+        private final String coinSymbol;
+        private final BigDecimal quantity;
+        private final Instant submittedAt = Instant.now();
+        private final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+
+        // Guarded by this
+        private TradeOrderResponse.Status status = TradeOrderResponse.Status.QUEUED;
+        private Instant completedAt;
+        private TradeResponse trade;
+        private String error;
+
+        private Order(UUID id, UUID userId, TradeType type, String coinSymbol, BigDecimal quantity) {
+            this.id = id;
+            this.userId = userId;
+            this.type = type;
+            this.coinSymbol = coinSymbol;
+            this.quantity = quantity;
+        }
+
+        private void start() {
+            synchronized (this) {
+                status = TradeOrderResponse.Status.RUNNING;
+            }
+            publish(false);
+        }
+
+        private void fill(TradeResponse filled) {
+            synchronized (this) {
+                status = TradeOrderResponse.Status.FILLED;
+                trade = filled;
+                completedAt = Instant.now();
+            }
+            publish(true);
+        }
+
+        private void fail(String message) {
+            synchronized (this) {
+                status = TradeOrderResponse.Status.FAILED;
+                error = message;
+                completedAt = Instant.now();
+            }
+            publish(true);
+        }
+
+        private synchronized boolean finishedBefore(Instant cutoff) {
+            return completedAt != null && completedAt.isBefore(cutoff);
+        }
+
+        private synchronized TradeOrderResponse snapshot() {
+            return TradeOrderResponse.builder()
+                    .orderId(id.toString())
+                    .status(status)
+                    .tradeType(type.name())
+                    .coinSymbol(coinSymbol)
+                    .quantity(quantity)
+                    .submittedAt(submittedAt)
+                    .completedAt(completedAt)
+                    .trade(trade)
+                    .error(error)
+                    .build();
+        }
+
+        private void attach(SseEmitter emitter) {
+            emitter.onCompletion(() -> emitters.remove(emitter));
+            emitter.onTimeout(() -> emitters.remove(emitter));
+            emitter.onError(e -> emitters.remove(emitter));
+            emitters.add(emitter);
+            // Current state first; if it is already final the stream ends here
+            TradeOrderResponse current = snapshot();
+            boolean done = current.getCompletedAt() != null;
+            send(emitter, current, done);
+        }
+
+        private void publish(boolean done) {
+            TradeOrderResponse current = snapshot();
+            for (SseEmitter emitter : emitters) {
+                send(emitter, current, done);
+            }
+        }
+
+        private void send(SseEmitter emitter, TradeOrderResponse current, boolean done) {
+            try {
+                emitter.send(SseEmitter.event().name("status").data(current));
+                if (done) {
+                    emitters.remove(emitter);
+                    emitter.complete();
+                }
+            } catch (IOException | IllegalStateException e) {
+                // Client went away (or the emitter already completed)
+                emitters.remove(emitter);
+            }
+        }
+    }
+}
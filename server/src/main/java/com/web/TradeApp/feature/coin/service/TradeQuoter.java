@@ -0,0 +1,174 @@
+package com.web.TradeApp.feature.coin.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.web.TradeApp.exception.ConflictException;
+import com.web.TradeApp.exception.InvalidTokenException;
+import com.web.TradeApp.feature.coin.dto.QuoteResponse;
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.common.entity.BaseTrade.TradeType;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Issues and verifies short-lived, signed price quotes for manual trades.
+ *
+ * A quote locks the cached market price for one user, coin, side and
+ * quantity until {@code trade.quote.ttl-ms}. Everything needed to honour it
+ * travels in the token itself, signed with HMAC-SHA256, so any node holding
+ * {@code trade.quote.secret} can verify it without shared state and the
+ * trade skips the price lookup entirely. The secret is dedicated to quotes
+ * (never the JWT key) and startup fails without one of at least 32 bytes.
+ *
+ * Tokens are not single-use: within its few seconds of life a quote can be
+ * executed again at the same price, exactly like repeating the order.
+ */
+@Component
+@Slf4j
+public class TradeQuoter {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String VERSION = "q1";
+    private static final BigDecimal HUNDRED = new BigDecimal("100");
+    // HMAC-SHA256 key no shorter than its output
+    private static final int MIN_SECRET_BYTES = 32;
+
+    private final MarketPriceCache marketPriceCache;
+    private final MeterRegistry meterRegistry;
+    private final SecretKeySpec key;
+    private final Duration ttl;
+
+    public TradeQuoter(MarketPriceCache marketPriceCache,
+            MeterRegistry meterRegistry,
+            @Value("${trade.quote.secret}") String secret,
+            @Value("${trade.quote.ttl-ms:5000}") long ttlMs) {
+        this.marketPriceCache = marketPriceCache;
+        this.meterRegistry = meterRegistry;
+        byte[] secretBytes = secret == null ? new byte[0] : secret.strip().getBytes(StandardCharsets.UTF_8);
+        if (secretBytes.length < MIN_SECRET_BYTES) {
+            // Refuse to start: a weak key would let anyone forge quotes at any price
+            throw new IllegalStateException("trade.quote.secret (TRADE_QUOTE_SECRET) must be set to at least "
+                    + MIN_SECRET_BYTES + " bytes");
+        }
+        this.key = new SecretKeySpec(secretBytes, ALGORITHM);
+        this.ttl = Duration.ofMillis(ttlMs);
+    }
+
+    /**
+     * Prices {@code quantity} of {@code coin} at the current cached price and
+     * signs the result for {@code userId}.
+     */
+    public QuoteResponse quote(UUID userId, Coin coin, TradeType side, BigDecimal quantity) {
+        BigDecimal price = marketPriceCache.getPrice(coin.getCoinGeckoId());
+        Instant expiresAt = Instant.now().plus(ttl);
+
+        BigDecimal notionalValue = price.multiply(quantity).setScale(8, RoundingMode.HALF_UP);
+        // Same fee rule as the trade itself (fee is a percentage, e.g. 0.025 = 0.025%)
+        BigDecimal feeAmount = notionalValue.multiply(coin.getFee()).divide(HUNDRED, 8, RoundingMode.HALF_UP);
+        BigDecimal totalCost = side == TradeType.BUY ? notionalValue.add(feeAmount) : notionalValue.subtract(feeAmount);
+
+        String payload = String.join("|", VERSION, userId.toString(), coin.getSymbol(), side.name(),
+                quantity.stripTrailingZeros().toPlainString(), price.toPlainString(),
+                Long.toString(expiresAt.toEpochMilli()));
+        meterRegistry.counter("trade.quote.issued", "side", side.name()).increment();
+
+        return QuoteResponse.builder()
+                .quoteToken(encode(payload.getBytes(StandardCharsets.UTF_8)) + "." + encode(sign(payload)))
+                .side(side.name())
+                .coinSymbol(coin.getSymbol())
+                .quantity(quantity)
+                .price(price)
+                .notionalValue(notionalValue)
+                .fee(feeAmount)
+                .totalCost(totalCost)
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    /**
+     * Verifies a quote token against the order it is presented with and
+     * returns the locked price.
+     *
+     * @throws InvalidTokenException when the token is malformed, forged, or
+     *                               issued for another user or order
+     * @throws ConflictException     when the quote has expired
+     */
+    public BigDecimal redeem(String token, UUID userId, Coin coin, TradeType side, BigDecimal quantity) {
+        String[] fields = verify(token);
+        if (fields.length != 7 || !VERSION.equals(fields[0])) {
+            throw reject("invalid", "Malformed quote token");
+        }
+        try {
+            if (!fields[1].equals(userId.toString())
+                    || !fields[2].equals(coin.getSymbol())
+                    || !fields[3].equals(side.name())
+                    || new BigDecimal(fields[4]).compareTo(quantity) != 0) {
+                throw reject("mismatch", "Quote does not match this order");
+            }
+            if (Instant.now().toEpochMilli() >= Long.parseLong(fields[6])) {
+                throw reject("expired", null);
+            }
+            BigDecimal price = new BigDecimal(fields[5]);
+            meterRegistry.counter("trade.quote.redeemed", "outcome", "ok").increment();
+            return price;
+        } catch (NumberFormatException e) {
+            throw reject("invalid", "Malformed quote token");
+        }
+    }
+
+    private String[] verify(String token) {
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            throw reject("invalid", "Malformed quote token");
+        }
+        try {
+            byte[] payload = Base64.getUrlDecoder().decode(token.substring(0, dot));
+            byte[] signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+            String text = new String(payload, StandardCharsets.UTF_8);
+            if (!MessageDigest.isEqual(sign(text), signature)) {
+                throw reject("invalid", "Quote signature is invalid");
+            }
+            return text.split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw reject("invalid", "Malformed quote token");
+        }
+    }
+
+    private RuntimeException reject(String outcome, String message) {
+        meterRegistry.counter("trade.quote.redeemed", "outcome", outcome).increment();
+        if ("expired".equals(outcome)) {
+            return new ConflictException("Quote expired. Please request a new quote.");
+        }
+        log.warn("🔏 Quote rejected ({}): {}", outcome, message);
+        return new InvalidTokenException(message);
+    }
+
+    private byte[] sign(String payload) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign quote", e);
+        }
+    }
+
+    private static String encode(byte[] bytes) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+}
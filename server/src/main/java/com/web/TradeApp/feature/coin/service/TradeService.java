@@ -2,16 +2,30 @@ package com.web.TradeApp.feature.coin.service;
 
 import java.util.UUID;
 
+import com.web.TradeApp.feature.coin.dto.BatchTradeRequest;
+import com.web.TradeApp.feature.coin.dto.BatchTradeResponse;
 import com.web.TradeApp.feature.coin.dto.BuyCoinRequest;
+import com.web.TradeApp.feature.coin.dto.QuoteRequest;
+import com.web.TradeApp.feature.coin.dto.QuoteResponse;
 import com.web.TradeApp.feature.coin.dto.SellCoinRequest;
 import com.web.TradeApp.feature.coin.dto.TradeResponse;
 
 public interface TradeService {
+    /**
+     * Price an order for a user without executing it
+     * 
+     * @param userId  User ID
+     * @param request Coin symbol, side and quantity to price
+     * @return Signed quote, redeemable on buy/sell until it expires
+     */
+    QuoteResponse quote(UUID userId, QuoteRequest request);
+
     /**
      * Execute a buy order for a user
      * 
      * @param userId  User ID
-     * @param request Buy request containing coin symbol and quantity
+     * @param request Buy request containing coin symbol, quantity and an
+     *                optional quote token locking the price
      * @return Trade response with transaction details
      */
     TradeResponse buyCoin(UUID userId, BuyCoinRequest request);
@@ -20,8 +34,18 @@ public interface TradeService {
      * Execute a sell order for a user
      * 
      * @param userId  User ID
-     * @param request Sell request containing coin symbol and quantity
+     * @param request Sell request containing coin symbol, quantity and an
+     *                optional quote token locking the price
      * @return Trade response with transaction details
      */
     TradeResponse sellCoin(UUID userId, SellCoinRequest request);
+
+    /**
+     * Execute several buy/sell legs for a user in one transaction
+     * 
+     * @param userId  User ID
+     * @param request Legs and the batch mode (all-or-nothing or best-effort)
+     * @return Per-leg results and the final wallet balance
+     */
+    BatchTradeResponse executeBatch(UUID userId, BatchTradeRequest request);
 }
@@ -2,18 +2,33 @@ package com.web.TradeApp.feature.coin.service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.web.TradeApp.exception.CoinNotFoundException;
+import com.web.TradeApp.exception.ConflictException;
 import com.web.TradeApp.exception.InsufficientBalanceException;
 import com.web.TradeApp.exception.InsufficientCoinException;
-import com.web.TradeApp.feature.admin.service.AdminService;
+import com.web.TradeApp.exception.InvalidTokenException;
+import com.web.TradeApp.exception.StalePriceException;
+import com.web.TradeApp.feature.admin.service.AdminTreasury;
+import com.web.TradeApp.feature.coin.dto.BatchLegResult;
+import com.web.TradeApp.feature.coin.dto.BatchTradeLeg;
+import com.web.TradeApp.feature.coin.dto.BatchTradeRequest;
+import com.web.TradeApp.feature.coin.dto.BatchTradeResponse;
 import com.web.TradeApp.feature.coin.dto.BuyCoinRequest;
+import com.web.TradeApp.feature.coin.dto.QuoteRequest;
+import com.web.TradeApp.feature.coin.dto.QuoteResponse;
 import com.web.TradeApp.feature.coin.dto.SellCoinRequest;
 import com.web.TradeApp.feature.coin.dto.TradeResponse;
 import com.web.TradeApp.feature.coin.entity.Coin;
@@ -22,10 +37,10 @@ import com.web.TradeApp.feature.coin.entity.Transaction;
 import com.web.TradeApp.feature.coin.entity.Wallet;
 import com.web.TradeApp.feature.coin.mapper.TradeMapper;
 import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
-import com.web.TradeApp.feature.coin.repository.CoinRepository;
 import com.web.TradeApp.feature.coin.repository.TransactionRepository;
 import com.web.TradeApp.feature.coin.repository.WalletRepository;
 import com.web.TradeApp.feature.common.entity.BaseTrade.TradeType;
+import com.web.TradeApp.utils.OptimisticRetry;
 
 import lombok.RequiredArgsConstructor;
 
@@ -34,29 +49,45 @@ import lombok.RequiredArgsConstructor;
 public class TradeServiceImpl implements TradeService {
 
     private final WalletRepository walletRepository;
-    private final CoinRepository coinRepository;
+    private final CoinCatalog coinCatalog;
     private final CoinHoldingRepository coinHoldingRepository;
     private final TransactionRepository transactionRepository;
-    private final AdminService adminService;
+    private final AdminTreasury adminTreasury;
     private final TradeMapper tradeMapper;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final MarketPriceCache marketPriceCache;
+    private final TransactionTemplate transactionTemplate;
+    private final OptimisticRetry optimisticRetry;
+    private final WalletSequencer walletSequencer;
+    private final TradeQuoter tradeQuoter;
 
-    private static final String COINGECKO_API_URL = "https://api.coingecko.com/api/v3/simple/price?ids=%s&vs_currencies=usd";
+    @Override
+    public QuoteResponse quote(UUID userId, QuoteRequest request) {
+        Coin coin = coinCatalog.findBySymbol(request.getCoinSymbol().toUpperCase())
+                .orElseThrow(() -> new CoinNotFoundException("Coin not found: " + request.getCoinSymbol()));
+        return tradeQuoter.quote(userId, coin, request.getSide(), request.getQuantity());
+    }
 
     @Override
-    @Transactional
     public TradeResponse buyCoin(UUID userId, BuyCoinRequest request) {
-        // 1. Fetch user and admin wallets
-        Wallet userWallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found for user"));
-        Wallet adminWallet = adminService.getAdminWallet();
-
-        // 2. Fetch coin
-        Coin coin = coinRepository.findBySymbol(request.getCoinSymbol().toUpperCase())
+        // 1. Fetch coin
+        Coin coin = coinCatalog.findBySymbol(request.getCoinSymbol().toUpperCase())
                 .orElseThrow(() -> new CoinNotFoundException("Coin not found: " + request.getCoinSymbol()));
 
-        // 3. Get current price from CoinGecko
-        BigDecimal currentPrice = getCurrentPrice(coin.getCoinGeckoId());
+        // 2. Quoted price, or the current price before the transaction starts (may go remote)
+        BigDecimal currentPrice = resolvePrice(userId, request.getQuoteToken(), coin, TradeType.BUY,
+                request.getQuantity());
+
+        // Balance changes run in one transaction, re-run if a concurrent trade won the race
+        // (on the user's wallet lane when the sequencer is enabled)
+        return walletSequencer.execute(userId, () -> optimisticRetry.execute("manual_buy",
+                () -> transactionTemplate.execute(status -> executeBuy(userId, request, coin, currentPrice))));
+    }
+
+    private TradeResponse executeBuy(UUID userId, BuyCoinRequest request, Coin coin, BigDecimal currentPrice) {
+        // 3. Fetch user wallet (admin side goes through the treasury netting)
+        Wallet userWallet = walletRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Wallet not found for user"));
+        AdminTreasury.Netting treasury = adminTreasury.open();
 
         // 4. Calculate costs
         BigDecimal notionalValue = currentPrice.multiply(request.getQuantity())
@@ -73,27 +104,21 @@ public class TradeServiceImpl implements TradeService {
                             totalCost, userWallet.getBalance()));
         }
 
-        // 6. Check admin has enough coins
-        CoinHolding adminHolding = coinHoldingRepository.findByWalletIdAndCoinId(adminWallet.getId(), coin.getId())
-                .orElseThrow(() -> new InsufficientCoinException(
-                        "Admin does not have " + coin.getSymbol() + " available"));
-
-        if (adminHolding.getAmount().compareTo(request.getQuantity()) < 0) {
+        // 6. Check admin has enough coins (reserves the quantity until commit)
+        if (!treasury.tryDebitCoin(coin, request.getQuantity())) {
             throw new InsufficientCoinException(
                     String.format("Insufficient admin %s. Required: %s, Available: %s",
-                            coin.getSymbol(), request.getQuantity(), adminHolding.getAmount()));
+                            coin.getSymbol(), request.getQuantity(), adminTreasury.availableCoin(coin.getId())));
         }
 
         // 7. Transfer USDT: User -> Admin
         userWallet.setBalance(userWallet.getBalance().subtract(totalCost));
-        adminWallet.setBalance(adminWallet.getBalance().add(totalCost));
+        treasury.creditUsdt(totalCost);
         walletRepository.save(userWallet);
-        walletRepository.save(adminWallet);
 
         // 8. Transfer Coin: Admin -> User
-        // 8a. Deduct from admin
-        adminHolding.setAmount(adminHolding.getAmount().subtract(request.getQuantity()));
-        coinHoldingRepository.save(adminHolding);
+        // 8a. Apply admin side (one atomic update per asset)
+        treasury.flush();
 
         // 8b. Add to user (or create holding)
         CoinHolding userHolding = getOrCreateHolding(userWallet, coin);
@@ -133,19 +158,26 @@ public class TradeServiceImpl implements TradeService {
     }
 
     @Override
-    @Transactional
     public TradeResponse sellCoin(UUID userId, SellCoinRequest request) {
-        // 1. Fetch user and admin wallets
-        Wallet userWallet = walletRepository.findByUserId(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found for user"));
-        Wallet adminWallet = adminService.getAdminWallet();
-
-        // 2. Fetch coin
-        Coin coin = coinRepository.findBySymbol(request.getCoinSymbol().toUpperCase())
+        // 1. Fetch coin
+        Coin coin = coinCatalog.findBySymbol(request.getCoinSymbol().toUpperCase())
                 .orElseThrow(() -> new CoinNotFoundException("Coin not found: " + request.getCoinSymbol()));
 
-        // 3. Get current price from CoinGecko
-        BigDecimal currentPrice = getCurrentPrice(coin.getCoinGeckoId());
+        // 2. Quoted price, or the current price before the transaction starts (may go remote)
+        BigDecimal currentPrice = resolvePrice(userId, request.getQuoteToken(), coin, TradeType.SELL,
+                request.getQuantity());
+
+        // Balance changes run in one transaction, re-run if a concurrent trade won the race
+        // (on the user's wallet lane when the sequencer is enabled)
+        return walletSequencer.execute(userId, () -> optimisticRetry.execute("manual_sell",
+                () -> transactionTemplate.execute(status -> executeSell(userId, request, coin, currentPrice))));
+    }
+
+    private TradeResponse executeSell(UUID userId, SellCoinRequest request, Coin coin, BigDecimal currentPrice) {
+        // 3. Fetch user wallet (admin side goes through the treasury netting)
+        Wallet userWallet = walletRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Wallet not found for user"));
+        AdminTreasury.Netting treasury = adminTreasury.open();
 
         // 4. Check user has enough coins
         CoinHolding userHolding = coinHoldingRepository.findByWalletIdAndCoinId(userWallet.getId(), coin.getId())
@@ -165,8 +197,8 @@ public class TradeServiceImpl implements TradeService {
                 RoundingMode.HALF_UP);
         BigDecimal netProceeds = notionalValue.subtract(feeAmount);
 
-        // 6. Check admin has enough USDT to buy from user
-        if (adminWallet.getBalance().compareTo(netProceeds) < 0) {
+        // 6. Check admin has enough USDT to buy from user (reserves it until commit)
+        if (!treasury.tryDebitUsdt(netProceeds)) {
             throw new RuntimeException("Admin wallet has insufficient balance to purchase coins");
         }
 
@@ -181,16 +213,13 @@ public class TradeServiceImpl implements TradeService {
             coinHoldingRepository.save(userHolding);
         }
 
-        // Add to admin holding (or create if doesn't exist)
-        CoinHolding adminHolding = getOrCreateHolding(adminWallet, coin);
-        adminHolding.setAmount(adminHolding.getAmount().add(request.getQuantity()));
-        coinHoldingRepository.save(adminHolding);
+        // Add to admin holding (created on first receipt)
+        treasury.creditCoin(coin, request.getQuantity());
 
         // 8. Transfer USDT: Admin -> User
-        adminWallet.setBalance(adminWallet.getBalance().subtract(netProceeds));
         userWallet.setBalance(userWallet.getBalance().add(netProceeds));
-        walletRepository.save(adminWallet);
         walletRepository.save(userWallet);
+        treasury.flush();
 
         // 9. Create transaction record
         Transaction transaction = Transaction.builder()
@@ -214,30 +243,222 @@ public class TradeServiceImpl implements TradeService {
         return response;
     }
 
+    @Override
+    public BatchTradeResponse executeBatch(UUID userId, BatchTradeRequest request) {
+        List<BatchTradeLeg> legs = request.getLegs();
+        boolean allOrNothing = request.getMode() == BatchTradeRequest.Mode.ALL_OR_NOTHING;
+        BatchLegResult[] results = new BatchLegResult[legs.size()];
+
+        // 1. Resolve coins and prices before the transaction, each coin priced once
+        Map<String, BigDecimal> snapshot = new HashMap<>();
+        List<PricedLeg> priced = new ArrayList<>();
+        for (int i = 0; i < legs.size(); i++) {
+            BatchTradeLeg leg = legs.get(i);
+            try {
+                Coin coin = coinCatalog.findBySymbol(leg.getCoinSymbol().toUpperCase())
+                        .orElseThrow(() -> new CoinNotFoundException("Coin not found: " + leg.getCoinSymbol()));
+                BigDecimal price = leg.getQuoteToken() == null || leg.getQuoteToken().isBlank()
+                        ? snapshot.computeIfAbsent(coin.getCoinGeckoId(), marketPriceCache::getPrice)
+                        : tradeQuoter.redeem(leg.getQuoteToken(), userId, coin, leg.getSide(), leg.getQuantity());
+                priced.add(new PricedLeg(i, leg.getSide(), leg.getQuantity(), coin, price));
+            } catch (CoinNotFoundException | StalePriceException | InvalidTokenException | ConflictException e) {
+                if (allOrNothing) {
+                    throw e;
+                }
+                results[i] = rejected(i, e.getMessage());
+            }
+        }
+
+        // 2. Sells settle before buys, so their proceeds count towards the buys' balance check
+        priced.sort(Comparator.comparing(leg -> leg.side() == TradeType.BUY));
+
+        // 3. All legs in one transaction (on the user's wallet lane when the sequencer is enabled)
+        BigDecimal balance = priced.isEmpty()
+                ? walletRepository.findByUserId(userId).map(Wallet::getBalance).orElse(null)
+                : walletSequencer.execute(userId, () -> optimisticRetry.execute("manual_batch",
+                        () -> transactionTemplate.execute(
+                                status -> executeBatchLegs(userId, priced, allOrNothing, results))));
+
+        int filled = (int) Arrays.stream(results)
+                .filter(result -> result.getStatus() == BatchLegResult.Status.FILLED)
+                .count();
+        return BatchTradeResponse.builder()
+                .mode(request.getMode().name())
+                .filled(filled)
+                .rejected(results.length - filled)
+                .newWalletBalance(balance)
+                .legs(Arrays.asList(results))
+                .build();
+    }
+
     /**
-     * Get current price from CoinGecko API
+     * Applies the legs to in-memory copies of the wallet and holdings, then
+     * writes everything once: one wallet update, one treasury flush and batched
+     * holding/transaction writes. In all-or-nothing mode the first rejected leg
+     * rolls the whole batch back.
      */
-    private BigDecimal getCurrentPrice(String coinGeckoId) {
-        try {
-            String url = String.format(COINGECKO_API_URL, coinGeckoId);
-            @SuppressWarnings("unchecked")
-            Map<String, Map<String, Object>> response = restTemplate.getForObject(url, Map.class);
-
-            if (response != null && response.containsKey(coinGeckoId)) {
-                Object priceObj = response.get(coinGeckoId).get("usd");
-
-                // Handle both Integer and Double types from API
-                if (priceObj instanceof Number) {
-                    return BigDecimal.valueOf(((Number) priceObj).doubleValue());
+    private BigDecimal executeBatchLegs(UUID userId, List<PricedLeg> legs, boolean allOrNothing,
+            BatchLegResult[] results) {
+        Wallet userWallet = walletRepository.findByUserId(userId)
+                .orElseThrow(() -> new RuntimeException("Wallet not found for user"));
+        AdminTreasury.Netting treasury = adminTreasury.open();
+
+        Set<UUID> coinIds = legs.stream().map(leg -> leg.coin().getId()).collect(Collectors.toSet());
+        Map<UUID, CoinHolding> holdings = coinHoldingRepository
+                .findByWalletIdAndCoinIdIn(userWallet.getId(), coinIds).stream()
+                .collect(Collectors.toMap(holding -> holding.getCoin().getId(), holding -> holding));
+
+        List<LegFill> fills = new ArrayList<>();
+        for (PricedLeg leg : legs) {
+            try {
+                fills.add(leg.side() == TradeType.BUY
+                        ? applyBuyLeg(leg, userWallet, holdings, treasury)
+                        : applySellLeg(leg, userWallet, holdings, treasury));
+            } catch (InsufficientBalanceException | InsufficientCoinException e) {
+                if (allOrNothing) {
+                    throw e;
                 }
+                results[leg.index()] = rejected(leg.index(), e.getMessage());
+            }
+        }
+        if (fills.isEmpty()) {
+            return userWallet.getBalance();
+        }
 
-                throw new RuntimeException("Invalid price format from CoinGecko: " + priceObj);
+        walletRepository.save(userWallet);
+        treasury.flush();
+
+        List<CoinHolding> emptied = new ArrayList<>();
+        List<CoinHolding> kept = new ArrayList<>();
+        for (CoinHolding holding : holdings.values()) {
+            if (holding.getAmount().signum() > 0) {
+                kept.add(holding);
+            } else if (holding.getId() != null) {
+                emptied.add(holding);
             }
+        }
+        coinHoldingRepository.deleteAll(emptied);
+        coinHoldingRepository.saveAll(kept);
+        List<Transaction> saved = transactionRepository.saveAll(fills.stream().map(LegFill::transaction).toList());
+
+        for (int i = 0; i < fills.size(); i++) {
+            LegFill fill = fills.get(i);
+            TradeResponse trade = tradeMapper.toTradeResponse(saved.get(i));
+            trade.setTotalCost(fill.totalCost());
+            trade.setNewWalletBalance(fill.balanceAfter());
+            trade.setNewCoinHolding(fill.holdingAfter());
+            results[fill.index()] = BatchLegResult.builder()
+                    .index(fill.index())
+                    .status(BatchLegResult.Status.FILLED)
+                    .trade(trade)
+                    .build();
+        }
+        return userWallet.getBalance();
+    }
+
+    private LegFill applyBuyLeg(PricedLeg leg, Wallet userWallet, Map<UUID, CoinHolding> holdings,
+            AdminTreasury.Netting treasury) {
+        Coin coin = leg.coin();
+        BigDecimal notionalValue = leg.price().multiply(leg.quantity()).setScale(8, RoundingMode.HALF_UP);
+        BigDecimal feeAmount = notionalValue.multiply(coin.getFee()).divide(new BigDecimal("100"), 8,
+                RoundingMode.HALF_UP);
+        BigDecimal totalCost = notionalValue.add(feeAmount);
+
+        // Checks first: a rejected leg must leave no trace (treasury reservations are not undone)
+        if (userWallet.getBalance().compareTo(totalCost) < 0) {
+            throw new InsufficientBalanceException(
+                    String.format("Leg %d: Insufficient balance. Required: %s, Available: %s",
+                            leg.index(), totalCost, userWallet.getBalance()));
+        }
+        if (!treasury.tryDebitCoin(coin, leg.quantity())) {
+            throw new InsufficientCoinException(
+                    String.format("Leg %d: Insufficient admin %s. Required: %s, Available: %s",
+                            leg.index(), coin.getSymbol(), leg.quantity(), adminTreasury.availableCoin(coin.getId())));
+        }
+
+        userWallet.setBalance(userWallet.getBalance().subtract(totalCost));
+        treasury.creditUsdt(totalCost);
+
+        CoinHolding userHolding = holdings.computeIfAbsent(coin.getId(), id -> getOrCreateHolding(userWallet, coin));
+        BigDecimal totalValue = userHolding.getAverageBuyPrice().multiply(userHolding.getAmount())
+                .add(notionalValue);
+        BigDecimal totalAmount = userHolding.getAmount().add(leg.quantity());
+        userHolding.setAmount(totalAmount);
+        userHolding.setAverageBuyPrice(totalValue.divide(totalAmount, 8, RoundingMode.HALF_UP));
+
+        return new LegFill(leg.index(), buildTransaction(userWallet, leg, notionalValue, feeAmount), totalCost,
+                userWallet.getBalance(), totalAmount);
+    }
+
+    private LegFill applySellLeg(PricedLeg leg, Wallet userWallet, Map<UUID, CoinHolding> holdings,
+            AdminTreasury.Netting treasury) {
+        Coin coin = leg.coin();
+        CoinHolding userHolding = holdings.get(coin.getId());
+        BigDecimal owned = userHolding != null ? userHolding.getAmount() : BigDecimal.ZERO;
+        if (owned.compareTo(leg.quantity()) < 0) {
+            throw new InsufficientCoinException(
+                    String.format("Leg %d: Insufficient %s. Required: %s, Available: %s",
+                            leg.index(), coin.getSymbol(), leg.quantity(), owned));
+        }
+
+        BigDecimal notionalValue = leg.price().multiply(leg.quantity()).setScale(8, RoundingMode.HALF_UP);
+        BigDecimal feeAmount = notionalValue.multiply(coin.getFee()).divide(new BigDecimal("100"), 8,
+                RoundingMode.HALF_UP);
+        BigDecimal netProceeds = notionalValue.subtract(feeAmount);
+        if (!treasury.tryDebitUsdt(netProceeds)) {
+            throw new InsufficientBalanceException(
+                    String.format("Leg %d: Admin wallet has insufficient balance to purchase coins", leg.index()));
+        }
+
+        userHolding.setAmount(owned.subtract(leg.quantity()));
+        treasury.creditCoin(coin, leg.quantity());
+        userWallet.setBalance(userWallet.getBalance().add(netProceeds));
 
-            throw new RuntimeException("Failed to fetch price for: " + coinGeckoId);
-        } catch (Exception e) {
-            throw new RuntimeException("Error fetching price from CoinGecko: " + e.getMessage(), e);
+        return new LegFill(leg.index(), buildTransaction(userWallet, leg, notionalValue, feeAmount), netProceeds,
+                userWallet.getBalance(), userHolding.getAmount());
+    }
+
+    private static Transaction buildTransaction(Wallet userWallet, PricedLeg leg, BigDecimal notionalValue,
+            BigDecimal feeAmount) {
+        return Transaction.builder()
+                .wallet(userWallet)
+                .coin(leg.coin())
+                .type(leg.side())
+                .quantity(leg.quantity())
+                .priceAtExecution(leg.price())
+                .notionalValue(notionalValue)
+                .feeTradeApplied(feeAmount)
+                .source(Transaction.Source.MANUAL)
+                .build();
+    }
+
+    private static BatchLegResult rejected(int index, String error) {
+        return BatchLegResult.builder()
+                .index(index)
+                .status(BatchLegResult.Status.REJECTED)
+                .error(error)
+                .build();
+    }
+
+    // A batch leg with its coin and execution price resolved
+    private record PricedLeg(int index, TradeType side, BigDecimal quantity, Coin coin, BigDecimal price) {
+    }
+
+    // A leg applied in memory, with the wallet/holding state right after it
+    private record LegFill(int index, Transaction transaction, BigDecimal totalCost, BigDecimal balanceAfter,
+            BigDecimal holdingAfter) {
+    }
+
+    /**
+     * Price to execute at: the one locked by a valid quote token, otherwise the
+     * market price
+     */
+    private BigDecimal resolvePrice(UUID userId, String quoteToken, Coin coin, TradeType side,
+            BigDecimal quantity) {
+        if (quoteToken == null || quoteToken.isBlank()) {
+            return marketPriceCache.getPrice(coin.getCoinGeckoId());
         }
+        return tradeQuoter.redeem(quoteToken, userId, coin, side, quantity);
     }
 
     /**
@@ -0,0 +1,194 @@
+package com.web.TradeApp.feature.coin.service;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.web.TradeApp.exception.ConflictException;
+import com.web.TradeApp.utils.KeyedSerialExecutor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Optional single-writer mode for user wallets ({@code trade.sequencer.enabled}).
+ *
+ * When enabled, every trade that changes a user's balances (manual buy/sell,
+ * per-subscriber bot fills, stop-loss / take-profit exits) runs on that user's
+ * lane of a {@link KeyedSerialExecutor}: commands of one user run one at a
+ * time in arrival order, so they never wait on each other's row locks or lose
+ * optimistic-lock races, while different users run fully in parallel. The
+ * bulk fan-out (one transaction over many wallets) cannot be split into
+ * lanes, so in this mode bot fills take the per-subscriber path instead,
+ * submitted to all users' lanes at once.
+ *
+ * Commands still run in their own DB transaction and re-read the wallet: the
+ * row is also written outside the lanes (deposits, seeding), so an in-memory
+ * copy could not be trusted. {@code @Version} and {@link
+ * com.web.TradeApp.utils.OptimisticRetry} stay in place for those writers.
+ *
+ * A caller waits up to {@code command-timeout-ms}; a command that has not
+ * started by then is dropped and the caller gets a {@link ConflictException}
+ * (one that already started is waited for, so the caller always learns its
+ * outcome). A command issued from inside the same user's lane runs inline.
+ * When disabled, commands simply run on the caller's thread.
+ */
+@Component
+@Slf4j
+public class WalletSequencer {
+
+    private final boolean enabled;
+    private final long commandTimeoutMs;
+    private final KeyedSerialExecutor<UUID> lanes;
+    private final Counter timeouts;
+
+    // User whose lane the current thread is running
+    private final ThreadLocal<UUID> currentLane = new ThreadLocal<>();
+
+    public WalletSequencer(MeterRegistry meterRegistry,
+            @Value("${trade.sequencer.enabled:false}") boolean enabled,
+            @Value("${trade.sequencer.lane-capacity:256}") int laneCapacity,
+            @Value("${trade.sequencer.command-timeout-ms:10000}") long commandTimeoutMs) {
+        this.enabled = enabled;
+        this.commandTimeoutMs = commandTimeoutMs;
+        this.lanes = enabled ? new KeyedSerialExecutor<>("trade.sequencer", laneCapacity, meterRegistry) : null;
+        this.timeouts = Counter.builder("trade.sequencer.timeouts")
+                .description("Commands dropped because they did not start within the timeout")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Runs {@code command} on the user's lane and waits for its result.
+     */
+    public <T> T execute(UUID userId, Supplier<T> command) {
+        if (runsInline(userId)) {
+            return command.get();
+        }
+        return enqueue(userId, command).await();
+    }
+
+    public void run(UUID userId, Runnable command) {
+        execute(userId, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    /**
+     * Queues {@code command} on the user's lane without waiting (already
+     * completed when it ran inline).
+     */
+    public <T> CompletableFuture<T> submit(UUID userId, Supplier<T> command) {
+        if (runsInline(userId)) {
+            try {
+                return CompletableFuture.completedFuture(command.get());
+            } catch (RuntimeException e) {
+                return CompletableFuture.failedFuture(e);
+            }
+        }
+        return enqueue(userId, command).result;
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (lanes != null) {
+            lanes.shutdown(30, TimeUnit.SECONDS);
+        }
+    }
+
+    private boolean runsInline(UUID userId) {
+        return !enabled || userId.equals(currentLane.get());
+    }
+
+    private <T> Command<T> enqueue(UUID userId, Supplier<T> body) {
+        Command<T> command = new Command<>(userId, body);
+        boolean queued;
+        try {
+            queued = lanes.submit(userId, command, commandTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            queued = false;
+        }
+        if (!queued) {
+            timeouts.increment();
+            log.warn("🚦 Wallet lane of user {} is full ({} queued)", userId, lanes.depth(userId));
+            command.result.completeExceptionally(
+                    new ConflictException("Too many trades in progress for this wallet. Please try again."));
+        }
+        return command;
+    }
+
+    private final class Command<T> implements Runnable {
+        private final UUID userId;
+        private final Supplier<T> body;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        // Set by whoever comes first: the lane (runs it) or a caller giving up (drops it)
+        private final AtomicBoolean claimed = new AtomicBoolean();
+
+        private Command(UUID userId, Supplier<T> body) {
+            this.userId = userId;
+            this.body = body;
+        }
+
+        @Override
+        public void run() {
+            if (!claimed.compareAndSet(false, true)) {
+                return; // Caller gave up before it started
+            }
+            currentLane.set(userId);
+            try {
+                result.complete(body.get());
+            } catch (Throwable e) {
+                result.completeExceptionally(e);
+            } finally {
+                currentLane.remove();
+            }
+        }
+
+        private T await() {
+            try {
+                return result.get(commandTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException | InterruptedException e) {
+                if (e instanceof InterruptedException) {
+                    Thread.currentThread().interrupt();
+                }
+                if (claimed.compareAndSet(false, true)) {
+                    timeouts.increment();
+                    throw new ConflictException("Your wallet is busy with other trades. Please try again.");
+                }
+                // Already running: its outcome is the answer
+                try {
+                    return result.join();
+                } catch (CompletionException ce) {
+                    throw unwrap(ce.getCause());
+                }
+            } catch (ExecutionException e) {
+                throw unwrap(e.getCause());
+            }
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable cause) {
+        if (cause instanceof RuntimeException runtime) {
+            return runtime;
+        }
+        if (cause instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(cause);
+    }
+}
@@ -35,7 +35,8 @@ public class WalletSnapshotServiceImpl implements WalletSnapshotService {
 
     private final WalletRepository walletRepo;
     private final WalletSnapshotRepository walletSnapshotRepo;
-    private final CoinGeckoClient marketPriceService;
+    private final MarketPriceCache marketPriceCache;
+    private final PriceHistoryService priceHistoryService;
     private final PlatformTransactionManager transactionManager;
 
     @Value("${snapshot.batch-size:100}")
@@ -104,15 +105,14 @@ public class WalletSnapshotServiceImpl implements WalletSnapshotService {
                 .map(holding -> holding.getCoin().getCoinGeckoId())
                 .collect(Collectors.toSet());
 
-        // Fetch ALL prices in ONE API call (instead of N individual calls)
+        // Fetch ALL prices at once (cached ones reused, the rest in chunked batch calls)
         Map<String, BigDecimal> priceMap = new HashMap<>();
         if (!allCoinIds.isEmpty()) {
-            try {
-                priceMap = marketPriceService.getBatchPrices(new ArrayList<>(allCoinIds));
-                log.debug("📊 Fetched {} coin prices in one batch API call", priceMap.size());
-            } catch (Exception e) {
-                log.error("❌ Failed to fetch batch prices: {}", e.getMessage());
-            }
+            PriceSnapshot prices = marketPriceCache.snapshot(allCoinIds);
+            // Coins the market gave no price for fall back to their last recorded close
+            priceMap = priceHistoryService.fillFromHistory(prices.prices(), allCoinIds, Instant.now());
+            log.debug("📊 Priced {}/{} coins for the snapshot batch ({} stale)", priceMap.size(),
+                    allCoinIds.size(), prices.stale().size());
         }
 
         // Now process each wallet using the pre-fetched prices
@@ -11,8 +11,11 @@ import org.springframework.stereotype.Service;
 import com.web.TradeApp.exception.InvalidFilterValueException;
 import com.web.TradeApp.feature.aibot.model.BotTrade;
 import com.web.TradeApp.feature.aibot.repository.BotTradeRepository;
+import com.web.TradeApp.feature.aibot.service.journal.TradeJournal;
+import com.web.TradeApp.feature.coin.entity.Coin;
 import com.web.TradeApp.feature.coin.entity.Transaction;
 import com.web.TradeApp.feature.coin.repository.TransactionRepository;
+import com.web.TradeApp.feature.coin.service.CoinCatalog;
 import com.web.TradeApp.feature.common.entity.BaseTrade.TradeType;
 import com.web.TradeApp.feature.common.response.ResultPaginationResponse;
 import com.web.TradeApp.feature.history.dto.BotTradeHistoryResponse;
@@ -35,8 +38,12 @@ public class HistoryServiceImpl implements HistoryService {
 
         private final BotTradeRepository botTradeRepository;
 
+        private final TradeJournal tradeJournal;
+
         private final PaymentTransactionRepository paymentTransactionRepository;
 
+        private final CoinCatalog coinCatalog;
+
         @Override
         public ResultPaginationResponse getInventoryHistory(Pageable pageable) {
                 Page<InventoryHistory> pageHistory = this.inventoryHistoryRepository.findAll(pageable);
@@ -58,10 +65,11 @@ public class HistoryServiceImpl implements HistoryService {
         }
 
         private InventoryHistoryResponse toInventoryHisDto(InventoryHistory inventory) {
+                Coin coin = coinOf(inventory.getCoin());
                 return InventoryHistoryResponse.builder()
                                 .actionType(inventory.getAction())
-                                .coinGeckoId(inventory.getCoin().getCoinGeckoId())
-                                .coinName(inventory.getCoin().getName())
+                                .coinGeckoId(coin.getCoinGeckoId())
+                                .coinName(coin.getName())
                                 .quantityDelta(inventory.getQuantityDelta())
                                 .note(inventory.getNote())
                                 .performedBy(inventory.getCreatedBy())
@@ -123,13 +131,14 @@ public class HistoryServiceImpl implements HistoryService {
 
         private com.web.TradeApp.feature.history.dto.TransactionHistoryResponse toTransactionDto(
                         Transaction transaction) {
+                Coin coin = coinOf(transaction.getCoin());
                 return com.web.TradeApp.feature.history.dto.TransactionHistoryResponse.builder()
                                 .id(transaction.getId())
                                 .createdAt(transaction.getCreatedAt())
                                 .type(transaction.getType())
-                                .coinName(transaction.getCoin().getName())
-                                .coinSymbol(transaction.getCoin().getSymbol())
-                                .coinGeckoId(transaction.getCoin().getCoinGeckoId())
+                                .coinName(coin.getName())
+                                .coinSymbol(coin.getSymbol())
+                                .coinGeckoId(coin.getCoinGeckoId())
                                 .quantity(transaction.getQuantity())
                                 .priceAtExecution(transaction.getPriceAtExecution())
                                 .notionalValue(transaction.getNotionalValue())
@@ -151,6 +160,9 @@ public class HistoryServiceImpl implements HistoryService {
                 // Normalize empty string to null for consistent filtering
                 String normalizedCoinName = (coinName != null && coinName.trim().isEmpty()) ? null : coinName;
 
+                // Read through the trade journal: fills not flushed yet must not be missing
+                this.tradeJournal.flushIfPending(botSubId);
+
                 Page<BotTrade> pageBotTrades = this.botTradeRepository.findBotTrades(
                                 userId, botSubId, tradeType, normalizedCoinName, beginTime, endTime, pageable);
 
@@ -173,15 +185,16 @@ public class HistoryServiceImpl implements HistoryService {
         }
 
         private BotTradeHistoryResponse toBotTradeDto(BotTrade botTrade) {
+                Coin coin = coinOf(botTrade.getCoin());
                 return BotTradeHistoryResponse.builder()
                                 .id(botTrade.getId())
                                 .createdAt(botTrade.getCreatedAt())
                                 .type(botTrade.getType())
                                 .botName(botTrade.getBot().getName())
                                 // .botDescription(botTrade.getBot().getDescription())
-                                .coinName(botTrade.getCoin().getName())
-                                .coinSymbol(botTrade.getCoin().getSymbol())
-                                .coinGeckoId(botTrade.getCoin().getCoinGeckoId())
+                                .coinName(coin.getName())
+                                .coinSymbol(coin.getSymbol())
+                                .coinGeckoId(coin.getCoinGeckoId())
                                 .quantity(botTrade.getQuantity())
                                 .priceAtExecution(botTrade.getPriceAtExecution())
                                 .notionalValue(botTrade.getNotionalValue())
@@ -224,4 +237,11 @@ public class HistoryServiceImpl implements HistoryService {
                                 .build();
         }
 
+        /**
+         * Coin details come from the catalog; the trade only carries the (lazy)
+         * reference, so no coin row is fetched per history entry.
+         */
+        private Coin coinOf(Coin reference) {
+                return coinCatalog.findById(reference.getId()).orElse(reference);
+        }
 }
@@ -0,0 +1,157 @@
+package com.web.TradeApp.feature.ingestion;
+
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.ConcurrentLruCache;
+
+import com.web.TradeApp.feature.aibot.enums.BotStatus;
+import com.web.TradeApp.feature.aibot.model.Bot;
+import com.web.TradeApp.feature.aibot.repository.BotRepository;
+import com.web.TradeApp.feature.ingestion.event.BotCredentialsChangedEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded in-process cache of bot credentials keyed by webhook token.
+ *
+ * Signal authentication used to hit the {@code bots} table for every queue
+ * message. Entries here are loaded once and kept until the bot's credentials
+ * change ({@link BotCredentialsChangedEvent}) or the entry ages out. Unknown
+ * tokens are cached too (negative caching, short TTL) so a spammer posting
+ * random tokens cannot hammer the DB. They live in their own, smaller LRU so
+ * a flood of random tokens can only evict other unknown tokens, never a real
+ * bot's credentials.
+ */
+@Component
+@Slf4j
+public class BotCredentialCache {
+
+    private final BotRepository botRepository;
+    private final ConcurrentLruCache<String, BotCredential> cache;
+    // Unknown token -> System.nanoTime() deadline of the rejection
+    private final ConcurrentLruCache<String, Long> unknownTokens;
+
+    private final long positiveTtlNanos;
+    private final long negativeTtlNanos;
+
+    private final Counter hits;
+    private final Counter negativeHits;
+    private final Counter misses;
+
+    public BotCredentialCache(BotRepository botRepository,
+            MeterRegistry meterRegistry,
+            @Value("${ingestion.credential-cache.max-size:10000}") int maxSize,
+            @Value("${ingestion.credential-cache.negative-max-size:1000}") int negativeMaxSize,
+            @Value("${ingestion.credential-cache.ttl-seconds:600}") long ttlSeconds,
+            @Value("${ingestion.credential-cache.negative-ttl-seconds:60}") long negativeTtlSeconds) {
+        this.botRepository = botRepository;
+        this.positiveTtlNanos = ttlSeconds * 1_000_000_000L;
+        this.negativeTtlNanos = negativeTtlSeconds * 1_000_000_000L;
+        this.cache = new ConcurrentLruCache<>(maxSize, this::load);
+        long negativeTtl = this.negativeTtlNanos;
+        this.unknownTokens = new ConcurrentLruCache<>(negativeMaxSize, token -> System.nanoTime() + negativeTtl);
+
+        this.hits = Counter.builder("ingestion.bot_credentials.lookups")
+                .tag("result", "hit")
+                .description("Credential lookups served from memory")
+                .register(meterRegistry);
+        this.negativeHits = Counter.builder("ingestion.bot_credentials.lookups")
+                .tag("result", "negative_hit")
+                .description("Unknown tokens rejected from the negative cache")
+                .register(meterRegistry);
+        this.misses = Counter.builder("ingestion.bot_credentials.lookups")
+                .tag("result", "miss")
+                .description("Credential lookups that went to the bots table")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.bot_credentials.size", cache, ConcurrentLruCache::size)
+                .register(meterRegistry);
+        Gauge.builder("ingestion.bot_credentials.unknown_size", unknownTokens, ConcurrentLruCache::size)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Resolves a webhook token. Returns {@code null} when no bot owns the token.
+     */
+    public BotCredential lookup(String webhookToken) {
+        long now = System.nanoTime();
+        if (unknownTokens.contains(webhookToken)) {
+            if (now - unknownTokens.get(webhookToken) <= 0) {
+                negativeHits.increment();
+                return null;
+            }
+            unknownTokens.remove(webhookToken);
+        }
+
+        boolean cached = cache.contains(webhookToken);
+        try {
+            BotCredential credential = cache.get(webhookToken);
+            if (cached && credential.isExpired(now)) {
+                // Aged out: drop it and reload through the cache generator
+                cache.remove(webhookToken);
+                cached = false;
+                credential = cache.get(webhookToken);
+            }
+            if (cached) {
+                hits.increment();
+            }
+            return credential;
+        } catch (UnknownTokenException e) {
+            unknownTokens.get(webhookToken); // Starts the rejection window
+            return null;
+        }
+    }
+
+    public void invalidate(String webhookToken) {
+        if (webhookToken != null) {
+            cache.remove(webhookToken);
+            unknownTokens.remove(webhookToken);
+        }
+    }
+
+    /**
+     * Evict after the changing transaction commits, so a concurrent lookup can
+     * never re-cache the old row. Falls back to immediate execution when the
+     * change happens outside a transaction (e.g. createBot).
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onCredentialsChanged(BotCredentialsChangedEvent event) {
+        for (String token : event.getWebhookTokens()) {
+            invalidate(token);
+        }
+        log.debug("🔑 Bot credential cache invalidated for bot {}", event.getBotId());
+    }
+
+    // Throws instead of returning a marker so unknown tokens never take a slot in the credential cache
+    private BotCredential load(String webhookToken) {
+        misses.increment();
+        long now = System.nanoTime();
+        return botRepository.findByApiKey(webhookToken)
+                .map(bot -> new BotCredential(bot.getId(), bot.getApiSecret(), bot.getStatus(), bot,
+                        now + positiveTtlNanos))
+                .orElseThrow(UnknownTokenException::new);
+    }
+
+    /**
+     * Immutable view of what ingestion needs to authenticate a signal.
+     * {@code bot} is a detached entity used only as the FK of the saved signal.
+     */
+    public record BotCredential(UUID botId, String apiSecret, BotStatus status, Bot bot, long expiresAtNanos) {
+
+        boolean isExpired(long nowNanos) {
+            return nowNanos - expiresAtNanos > 0;
+        }
+    }
+
+    // Control flow only: no stack trace
+    private static final class UnknownTokenException extends RuntimeException {
+        private UnknownTokenException() {
+            super(null, null, false, false);
+        }
+    }
+}
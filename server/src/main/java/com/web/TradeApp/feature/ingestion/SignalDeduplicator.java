@@ -0,0 +1,141 @@
+package com.web.TradeApp.feature.ingestion;
+
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Bounded, time-windowed set of recently seen signal idempotency keys.
+ *
+ * Two generations of {@link ConcurrentHashMap}: lookups check both, inserts go
+ * to the current one, and every {@code window} (or once the current generation
+ * is full) the previous generation is dropped wholesale. A key is remembered for
+ * between one and two windows with O(1) work per signal and no per-entry
+ * timestamps. The window is kept above the 5 minute stale-message cutoff, so a
+ * redelivery old enough to have been forgotten here is rejected as stale anyway;
+ * the unique constraint on {@code bot_signals} is the final backstop.
+ *
+ * A key is first claimed ({@link #claim}), then either committed once its
+ * signal is persisted or released if persisting failed, so a failed attempt can
+ * be retried on redelivery.
+ */
+@Component
+@Slf4j
+public class SignalDeduplicator {
+
+    public enum Outcome {
+        /** First time seen: caller owns the key and must commit or release it */
+        CLAIMED,
+        /** Already persisted: safe to acknowledge and drop */
+        DUPLICATE,
+        /** Another worker is processing the same signal right now */
+        IN_FLIGHT
+    }
+
+    private enum State {
+        IN_FLIGHT, COMMITTED
+    }
+
+    private record SignalKey(UUID botId, String idempotencyKey) {
+    }
+
+    private final long windowNanos;
+    private final int maxEntriesPerGeneration;
+
+    private volatile ConcurrentHashMap<SignalKey, State> current = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<SignalKey, State> previous = new ConcurrentHashMap<>();
+    private volatile long currentStartedAtNanos = System.nanoTime();
+
+    private final Counter duplicates;
+    private final Counter inFlight;
+
+    public SignalDeduplicator(MeterRegistry meterRegistry,
+            @Value("${ingestion.dedup.window-seconds:600}") long windowSeconds,
+            @Value("${ingestion.dedup.max-entries:100000}") int maxEntries) {
+        this.windowNanos = windowSeconds * 1_000_000_000L;
+        this.maxEntriesPerGeneration = Math.max(1, maxEntries / 2);
+
+        this.duplicates = Counter.builder("ingestion.signals.duplicates")
+                .description("Redelivered signals dropped before fan-out")
+                .register(meterRegistry);
+        this.inFlight = Counter.builder("ingestion.signals.in_flight_redeliveries")
+                .description("Redeliveries seen while the original was still being processed")
+                .register(meterRegistry);
+        Gauge.builder("ingestion.signals.dedup.size", this, SignalDeduplicator::size)
+                .register(meterRegistry);
+    }
+
+    public Outcome claim(UUID botId, String idempotencyKey) {
+        rotateIfDue();
+        SignalKey key = new SignalKey(botId, idempotencyKey);
+
+        // Current generation first: a key claimed before a rotation is committed there
+        State seen = current.get(key);
+        if (seen == null) {
+            seen = previous.get(key);
+        }
+        if (seen == null) {
+            seen = current.putIfAbsent(key, State.IN_FLIGHT);
+            if (seen == null) {
+                return Outcome.CLAIMED;
+            }
+        }
+        if (seen == State.COMMITTED) {
+            duplicates.increment();
+            return Outcome.DUPLICATE;
+        }
+        inFlight.increment();
+        return Outcome.IN_FLIGHT;
+    }
+
+    /**
+     * The signal is persisted; later deliveries are duplicates.
+     */
+    public void commit(UUID botId, String idempotencyKey) {
+        current.put(new SignalKey(botId, idempotencyKey), State.COMMITTED);
+    }
+
+    /**
+     * Persisting failed; let a redelivery try again.
+     */
+    public void release(UUID botId, String idempotencyKey) {
+        SignalKey key = new SignalKey(botId, idempotencyKey);
+        current.remove(key, State.IN_FLIGHT);
+        previous.remove(key, State.IN_FLIGHT);
+    }
+
+    /**
+     * Counts a duplicate caught by the database constraint rather than in memory.
+     */
+    public void recordDuplicate() {
+        duplicates.increment();
+    }
+
+    private void rotateIfDue() {
+        long now = System.nanoTime();
+        if (now - currentStartedAtNanos < windowNanos && current.size() < maxEntriesPerGeneration) {
+            return;
+        }
+        synchronized (this) {
+            // Re-check: another worker may have rotated while we waited
+            if (now - currentStartedAtNanos < windowNanos && current.size() < maxEntriesPerGeneration) {
+                return;
+            }
+            previous = current;
+            current = new ConcurrentHashMap<>();
+            currentStartedAtNanos = now;
+        }
+        log.debug("🔁 Signal dedup window rotated");
+    }
+
+    private double size() {
+        return current.size() + previous.size();
+    }
+}
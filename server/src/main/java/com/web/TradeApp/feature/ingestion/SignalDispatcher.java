@@ -0,0 +1,176 @@
+package com.web.TradeApp.feature.ingestion;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import com.web.TradeApp.feature.aibot.enums.SignalStatus;
+import com.web.TradeApp.feature.aibot.model.BotSignal;
+import com.web.TradeApp.feature.aibot.repository.BotSignalRepository;
+import com.web.TradeApp.feature.aibot.service.subscription.BotSubscriptionService;
+import com.web.TradeApp.feature.ingestion.event.SignalReceivedEvent;
+import com.web.TradeApp.utils.KeyedSerialExecutor;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Hands persisted signals to the fan-out, partitioned by bot.
+ *
+ * Signals of one bot are fanned out strictly in the order they were received
+ * (a SELL can never overtake its BUY); different bots run in parallel on their
+ * own lanes. Handing a signal over never blocks the ingestion worker: when a
+ * bot's lane is full the signal stays PENDING and the bot is marked
+ * backlogged. Later signals of that bot stay PENDING too, so none of them
+ * overtakes the first one left behind, until {@link #resumeBacklogs} (run by
+ * {@link SignalRecoverySweep}) re-queues them from the table in receive order.
+ * Other bots are not affected.
+ *
+ * The backlog check, the hand-over and marking the bot backlogged happen under
+ * one monitor per bot, so a later signal cannot slip into the lane between an
+ * overflow and the mark.
+ */
+@Component
+@Slf4j
+public class SignalDispatcher {
+
+    private static final Set<SignalStatus> UNFINISHED = EnumSet.of(SignalStatus.PENDING, SignalStatus.PROCESSING);
+
+    private final BotSubscriptionService botSubscriptionService;
+    private final BotSignalRepository botSignalRepository;
+    private final KeyedSerialExecutor<UUID> lanes;
+
+    // Signals queued or running on a lane of this node
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+    // Bots whose lane overflowed; their signals wait in the table for resumeBacklogs()
+    private final Set<UUID> backlogged = ConcurrentHashMap.newKeySet();
+    // One monitor per bot, guarding its entry in backlogged and its hand-overs
+    private final ConcurrentHashMap<UUID, Object> botLocks = new ConcurrentHashMap<>();
+
+    public SignalDispatcher(BotSubscriptionService botSubscriptionService,
+            BotSignalRepository botSignalRepository,
+            MeterRegistry meterRegistry,
+            @Value("${ingestion.dispatch.lane-capacity:1000}") int laneCapacity) {
+        this.botSubscriptionService = botSubscriptionService;
+        this.botSignalRepository = botSignalRepository;
+        this.lanes = new KeyedSerialExecutor<>("ingestion.dispatch", laneCapacity, meterRegistry);
+
+        Gauge.builder("ingestion.dispatch.backlogged_bots", backlogged, Set::size)
+                .description("Bots whose signals wait in the table for a free lane slot")
+                .register(meterRegistry);
+    }
+
+    @EventListener
+    public void onSignalReceived(SignalReceivedEvent event) {
+        dispatch(event.getSignal());
+    }
+
+    /**
+     * Queues a signal on its bot's lane, or leaves it PENDING behind the bot's
+     * backlog. Also used by the recovery sweep (signal must carry its bot).
+     */
+    public void dispatch(BotSignal signal) {
+        UUID botId = signal.getBot().getId();
+        synchronized (lockOf(botId)) {
+            if (backlogged.contains(botId)) {
+                log.debug("Bot {} is backlogged; signal {} left PENDING", signal.getBot().getName(),
+                        signal.getId());
+                return;
+            }
+            if (enqueue(signal)) {
+                return;
+            }
+        }
+        log.warn("🚦 Dispatch lane full for Bot {} ({} queued). Signal {} left PENDING for the sweep.",
+                signal.getBot().getName(), lanes.depth(botId), signal.getId());
+    }
+
+    /**
+     * Re-queues the PENDING / PROCESSING signals of backlogged bots, oldest
+     * first. A bot stays backlogged until all of its waiting signals fit in its
+     * lane.
+     */
+    public void resumeBacklogs() {
+        for (UUID botId : backlogged) {
+            // Holding the bot's lock: a live signal either is already in the table
+            // (and is queued here, in order) or waits and is queued after these
+            synchronized (lockOf(botId)) {
+                List<BotSignal> waiting = botSignalRepository.findUnfinishedByBot(botId, UNFINISHED);
+                int queued = 0;
+                for (BotSignal signal : waiting) {
+                    if (!inFlight.contains(signal.getId()) && !enqueue(signal)) {
+                        break;
+                    }
+                    queued++;
+                }
+                if (queued < waiting.size()) {
+                    log.info("🚦 Bot {} still backlogged: {} of {} waiting signals queued", botId, queued,
+                            waiting.size());
+                    continue;
+                }
+                backlogged.remove(botId);
+            }
+            log.info("🚦 Backlog of bot {} re-queued", botId);
+        }
+    }
+
+    public boolean isInFlight(UUID signalId) {
+        return inFlight.contains(signalId);
+    }
+
+    public boolean isBacklogged(UUID botId) {
+        return backlogged.contains(botId);
+    }
+
+    /**
+     * Queues other work that trades for a bot's subscribers (e.g. a fired
+     * stop-loss) on the bot's lane, so it never runs concurrently with one of
+     * its fan-outs. Never blocks; returns {@code false} when the lane is full.
+     */
+    public boolean runOnLane(UUID botId, Runnable task) {
+        return lanes.offer(botId, task);
+    }
+
+    @PreDestroy
+    public void stop() {
+        lanes.shutdown(30, TimeUnit.SECONDS);
+    }
+
+    private Object lockOf(UUID botId) {
+        return botLocks.computeIfAbsent(botId, id -> new Object());
+    }
+
+    /**
+     * Caller holds the bot's lock. A signal already queued on this node counts
+     * as queued; one that does not fit marks the bot backlogged before it
+     * leaves {@code inFlight}, so the sweep never sees it as neither.
+     */
+    private boolean enqueue(BotSignal signal) {
+        UUID signalId = signal.getId();
+        if (!inFlight.add(signalId)) {
+            return true;
+        }
+        // Called through the proxy so the fan-out runs in its own transaction
+        boolean queued = lanes.offer(signal.getBot().getId(), () -> {
+            try {
+                botSubscriptionService.processSubscriptions(signal);
+            } finally {
+                inFlight.remove(signalId);
+            }
+        });
+        if (!queued) {
+            backlogged.add(signal.getBot().getId());
+            inFlight.remove(signalId);
+        }
+        return queued;
+    }
+}
@@ -0,0 +1,127 @@
+package com.web.TradeApp.feature.ingestion;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.web.TradeApp.feature.aibot.enums.SignalStatus;
+import com.web.TradeApp.feature.aibot.model.BotSignal;
+import com.web.TradeApp.feature.aibot.repository.BotSignalRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Finishes fan-outs that a previous run of the application left behind.
+ *
+ * Dispatch is in memory, so signals that were PENDING (never started) or
+ * PROCESSING (stopped mid fan-out) at shutdown would otherwise never reach
+ * their remaining subscribers. On startup those signals are re-dispatched on
+ * their bot's lane in receive order and resume from their recorded cursor.
+ * Signals older than {@code max-age-minutes} are marked EXPIRED instead:
+ * copying a trade at a price that old would do more harm than skipping it.
+ *
+ * The same happens periodically while running, for signals that no lane of
+ * this node holds any more after {@code stall-after-minutes} (a fan-out that
+ * gave up after its in-place retries). Such a signal may then run after
+ * later signals of its bot; it still reaches the subscribers it missed.
+ *
+ * While running, it also re-queues the signals that a full dispatch lane left
+ * PENDING ({@link SignalDispatcher#resumeBacklogs}).
+ */
+@Component
+@Slf4j
+public class SignalRecoverySweep {
+
+    private static final Set<SignalStatus> UNFINISHED = EnumSet.of(SignalStatus.PENDING, SignalStatus.PROCESSING);
+
+    private final BotSignalRepository signalRepository;
+    private final SignalDispatcher dispatcher;
+    private final Duration maxAge;
+    private final Duration stallAfter;
+
+    // Anything received from now on belongs to this run and is dispatched normally
+    private final Instant bootTime = Instant.now();
+
+    public SignalRecoverySweep(BotSignalRepository signalRepository,
+            SignalDispatcher dispatcher,
+            @Value("${bot.fanout.recovery.max-age-minutes:30}") long maxAgeMinutes,
+            @Value("${bot.fanout.recovery.stall-after-minutes:2}") long stallAfterMinutes) {
+        this.signalRepository = signalRepository;
+        this.dispatcher = dispatcher;
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+        this.stallAfter = Duration.ofMinutes(stallAfterMinutes);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recover() {
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(maxAge).isBefore(bootTime) ? now.minus(maxAge) : bootTime;
+
+        int expired = signalRepository.expireUnfinished(UNFINISHED, cutoff,
+                "Not fanned out before restart (older than " + maxAge.toMinutes() + " min)", now);
+        if (expired > 0) {
+            log.warn("⌛ Expired {} unfinished signals from before {}", expired, cutoff);
+        }
+
+        List<BotSignal> pending = signalRepository.findUnfinished(UNFINISHED, cutoff, bootTime);
+        for (BotSignal signal : pending) {
+            log.info("♻️ Resuming signal {} for Bot {} ({}, cursor {})", signal.getId(), signal.getBot().getName(),
+                    signal.getStatus(), signal.getFanoutCursor());
+            dispatcher.dispatch(signal);
+        }
+        if (!pending.isEmpty()) {
+            log.info("♻️ Recovery sweep re-dispatched {} signals", pending.size());
+        }
+    }
+
+    /**
+     * Re-dispatches unfinished signals that nothing on this node is working
+     * on, and expires the ones that got too old meanwhile.
+     */
+    @Scheduled(initialDelayString = "${bot.fanout.recovery.sweep-interval-ms:60000}",
+            fixedDelayString = "${bot.fanout.recovery.sweep-interval-ms:60000}")
+    public void resumeStalled() {
+        Instant now = Instant.now();
+        Instant cutoff = now.minus(maxAge);
+
+        int expired = 0;
+        for (BotSignal signal : signalRepository.findUnfinished(UNFINISHED, Instant.EPOCH, cutoff)) {
+            if (!dispatcher.isInFlight(signal.getId())) {
+                signalRepository.finish(signal.getId(), SignalStatus.EXPIRED,
+                        "Not fanned out within " + maxAge.toMinutes() + " min", now);
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.warn("⌛ Expired {} stalled signals older than {}", expired, cutoff);
+        }
+
+        int resumed = 0;
+        for (BotSignal signal : signalRepository.findUnfinished(UNFINISHED, cutoff, now.minus(stallAfter))) {
+            // Queued or running here, or waiting behind its bot's backlog: not stalled
+            if (dispatcher.isInFlight(signal.getId()) || dispatcher.isBacklogged(signal.getBot().getId())) {
+                continue;
+            }
+            log.info("♻️ Resuming stalled signal {} for Bot {} ({}, cursor {})", signal.getId(),
+                    signal.getBot().getName(), signal.getStatus(), signal.getFanoutCursor());
+            dispatcher.dispatch(signal);
+            resumed++;
+        }
+        if (resumed > 0) {
+            log.info("♻️ Recovery sweep re-dispatched {} stalled signals", resumed);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${ingestion.dispatch.backlog-sweep-interval-ms:5000}")
+    public void resumeBacklogs() {
+        dispatcher.resumeBacklogs();
+    }
+}
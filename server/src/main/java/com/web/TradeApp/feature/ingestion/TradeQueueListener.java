@@ -1,175 +1,341 @@
 package com.web.TradeApp.feature.ingestion;
 
-import com.azure.storage.queue.QueueClient;
-import com.azure.storage.queue.models.QueueMessageItem;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.web.TradeApp.feature.aibot.enums.BotAction;
+import com.web.TradeApp.feature.aibot.enums.BotStatus;
 import com.web.TradeApp.feature.aibot.model.Bot;
 import com.web.TradeApp.feature.aibot.model.BotSignal;
-import com.web.TradeApp.feature.aibot.repository.BotRepository;
 import com.web.TradeApp.feature.aibot.repository.BotSignalRepository;
 import com.web.TradeApp.feature.ingestion.event.SignalReceivedEvent;
+import com.web.TradeApp.feature.ingestion.source.ReceivedSignal;
+import com.web.TradeApp.feature.ingestion.source.SignalSource;
 
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationEventPublisher;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
 
-import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Base64;
-
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Continuous consumer for trade signals.
+ *
+ * A fixed number of worker threads run a drain loop against the configured
+ * {@link SignalSource} (Azure queue, in-process buffer or local webhook); idle
+ * waiting is left to the source. A received batch is validated in memory, all accepted
+ * {@link BotSignal} rows are written with one JDBC batch insert, then events are
+ * published and the messages acknowledged in parallel on virtual threads. A
+ * failure on one message only keeps that message visible for redelivery.
+ * Redeliveries of an already stored signal are dropped before the event is
+ * published ({@link SignalDeduplicator}, backed by a unique constraint).
+ */
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class TradeQueueListener {
 
-    private final BotRepository botRepository;
+    private final BotCredentialCache credentialCache;
+    private final SignalDeduplicator deduplicator;
     private final BotSignalRepository botSignalRepository;
     private final ObjectMapper objectMapper;
-    private final QueueClient queueClient;
+    private final SignalSource signalSource;
     private final ApplicationEventPublisher eventPublisher;
+    private final PlatformTransactionManager transactionManager;
 
-    // Poll every 2 seconds
-    @Scheduled(fixedDelay = 2000)
-    @Transactional
-    public void processMessages() {
-        try {
-            // 1. RECEIVE: Get up to 5 messages at once
-            // Visibility timeout: 30s (locks message so others don't process it)
-            for (QueueMessageItem message : queueClient.receiveMessages(5, Duration.ofSeconds(30),
-                    Duration.ofSeconds(5), null)) {
-                handleSingleMessage(message);
+    @Value("${ingestion.queue.workers:2}")
+    private int workerCount;
+
+    @Value("${ingestion.poll-wait-ms:1000}")
+    private long pollWaitMs;
+
+    @Value("${ingestion.error-backoff-ms:2000}")
+    private long errorBackoffMs;
+
+    private static final int MAX_IDEMPOTENCY_KEY_LENGTH = 100; // bot_signals.idempotency_key
+
+    private volatile boolean running;
+    private final List<Thread> workers = new ArrayList<>();
+    private ExecutorService messageExecutor;
+    private TransactionTemplate txTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        txTemplate = new TransactionTemplate(transactionManager);
+        // REQUIRES_NEW: one short, independent transaction per received batch
+        txTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        messageExecutor = Executors.newVirtualThreadPerTaskExecutor();
+        running = true;
+
+        int count = Math.max(1, workerCount);
+        for (int i = 0; i < count; i++) {
+            Thread worker = Thread.ofPlatform()
+                    .name("trade-signal-worker-" + i)
+                    .daemon(true)
+                    .start(this::drainLoop);
+            workers.add(worker);
+        }
+        log.info("📥 Trade signal consumer started: source={}, {} workers, {} signals per receive",
+                signalSource.name(), count, signalSource.maxBatchSize());
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        for (Thread worker : workers) {
+            worker.interrupt();
+        }
+        if (messageExecutor != null) {
+            messageExecutor.shutdown();
+            try {
+                messageExecutor.awaitTermination(30, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
             }
-        } catch (Exception e) {
-            // Log connection errors (e.g. internet down) but don't crash app
-            log.error("Error polling Azure Queue: {}", e.getMessage());
         }
     }
 
-    private void handleSingleMessage(QueueMessageItem message) {
-        try {
-            // Robust decoding: Handle both Plain JSON and Base64 encoded JSON
-            String messageBody = getDecodedMessageBody(message);
-
-            log.debug("Processing Message ID: {}", message.getMessageId());
-
-            // 2. PARSE JSON
-            // We parse your specific structure: { "webhookToken": "...", "payload": {
-            // "secret_key": "..." } }
-            JsonNode rootNode = objectMapper.readTree(messageBody);
-
-            // 2.1 TIMESTAMP VALIDATION: Check if message is older than 5 minutes
-            long receivedAt = rootNode.path("receivedAt").asLong(0);
-            if (receivedAt > 0) {
-                long currentTimeMillis = System.currentTimeMillis();
-                long ageInMillis = currentTimeMillis - receivedAt;
-                long fiveMinutesInMillis = 5 * 60 * 1000; // 5 minutes in milliseconds
-
-                if (ageInMillis > fiveMinutesInMillis) {
-                    log.warn("⏰ STALE MESSAGE: Message is {} minutes old. Discarding. Msg ID: {}",
-                            ageInMillis / 60000, message.getMessageId());
-                    deleteMessage(message); // Remove stale message
+    /**
+     * Worker loop: receive a full batch, persist and acknowledge it, repeat.
+     * The batch is finished before the next receive so we never hold messages
+     * past their visibility timeout.
+     */
+    private void drainLoop() {
+        Duration pollWait = Duration.ofMillis(pollWaitMs);
+
+        while (running) {
+            try {
+                pollOnce(pollWait);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                // Log connection errors (e.g. internet down) but don't crash the worker
+                log.error("Error polling signal source {}: {}", signalSource.name(), e.getMessage());
+                try {
+                    Thread.sleep(errorBackoffMs);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
                     return;
                 }
-            } else {
-                log.warn("⚠️ MISSING TIMESTAMP: receivedAt field not found. Msg ID: {}", message.getMessageId());
-                // Continue processing if no timestamp (for backward compatibility)
             }
+        }
+    }
 
-            // Extract Credentials
-            String incomingToken = rootNode.path("webhookToken").asText(null);
-            JsonNode payloadNode = rootNode.path("payload");
-            String incomingSecret = payloadNode.path("secret_key").asText(null);
+    /**
+     * Receives one batch and processes it. Returns the number of messages received.
+     */
+    private int pollOnce(Duration pollWait) throws InterruptedException {
+        List<ReceivedSignal> batch = signalSource.receive(signalSource.maxBatchSize(), pollWait);
 
-            // 2.2 ACTION VALIDATION: Check if action is ERROR
-            String actionStr = payloadNode.path("action").asText("").toUpperCase();
-            if ("ERROR".equals(actionStr)) {
-                log.warn("⚠️ ERROR ACTION: Ignoring message with ERROR action. Msg ID: {}", message.getMessageId());
-                deleteMessage(message); // Remove ERROR messages
-                return;
-            }
+        if (batch.isEmpty()) {
+            return 0;
+        }
 
-            // Validate action is LONG or SHORT
-            if (!"LONG".equals(actionStr) && !"SHORT".equals(actionStr)) {
-                log.warn("⚠️ INVALID ACTION: Unknown action '{}'. Expected LONG or SHORT. Msg ID: {}",
-                        actionStr, message.getMessageId());
-                deleteMessage(message); // Remove invalid action messages
-                return;
-            }
+        // 1. VALIDATE: parse + authenticate in memory (no DB on the hot path)
+        List<PendingSignal> accepted = new ArrayList<>(batch.size());
+        List<ReceivedSignal> discarded = new ArrayList<>();
+        for (ReceivedSignal message : batch) {
+            try {
+                BotSignal signal = parseMessage(message);
+                if (signal == null) {
+                    discarded.add(message); // Invalid / stale / unauthorized: remove it
+                    continue;
+                }
 
-            // 3. VALIDATION
-            if (incomingToken == null || incomingSecret == null) {
-                log.warn("⚠️ MALFORMED: Missing token or secret. Msg ID: {}", message.getMessageId());
-                deleteMessage(message); // Remove invalid garbage
-                return;
+                switch (deduplicator.claim(signal.getBot().getId(), signal.getIdempotencyKey())) {
+                    case CLAIMED -> accepted.add(new PendingSignal(message, signal));
+                    case DUPLICATE -> {
+                        log.info("♻️ DUPLICATE: Signal {} already processed. Msg ID: {}",
+                                signal.getIdempotencyKey(), message.id());
+                        discarded.add(message);
+                    }
+                    // Original still being processed by another worker: leave this copy visible
+                    case IN_FLIGHT -> log.debug("Signal {} in flight elsewhere, skipping. Msg ID: {}",
+                            signal.getIdempotencyKey(), message.id());
+                }
+            } catch (Exception e) {
+                // Do NOT delete. Azure will make it visible again after the timeout for retry.
+                log.error("Failed to process message ID: " + message.id(), e);
             }
+        }
 
-            // Find the Bot by Public Key (webhookToken)
-            Bot bot = botRepository.findByApiKey(incomingToken).orElse(null);
+        // 2. PERSIST: one batch insert for the whole receive
+        List<PendingSignal> saved = persistBatch(accepted, discarded);
 
-            if (bot == null) {
-                log.warn("⛔ UNKNOWN BOT: Token {}", incomingToken);
-                deleteMessage(message); // Unknown user, remove it
-                return;
-            }
+        // 3. PUBLISH in receive order (keeps per-bot ordering), ACK in parallel
+        List<Future<?>> acks = new ArrayList<>(saved.size() + discarded.size());
+        for (PendingSignal pending : saved) {
+            eventPublisher.publishEvent(new SignalReceivedEvent(this, pending.signal()));
+            acks.add(messageExecutor.submit(() -> deleteMessage(pending.message())));
+        }
+        for (ReceivedSignal message : discarded) {
+            acks.add(messageExecutor.submit(() -> deleteMessage(message)));
+        }
 
-            // Secure Password Check (Prevents Timing Attacks)
-            if (!isSecretValid(bot.getApiSecret(), incomingSecret)) {
-                log.error("🚨 SECURITY: Invalid Secret for Bot: {}", bot.getName());
-                deleteMessage(message); // Bad password, remove it
-                return;
+        for (Future<?> ack : acks) {
+            try {
+                ack.get();
+            } catch (ExecutionException e) {
+                log.warn("Unexpected error while acknowledging queue message: {}", e.getCause().getMessage());
             }
+        }
+        return batch.size();
+    }
 
-            // 4. SUCCESS: SAVE TO DB
-            saveBotSignal(bot, payloadNode, messageBody);
-
-            // log.info("✅ Signal saved for Bot: {}", bot.getName());
-
-            // 5. DELETE FROM QUEUE (Commit)
-            deleteMessage(message);
+    /**
+     * Writes all accepted signals in one transaction (Hibernate JDBC batching, see
+     * hibernate.jdbc.batch_size). If the batch fails, falls back to one insert per
+     * signal so a single bad row only keeps its own message visible. Rows rejected
+     * by the idempotency constraint are duplicates: they go to {@code discarded}
+     * to be acknowledged without publishing.
+     */
+    private List<PendingSignal> persistBatch(List<PendingSignal> accepted, List<ReceivedSignal> discarded) {
+        if (accepted.isEmpty()) {
+            return accepted;
+        }
 
+        try {
+            txTemplate.executeWithoutResult(status -> botSignalRepository
+                    .saveAll(accepted.stream().map(PendingSignal::signal).toList()));
+            accepted.forEach(this::markCommitted);
+            return accepted;
         } catch (Exception e) {
-            log.error("Failed to process message ID: " + message.getMessageId(), e);
-            // Do NOT delete. Azure will make it visible again after 30s for retry.
-            deleteMessage(message);
+            log.warn("⚠️ Batch insert of {} signals failed, retrying one by one: {}", accepted.size(),
+                    e.getMessage());
+        }
+
+        List<PendingSignal> saved = new ArrayList<>(accepted.size());
+        for (PendingSignal pending : accepted) {
+            BotSignal signal = pending.signal();
+            try {
+                signal.setId(null); // Id was assigned by the rolled-back persist
+                txTemplate.executeWithoutResult(status -> botSignalRepository.save(signal));
+                markCommitted(pending);
+                saved.add(pending);
+            } catch (DataIntegrityViolationException e) {
+                log.info("♻️ DUPLICATE: Signal {} already stored. Msg ID: {}", signal.getIdempotencyKey(),
+                        pending.message().id());
+                deduplicator.recordDuplicate();
+                markCommitted(pending);
+                discarded.add(pending.message());
+            } catch (Exception e) {
+                log.error("Failed to save signal for message ID: {} | {}", pending.message().id(),
+                        e.getMessage());
+                deduplicator.release(signal.getBot().getId(), signal.getIdempotencyKey());
+            }
         }
+        return saved;
+    }
+
+    private void markCommitted(PendingSignal pending) {
+        deduplicator.commit(pending.signal().getBot().getId(), pending.signal().getIdempotencyKey());
     }
 
     /**
-     * Safely extracts message body, handling Base64 if necessary.
+     * Validates and authenticates one message and maps it to an unsaved
+     * {@link BotSignal}. Returns {@code null} when the message should be dropped
+     * from the queue; throws when it should stay visible for a retry.
      */
-    private String getDecodedMessageBody(QueueMessageItem message) {
-        String body = message.getBody().toString();
+    private BotSignal parseMessage(ReceivedSignal message) throws Exception {
+        String messageBody = message.body();
+
+        log.debug("Processing Message ID: {}", message.id());
+
+        // 2. PARSE JSON
+        // We parse your specific structure: { "webhookToken": "...", "payload": {
+        // "secret_key": "..." } }
+        JsonNode rootNode = objectMapper.readTree(messageBody);
+
+        // 2.1 TIMESTAMP VALIDATION: Check if message is older than 5 minutes
+        long receivedAt = rootNode.path("receivedAt").asLong(0);
+        if (receivedAt > 0) {
+            long currentTimeMillis = System.currentTimeMillis();
+            long ageInMillis = currentTimeMillis - receivedAt;
+            long fiveMinutesInMillis = 5 * 60 * 1000; // 5 minutes in milliseconds
+
+            if (ageInMillis > fiveMinutesInMillis) {
+                log.warn("⏰ STALE MESSAGE: Message is {} minutes old. Discarding. Msg ID: {}",
+                        ageInMillis / 60000, message.id());
+                return null; // Drop stale message
+            }
+        } else {
+            log.warn("⚠️ MISSING TIMESTAMP: receivedAt field not found. Msg ID: {}", message.id());
+            // Continue processing if no timestamp (for backward compatibility)
+        }
 
-        // If it looks like JSON (starts with {), return as is.
-        if (body.trim().startsWith("{")) {
-            return body;
+        // Extract Credentials
+        String incomingToken = rootNode.path("webhookToken").asText(null);
+        JsonNode payloadNode = rootNode.path("payload");
+        String incomingSecret = payloadNode.path("secret_key").asText(null);
+
+        // 2.2 ACTION VALIDATION: Check if action is ERROR
+        String actionStr = payloadNode.path("action").asText("").toUpperCase();
+        if ("ERROR".equals(actionStr)) {
+            log.warn("⚠️ ERROR ACTION: Ignoring message with ERROR action. Msg ID: {}", message.id());
+            return null; // Drop ERROR messages
         }
 
-        // Otherwise, try to decode from Base64
-        try {
-            byte[] decodedBytes = Base64.getDecoder().decode(body);
-            String decodedString = new String(decodedBytes, StandardCharsets.UTF_8);
-            // Sanity check: Does the decoded string look like JSON?
-            if (decodedString.trim().startsWith("{")) {
-                return decodedString;
-            }
-            return body; // Fallback to original if decoding didn't yield JSON
-        } catch (IllegalArgumentException e) {
-            // Not Base64, return original string (might fail JSON parsing later, but that's
-            // handled)
-            return body;
+        // Validate action is LONG or SHORT
+        if (!"LONG".equals(actionStr) && !"SHORT".equals(actionStr)) {
+            log.warn("⚠️ INVALID ACTION: Unknown action '{}'. Expected LONG or SHORT. Msg ID: {}",
+                    actionStr, message.id());
+            return null; // Drop invalid action messages
+        }
+
+        // 3. VALIDATION
+        if (incomingToken == null || incomingSecret == null) {
+            log.warn("⚠️ MALFORMED: Missing token or secret. Msg ID: {}", message.id());
+            return null; // Drop invalid garbage
+        }
+
+        // Find the Bot by Public Key (webhookToken) - served from memory, no DB hit
+        BotCredentialCache.BotCredential credential = credentialCache.lookup(incomingToken);
+
+        if (credential == null) {
+            log.warn("⛔ UNKNOWN BOT: Token {}", incomingToken);
+            return null; // Unknown user, drop it
+        }
+
+        Bot bot = credential.bot();
+
+        // Secure Password Check (Prevents Timing Attacks)
+        if (!isSecretValid(credential.apiSecret(), incomingSecret)) {
+            log.error("🚨 SECURITY: Invalid Secret for Bot: {}", bot.getName());
+            return null; // Bad password, drop it
         }
+
+        if (credential.status() == BotStatus.PAUSED) {
+            log.info("⏸️ PAUSED BOT: Ignoring signal for Bot: {}", bot.getName());
+            return null;
+        }
+
+        // 4. SUCCESS: map to entity; persisted with the rest of the batch
+        BotSignal signal = buildBotSignal(bot, payloadNode, messageBody);
+        signal.setIdempotencyKey(resolveIdempotencyKey(rootNode, message));
+        return signal;
     }
 
-    private void saveBotSignal(Bot bot, JsonNode payload, String rawJson) {
+    private BotSignal buildBotSignal(Bot bot, JsonNode payload, String rawJson) {
         BotSignal signal = new BotSignal();
         signal.setBot(bot);
 
@@ -214,10 +380,19 @@ public class TradeQueueListener {
             signal.setErrorMessage("Unknown action: " + actionStr);
         }
 
-        BotSignal savedSignal = botSignalRepository.save(signal);
+        return signal;
+    }
 
-        // log.info("✅ Signal saved. Publishing event for Bot: {}", bot.getName());
-        eventPublisher.publishEvent(new SignalReceivedEvent(this, savedSignal));
+    /**
+     * Key stamped by the webhook; older messages without one fall back to the
+     * transport message id, which is stable across redeliveries.
+     */
+    private String resolveIdempotencyKey(JsonNode rootNode, ReceivedSignal message) {
+        String key = rootNode.path("idempotencyKey").asText("");
+        if (key.isBlank() || key.length() > MAX_IDEMPOTENCY_KEY_LENGTH) {
+            return message.id();
+        }
+        return key;
     }
 
     /**
@@ -231,11 +406,10 @@ public class TradeQueueListener {
         return MessageDigest.isEqual(storedSecret.getBytes(), incomingSecret.getBytes());
     }
 
-    private void deleteMessage(QueueMessageItem message) {
-        try {
-            queueClient.deleteMessage(message.getMessageId(), message.getPopReceipt());
-        } catch (Exception e) {
-            log.warn("Failed to delete message (might already be deleted): {}", e.getMessage());
-        }
+    private record PendingSignal(ReceivedSignal message, BotSignal signal) {
+    }
+
+    private void deleteMessage(ReceivedSignal message) {
+        signalSource.acknowledge(message);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,23 @@
+package com.web.TradeApp.feature.ingestion.event;
+
+import java.util.List;
+import java.util.UUID;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published whenever a bot's webhook token, secret or status may have changed,
+ * so cached credentials for those tokens are dropped.
+ */
+@Getter
+public class BotCredentialsChangedEvent extends ApplicationEvent {
+    private final UUID botId;
+    private final List<String> webhookTokens;
+
+    public BotCredentialsChangedEvent(Object source, UUID botId, List<String> webhookTokens) {
+        super(source);
+        this.botId = botId;
+        this.webhookTokens = webhookTokens;
+    }
+}
@@ -0,0 +1,120 @@
+package com.web.TradeApp.feature.ingestion.source;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.azure.storage.queue.QueueClient;
+import com.azure.storage.queue.models.QueueMessageItem;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Default source: the {@code trade-signals} Azure Storage Queue filled by
+ * {@code com.trading.WebhookReceiver}.
+ *
+ * Azure has no long polling, so an empty receive sleeps with an exponential
+ * backoff that resets as soon as a receive returns messages. Unacknowledged
+ * messages reappear after the visibility timeout.
+ */
+@Component
+@ConditionalOnProperty(name = "ingestion.source", havingValue = "azure", matchIfMissing = true)
+@Slf4j
+public class AzureQueueSignalSource implements SignalSource {
+
+    private final QueueClient queueClient;
+    private final int maxMessages;
+    private final int visibilityTimeoutSeconds;
+    private final long idleBackoffMinMs;
+    private final long idleBackoffMaxMs;
+
+    // Shared by all workers: an empty receive on any worker means the queue is empty
+    private volatile long idleBackoffMs;
+
+    public AzureQueueSignalSource(QueueClient queueClient,
+            @Value("${ingestion.queue.max-messages:32}") int maxMessages,
+            @Value("${ingestion.queue.visibility-timeout-seconds:30}") int visibilityTimeoutSeconds,
+            @Value("${ingestion.queue.idle-backoff-min-ms:50}") long idleBackoffMinMs,
+            @Value("${ingestion.queue.idle-backoff-max-ms:2000}") long idleBackoffMaxMs) {
+        this.queueClient = queueClient;
+        this.maxMessages = maxMessages;
+        this.visibilityTimeoutSeconds = visibilityTimeoutSeconds;
+        this.idleBackoffMinMs = idleBackoffMinMs;
+        this.idleBackoffMaxMs = idleBackoffMaxMs;
+        this.idleBackoffMs = idleBackoffMinMs;
+    }
+
+    @Override
+    public List<ReceivedSignal> receive(int maxSignals, Duration maxWait) throws InterruptedException {
+        List<ReceivedSignal> batch = new ArrayList<>(maxSignals);
+        // Visibility timeout locks the messages so other workers don't pick them up
+        for (QueueMessageItem message : queueClient.receiveMessages(maxSignals,
+                Duration.ofSeconds(visibilityTimeoutSeconds), Duration.ofSeconds(5), null)) {
+            batch.add(new ReceivedSignal(message.getMessageId(), getDecodedMessageBody(message),
+                    message.getPopReceipt()));
+        }
+
+        if (!batch.isEmpty()) {
+            idleBackoffMs = idleBackoffMinMs; // Queue has work: keep draining without pause
+            return batch;
+        }
+
+        long backoffMs = idleBackoffMs;
+        Thread.sleep(Math.min(backoffMs, maxWait.toMillis()));
+        idleBackoffMs = Math.min(backoffMs * 2, idleBackoffMaxMs);
+        return batch;
+    }
+
+    @Override
+    public void acknowledge(ReceivedSignal signal) {
+        try {
+            queueClient.deleteMessage(signal.id(), signal.receipt());
+        } catch (Exception e) {
+            log.warn("Failed to delete message (might already be deleted): {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public int maxBatchSize() {
+        // Azure Storage Queue caps a single receive at 32 messages
+        return Math.max(1, Math.min(maxMessages, 32));
+    }
+
+    @Override
+    public String name() {
+        return "azure-queue";
+    }
+
+    /**
+     * Safely extracts message body, handling Base64 if necessary.
+     */
+    private String getDecodedMessageBody(QueueMessageItem message) {
+        String body = message.getBody().toString();
+
+        // If it looks like JSON (starts with {), return as is.
+        if (body.trim().startsWith("{")) {
+            return body;
+        }
+
+        // Otherwise, try to decode from Base64
+        try {
+            byte[] decodedBytes = Base64.getDecoder().decode(body);
+            String decodedString = new String(decodedBytes, StandardCharsets.UTF_8);
+            // Sanity check: Does the decoded string look like JSON?
+            if (decodedString.trim().startsWith("{")) {
+                return decodedString;
+            }
+            return body; // Fallback to original if decoding didn't yield JSON
+        } catch (IllegalArgumentException e) {
+            // Not Base64, return original string (might fail JSON parsing later, but that's
+            // handled)
+            return body;
+        }
+    }
+}
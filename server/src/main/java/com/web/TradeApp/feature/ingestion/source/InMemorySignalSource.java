@@ -0,0 +1,91 @@
+package com.web.TradeApp.feature.ingestion.source;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * In-process source backed by a bounded ring buffer.
+ *
+ * For co-located bots and load tests: no network hop, and a waiting worker is
+ * woken the moment an envelope is offered. The buffer is bounded, so a producer
+ * that outruns the consumers gets {@code false} from {@link #offer} instead of
+ * growing the heap. Delivery is at-most-once: an envelope leaves the buffer on
+ * receive and is lost if the JVM dies before it is persisted.
+ */
+@Component
+@ConditionalOnProperty(name = "ingestion.source", havingValue = "in-memory")
+public class InMemorySignalSource implements SignalSource {
+
+    private final ArrayBlockingQueue<ReceivedSignal> buffer;
+    private final AtomicLong sequence = new AtomicLong();
+    private final int maxBatch;
+    private final Counter rejected;
+
+    public InMemorySignalSource(MeterRegistry meterRegistry,
+            @Value("${ingestion.in-memory.capacity:65536}") int capacity,
+            @Value("${ingestion.in-memory.max-batch:256}") int maxBatch) {
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.maxBatch = Math.max(1, maxBatch);
+
+        Gauge.builder("ingestion.source.buffer.depth", buffer, ArrayBlockingQueue::size)
+                .description("Envelopes waiting in the in-process signal buffer")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("ingestion.source.buffer.rejected")
+                .description("Envelopes refused because the buffer was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Enqueues a raw envelope. Never blocks; returns {@code false} when the
+     * buffer is full.
+     */
+    public boolean offer(String envelopeJson) {
+        String id = "mem-" + sequence.incrementAndGet();
+        if (buffer.offer(new ReceivedSignal(id, envelopeJson, null))) {
+            return true;
+        }
+        rejected.increment();
+        return false;
+    }
+
+    @Override
+    public List<ReceivedSignal> receive(int maxSignals, Duration maxWait) throws InterruptedException {
+        ReceivedSignal first = buffer.poll(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        if (first == null) {
+            return List.of();
+        }
+
+        List<ReceivedSignal> batch = new ArrayList<>(Math.min(maxSignals, buffer.size() + 1));
+        batch.add(first);
+        // Take whatever else is already there without waiting
+        buffer.drainTo(batch, maxSignals - 1);
+        return batch;
+    }
+
+    @Override
+    public void acknowledge(ReceivedSignal signal) {
+        // Already removed on receive
+    }
+
+    @Override
+    public int maxBatchSize() {
+        return maxBatch;
+    }
+
+    @Override
+    public String name() {
+        return "in-memory";
+    }
+}
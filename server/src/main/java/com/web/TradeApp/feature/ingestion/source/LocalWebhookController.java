@@ -0,0 +1,48 @@
+package com.web.TradeApp.feature.ingestion.source;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-app counterpart of the Azure {@code WebhookReceiver} function. Only
+ * registered when {@code ingestion.source=webhook}.
+ */
+@RestController
+@ConditionalOnProperty(name = "ingestion.source", havingValue = "webhook")
+@RequiredArgsConstructor
+@Slf4j
+public class LocalWebhookController {
+
+    private final WebhookSignalSource webhookSignalSource;
+
+    @PostMapping("webhook/{token}")
+    public ResponseEntity<String> receive(
+            @PathVariable(name = "token") String token,
+            @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+            @RequestBody(required = false) String requestBody) {
+        if (requestBody == null || requestBody.isEmpty()) {
+            log.warn("Received empty body. Rejecting.");
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Empty payload");
+        }
+
+        try {
+            if (!webhookSignalSource.accept(token, requestBody, idempotencyKey)) {
+                log.warn("⚠️ Signal buffer full, rejecting signal for token {}", token);
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body("Signal buffer full");
+            }
+            return ResponseEntity.ok("Signal Queued");
+        } catch (Exception e) {
+            log.warn("JSON Parsing Error: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid JSON");
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.web.TradeApp.feature.ingestion.source;
+
+/**
+ * One raw envelope handed out by a {@link SignalSource}.
+ *
+ * @param id      transport message id (Azure message id or in-process sequence)
+ * @param body    decoded JSON envelope
+ * @param receipt transport handle needed to acknowledge (Azure pop receipt),
+ *                {@code null} when the source needs none
+ */
+public record ReceivedSignal(String id, String body, String receipt) {
+}
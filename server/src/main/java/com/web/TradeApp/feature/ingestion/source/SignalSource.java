@@ -0,0 +1,37 @@
+package com.web.TradeApp.feature.ingestion.source;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Transport that feeds raw signal envelopes to {@code TradeQueueListener}.
+ *
+ * Every envelope has the shape the Azure webhook function produces:
+ * {@code { "webhookToken": "...", "payload": { ... }, "receivedAt": <millis> }}.
+ * Exactly one implementation is active, selected by {@code ingestion.source}
+ * ({@code azure} | {@code in-memory} | {@code webhook}).
+ */
+public interface SignalSource {
+
+    /**
+     * Returns up to {@code maxSignals} envelopes. May block up to {@code maxWait}
+     * when nothing is available; returns an empty list when idle.
+     */
+    List<ReceivedSignal> receive(int maxSignals, Duration maxWait) throws InterruptedException;
+
+    /**
+     * Removes a processed envelope for good. Envelopes that are never
+     * acknowledged are redelivered if the transport supports it.
+     */
+    void acknowledge(ReceivedSignal signal);
+
+    /**
+     * Largest batch a single {@link #receive} call should ask for.
+     */
+    int maxBatchSize();
+
+    /**
+     * Short name for logs.
+     */
+    String name();
+}
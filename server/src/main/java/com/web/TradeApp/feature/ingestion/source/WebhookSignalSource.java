@@ -0,0 +1,75 @@
+package com.web.TradeApp.feature.ingestion.source;
+
+import java.util.UUID;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Local HTTP source: {@link LocalWebhookController} accepts the same
+ * {@code POST /webhook/{token}} call as the Azure function and buffers the
+ * envelope in process, skipping the cloud queue round trip.
+ */
+@Component
+@ConditionalOnProperty(name = "ingestion.source", havingValue = "webhook")
+public class WebhookSignalSource extends InMemorySignalSource {
+
+    private final ObjectMapper objectMapper;
+
+    public WebhookSignalSource(MeterRegistry meterRegistry, ObjectMapper objectMapper,
+            @Value("${ingestion.in-memory.capacity:65536}") int capacity,
+            @Value("${ingestion.in-memory.max-batch:256}") int maxBatch) {
+        super(meterRegistry, capacity, maxBatch);
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Wraps a raw webhook body exactly like {@code com.trading.WebhookReceiver}
+     * and buffers it. Returns {@code false} when the buffer is full.
+     *
+     * @param idempotencyKey caller-supplied key ({@code Idempotency-Key} header), may be null
+     * @throws com.fasterxml.jackson.core.JsonProcessingException if the body is not valid JSON
+     */
+    public boolean accept(String token, String requestBody, String idempotencyKey) throws Exception {
+        JsonNode payload = objectMapper.readTree(requestBody);
+
+        ObjectNode queueMessage = objectMapper.createObjectNode();
+        queueMessage.put("webhookToken", token);
+        queueMessage.set("payload", payload);
+        queueMessage.put("receivedAt", System.currentTimeMillis());
+        queueMessage.put("idempotencyKey", resolveIdempotencyKey(payload, idempotencyKey));
+
+        return offer(objectMapper.writeValueAsString(queueMessage));
+    }
+
+    /**
+     * Same rules as the Azure function: header, then {@code idempotency_key} in
+     * the payload (for senders that cannot set headers), else a fresh UUID.
+     */
+    private String resolveIdempotencyKey(JsonNode payload, String headerKey) {
+        if (isUsableKey(headerKey)) {
+            return headerKey;
+        }
+        String payloadKey = payload.path("idempotency_key").asText(null);
+        if (isUsableKey(payloadKey)) {
+            return payloadKey;
+        }
+        return UUID.randomUUID().toString();
+    }
+
+    private boolean isUsableKey(String key) {
+        return key != null && !key.isBlank() && key.length() <= 64;
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+}
@@ -44,6 +44,7 @@ public class PaymentServiceImpl implements PaymentService {
     private final PaymentTransactionRepository transactionRepository;
     private final UserRepository userRepository;
     private final WalletRepository walletRepository;
+    private final CommonUtils commonUtils;
 
     private final int EXPIRED_MINUTES = 15;
 
@@ -225,7 +226,7 @@ public class PaymentServiceImpl implements PaymentService {
         // Fallback nếu API lỗi
         BigDecimal exchangeRate = BigDecimal.valueOf(25000);
         try {
-            BigDecimal fetchedRate = CommonUtils.fetchRealTimeExchangeRate();
+            BigDecimal fetchedRate = commonUtils.fetchRealTimeExchangeRate();
             if (fetchedRate != null)
                 exchangeRate = fetchedRate;
         } catch (Exception e) {
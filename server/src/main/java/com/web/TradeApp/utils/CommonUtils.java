@@ -1,45 +1,49 @@
 package com.web.TradeApp.utils;
 
 import java.math.BigDecimal;
+import java.net.URI;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
-import java.util.Map;
 
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.databind.JsonNode;
+
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 @Service
 @Slf4j
+@RequiredArgsConstructor
 public class CommonUtils {
 
     private static final BigDecimal FALLBACK_EXCHANGE_RATE = new BigDecimal("24000.00");
 
-    public static BigDecimal fetchRealTimeExchangeRate() {
+    // Free API provider: open.er-api.com
+    // Returns JSON like: { "rates": { "VND": 24500.50, ... } }
+    private static final URI EXCHANGE_RATE_URI = URI.create("https://open.er-api.com/v6/latest/USD");
+
+    private final MarketDataHttpClient httpClient;
+
+    // Last rate fetched successfully; served when the provider is unavailable
+    private volatile BigDecimal lastExchangeRate;
+
+    public BigDecimal fetchRealTimeExchangeRate() {
         try {
-            RestTemplate restTemplate = new RestTemplate();
-            // Free API provider: open.er-api.com
-            // Returns JSON like: { "rates": { "VND": 24500.50, ... } }
-            String apiUrl = "https://open.er-api.com/v6/latest/USD";
-
-            Map response = restTemplate.getForObject(apiUrl, Map.class);
-
-            if (response != null && response.get("rates") instanceof Map) {
-                Map<String, Object> rates = (Map<String, Object>) response.get("rates");
-                Object vndRate = rates.get("VND");
-
-                if (vndRate instanceof Number) {
-                    BigDecimal rate = new BigDecimal(vndRate.toString());
-                    log.info("Fetched real-time exchange rate: 1 USD = {} VND", rate);
-                    return rate;
-                }
+            JsonNode vndRate = httpClient.get("fx_usd", EXCHANGE_RATE_URI).path("rates").path("VND");
+
+            if (vndRate.isNumber()) {
+                BigDecimal rate = new BigDecimal(vndRate.asText());
+                log.info("Fetched real-time exchange rate: 1 USD = {} VND", rate);
+                lastExchangeRate = rate;
+                return rate;
             }
         } catch (Exception e) {
             log.error("Failed to fetch exchange rate, using fallback. Error: {}", e.getMessage());
         }
 
-        return FALLBACK_EXCHANGE_RATE;
+        BigDecimal last = lastExchangeRate;
+        return last != null ? last : FALLBACK_EXCHANGE_RATE;
     }
 
     public static Instant getCompareTime(String timeframe) {
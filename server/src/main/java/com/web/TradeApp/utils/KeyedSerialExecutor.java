@@ -0,0 +1,228 @@
+package com.web.TradeApp.utils;
+
+import java.util.ArrayDeque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs tasks serially per key and in parallel across keys.
+ *
+ * Each key gets a lane: a bounded FIFO queue drained by at most one virtual
+ * thread at a time. Tasks with the same key therefore run one after another in
+ * submission order, while different keys never wait on each other. A lane that
+ * is full rejects new work instead of growing, so one hot key cannot take over
+ * memory or threads.
+ *
+ * A lane exists only while it has work: the drainer removes it from the map
+ * once its queue runs empty, so idle keys (e.g. every user who ever traded)
+ * hold no memory. Queue, drainer flag and removal are guarded by the lane's
+ * lock; a submit that finds its lane already removed retries on a fresh one,
+ * which can only start after the old lane's last task has finished.
+ *
+ * Metrics (prefix = {@code name}): {@code .queue.depth} (all lanes),
+ * {@code .queue.max_depth} (deepest lane), {@code .lanes}, {@code .lag} (time
+ * from submit to start) and {@code .rejected}.
+ */
+@Slf4j
+public class KeyedSerialExecutor<K> {
+
+    private final String name;
+    private final int laneCapacity;
+    private final ConcurrentHashMap<K, Lane> lanes = new ConcurrentHashMap<>();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Timer lag;
+    private final Counter rejected;
+
+    public KeyedSerialExecutor(String name, int laneCapacity, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.laneCapacity = Math.max(1, laneCapacity);
+
+        Gauge.builder(name + ".queue.depth", this, KeyedSerialExecutor::totalDepth)
+                .description("Tasks waiting across all lanes")
+                .register(meterRegistry);
+        Gauge.builder(name + ".queue.max_depth", this, KeyedSerialExecutor::maxDepth)
+                .description("Tasks waiting in the busiest lane")
+                .register(meterRegistry);
+        Gauge.builder(name + ".lanes", lanes, ConcurrentHashMap::size)
+                .description("Keys with queued or running work")
+                .register(meterRegistry);
+        this.lag = Timer.builder(name + ".lag")
+                .description("Time a task waited in its lane before starting")
+                .register(meterRegistry);
+        this.rejected = Counter.builder(name + ".rejected")
+                .description("Tasks refused because their lane was full")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Queues {@code task} behind earlier tasks for the same key. Waits up to
+     * {@code timeout} for room in the lane; returns {@code false} if the lane
+     * is still full.
+     */
+    public boolean submit(K key, Runnable task, long timeout, TimeUnit unit) throws InterruptedException {
+        QueuedTask queued = new QueuedTask(task, System.nanoTime());
+        while (true) {
+            Lane lane = lanes.computeIfAbsent(key, Lane::new);
+            switch (lane.enqueue(queued, unit.toNanos(timeout))) {
+                case QUEUED:
+                    return true;
+                case FULL:
+                    rejected.increment();
+                    return false;
+                case RETIRED:
+                    continue; // Lane went idle and was removed meanwhile; it never waited, so no time lost
+            }
+        }
+    }
+
+    /**
+     * Non-blocking {@link #submit}: returns {@code false} at once when the lane
+     * is full. For callers that must never stall (event listeners, ingestion).
+     */
+    public boolean offer(K key, Runnable task) {
+        try {
+            return submit(key, task, 0, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            // A zero timeout never waits; only reachable if the caller was already interrupted
+            Thread.currentThread().interrupt();
+            rejected.increment();
+            return false;
+        }
+    }
+
+    public int depth(K key) {
+        Lane lane = lanes.get(key);
+        return lane == null ? 0 : lane.size();
+    }
+
+    public void shutdown(long timeout, TimeUnit unit) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeout, unit)) {
+                log.warn("⚠️ {} stopped with {} queued tasks", name, (long) totalDepth());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private double totalDepth() {
+        long total = 0;
+        for (Lane lane : lanes.values()) {
+            total += lane.size();
+        }
+        return total;
+    }
+
+    private double maxDepth() {
+        int max = 0;
+        for (Lane lane : lanes.values()) {
+            max = Math.max(max, lane.size());
+        }
+        return max;
+    }
+
+    private record QueuedTask(Runnable task, long enqueuedAtNanos) {
+    }
+
+    private enum Offer {
+        QUEUED, FULL, RETIRED
+    }
+
+    private final class Lane {
+        private final K key;
+        // ReentrantLock rather than synchronized: waiting submitters may be virtual threads
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition notFull = lock.newCondition();
+        // Guarded by lock; grows with use instead of reserving laneCapacity slots
+        private final ArrayDeque<QueuedTask> queue = new ArrayDeque<>();
+        // True while a drain is scheduled or running; guarantees one runner per lane
+        private boolean draining;
+        // Set when the lane was removed from the map; it never takes work again
+        private boolean retired;
+
+        private Lane(K key) {
+            this.key = key;
+        }
+
+        private Offer enqueue(QueuedTask task, long timeoutNanos) throws InterruptedException {
+            long remaining = timeoutNanos;
+            lock.lockInterruptibly();
+            try {
+                while (!retired && queue.size() >= laneCapacity) {
+                    if (remaining <= 0) {
+                        return Offer.FULL;
+                    }
+                    remaining = notFull.awaitNanos(remaining);
+                }
+                if (retired) {
+                    return Offer.RETIRED;
+                }
+                queue.addLast(task);
+                if (!draining) {
+                    draining = true;
+                    try {
+                        executor.execute(this::drain);
+                    } catch (RejectedExecutionException e) {
+                        // Shut down: nothing would ever run it
+                        queue.removeLast();
+                        draining = false;
+                        throw e;
+                    }
+                }
+                return Offer.QUEUED;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int size() {
+            lock.lock();
+            try {
+                return queue.size();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void drain() {
+            while (true) {
+                QueuedTask next;
+                lock.lock();
+                try {
+                    next = queue.pollFirst();
+                    if (next == null) {
+                        // Idle: retire under the lock, so no submit can slip in behind it
+                        draining = false;
+                        retired = true;
+                        lanes.remove(key, this);
+                        notFull.signalAll();
+                        return;
+                    }
+                    notFull.signal();
+                } finally {
+                    lock.unlock();
+                }
+
+                lag.record(System.nanoTime() - next.enqueuedAtNanos(), TimeUnit.NANOSECONDS);
+                try {
+                    next.task().run();
+                } catch (Throwable t) {
+                    log.error("❌ {} task failed for key {}: {}", name, key, t.getMessage(), t);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.web.TradeApp.utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.web.TradeApp.exception.MarketDataException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shared HTTP client for external market data (CoinGecko prices, FX rates).
+ *
+ * One {@link HttpClient} (HTTP/2 with HTTP/1.1 fallback, pooled keep-alive
+ * connections) serves every caller, with a connect timeout and a per-request
+ * response timeout. Requests are sent asynchronously; {@link #get} is the
+ * blocking convenience wrapper.
+ *
+ * Each provider host has:
+ * <ul>
+ * <li>a token bucket sized to its quota ({@code requests-per-minute}, with
+ * {@code burst} tokens of headroom); a call finding it empty is refused
+ * immediately instead of spending quota and earning a 429, unless the caller
+ * allows it to wait for its turn;</li>
+ * <li>a circuit breaker: {@code failure-threshold} consecutive failures (I/O,
+ * timeout, 5xx, 429) open it for {@code open-ms}, during which calls fail fast;
+ * then a single probe decides whether it closes again.</li>
+ * </ul>
+ * A refused or failed call throws {@link MarketDataException}; callers fall back
+ * to their last known value (see {@code MarketPriceCache}).
+ *
+ * Metrics: {@code market.http.requests} timer tagged {@code endpoint} and
+ * {@code outcome}, and {@code market.http.circuit.open} per host.
+ */
+@Component
+@Slf4j
+public class MarketDataHttpClient {
+
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient httpClient;
+
+    private final Duration readTimeout;
+    private final double requestsPerMinute;
+    private final int burst;
+    private final int failureThreshold;
+    private final long openMs;
+
+    private final ConcurrentHashMap<String, Host> hosts = new ConcurrentHashMap<>();
+
+    public MarketDataHttpClient(ObjectMapper objectMapper,
+            MeterRegistry meterRegistry,
+            @Value("${market.http.connect-timeout-ms:2000}") long connectTimeoutMs,
+            @Value("${market.http.read-timeout-ms:5000}") long readTimeoutMs,
+            @Value("${market.http.rate-limit.requests-per-minute:30}") double requestsPerMinute,
+            @Value("${market.http.rate-limit.burst:5}") int burst,
+            @Value("${market.http.circuit.failure-threshold:5}") int failureThreshold,
+            @Value("${market.http.circuit.open-ms:30000}") long openMs) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.readTimeout = Duration.ofMillis(readTimeoutMs);
+        this.requestsPerMinute = requestsPerMinute;
+        this.burst = Math.max(1, burst);
+        this.failureThreshold = Math.max(1, failureThreshold);
+        this.openMs = openMs;
+
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+    }
+
+    /**
+     * GETs {@code uri} and parses the JSON body. {@code endpoint} names the
+     * call in metrics (keep it low-cardinality, e.g. {@code simple_price}).
+     *
+     * @throws MarketDataException when the call is refused, fails or returns a
+     *                             non-2xx status
+     */
+    public JsonNode get(String endpoint, URI uri) {
+        try {
+            return getAsync(endpoint, uri).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof MarketDataException failure) {
+                throw failure;
+            }
+            throw new MarketDataException(endpoint + " failed: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    public CompletableFuture<JsonNode> getAsync(String endpoint, URI uri) {
+        return getAsync(endpoint, uri, Duration.ZERO);
+    }
+
+    /**
+     * Like {@link #getAsync(String, URI)}, but when the host's rate budget is
+     * spent the call is scheduled for when a token frees up, as long as that is
+     * within {@code maxWait} (for background batches that can afford to pace
+     * themselves). The returned future never blocks a thread while waiting.
+     */
+    public CompletableFuture<JsonNode> getAsync(String endpoint, URI uri, Duration maxWait) {
+        Host host = hosts.computeIfAbsent(uri.getHost(), Host::new);
+        if (!host.breaker.allow()) {
+            record(endpoint, "circuit_open", 0);
+            return CompletableFuture.failedFuture(
+                    new MarketDataException("Circuit open for " + host.name + "; " + endpoint + " not sent", 0));
+        }
+        long delay = host.bucket.reserve(maxWait.toNanos());
+        if (delay < 0) {
+            host.breaker.release();
+            record(endpoint, "rate_limited", 0);
+            return CompletableFuture.failedFuture(
+                    new MarketDataException("Rate limit reached for " + host.name + "; " + endpoint + " not sent", 0));
+        }
+        if (delay == 0) {
+            return send(host, endpoint, uri);
+        }
+        return CompletableFuture.runAsync(() -> {
+        }, CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS, executor))
+                .thenCompose(ignored -> send(host, endpoint, uri));
+    }
+
+    private CompletableFuture<JsonNode> send(Host host, String endpoint, URI uri) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+                .timeout(readTimeout)
+                .header("Accept", "application/json")
+                .GET()
+                .build();
+        long start = System.nanoTime();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    long elapsed = System.nanoTime() - start;
+                    if (error != null) {
+                        Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                        boolean timeout = cause instanceof HttpTimeoutException;
+                        host.breaker.onFailure();
+                        record(endpoint, timeout ? "timeout" : "io_error", elapsed);
+                        throw new MarketDataException(endpoint + (timeout ? " timed out" : " failed: " + cause), cause);
+                    }
+                    int status = response.statusCode();
+                    if (status >= 200 && status < 300) {
+                        host.breaker.onSuccess();
+                        record(endpoint, "success", elapsed);
+                        return parse(endpoint, response.body());
+                    }
+                    // 4xx (except 429) means the provider is up and answered: not a breaker failure
+                    if (status == 429 || status >= 500) {
+                        host.breaker.onFailure();
+                    } else {
+                        host.breaker.onSuccess();
+                    }
+                    record(endpoint, "http_" + status / 100 + "xx", elapsed);
+                    throw new MarketDataException(endpoint + " returned HTTP " + status, status);
+                });
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private JsonNode parse(String endpoint, byte[] body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            throw new MarketDataException(endpoint + " returned invalid JSON", e);
+        }
+    }
+
+    private void record(String endpoint, String outcome, long elapsedNanos) {
+        Timer.builder("market.http.requests")
+                .description("External market-data calls, including ones refused locally")
+                .tag("endpoint", endpoint)
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private final class Host {
+        private final String name;
+        private final TokenBucket bucket = new TokenBucket();
+        private final CircuitBreaker breaker = new CircuitBreaker();
+
+        private Host(String name) {
+            this.name = name;
+            Gauge.builder("market.http.circuit.open", breaker, b -> b.isOpen() ? 1 : 0)
+                    .description("1 while calls to this host fail fast")
+                    .tag("host", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Refills continuously at {@code requestsPerMinute}, holding at most
+     * {@code burst} tokens. A reservation may take the balance below zero;
+     * later callers then queue behind it.
+     */
+    private final class TokenBucket {
+        private double tokens = burst;
+        private long refilledAt = System.nanoTime();
+
+        /**
+         * Takes a token; returns how many nanoseconds the caller must wait
+         * before using it (0 = now), or -1 if that would exceed {@code maxWaitNanos}.
+         */
+        synchronized long reserve(long maxWaitNanos) {
+            long now = System.nanoTime();
+            tokens = Math.min(burst, tokens + (now - refilledAt) * requestsPerMinute / 60_000_000_000.0);
+            refilledAt = now;
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            long wait = (long) Math.ceil((1 - tokens) * 60_000_000_000.0 / requestsPerMinute);
+            if (wait > maxWaitNanos) {
+                return -1;
+            }
+            tokens -= 1;
+            return wait;
+        }
+    }
+
+    private final class CircuitBreaker {
+        private int consecutiveFailures;
+        private boolean open;
+        private long openUntil; // System.nanoTime() deadline while open
+        private boolean probing; // Half-open: one request is testing the host
+
+        synchronized boolean allow() {
+            if (!open) {
+                return true;
+            }
+            if (probing || System.nanoTime() - openUntil < 0) {
+                return false;
+            }
+            probing = true;
+            return true;
+        }
+
+        // A probe that was not sent after all (rate limited) must not block the next one
+        synchronized void release() {
+            probing = false;
+        }
+
+        synchronized void onSuccess() {
+            if (open) {
+                log.info("✅ Market data host recovered, circuit closed");
+            }
+            consecutiveFailures = 0;
+            open = false;
+            probing = false;
+        }
+
+        synchronized void onFailure() {
+            consecutiveFailures++;
+            if (probing || consecutiveFailures >= failureThreshold) {
+                if (!open) {
+                    log.warn("🔌 Market data circuit opened after {} consecutive failures", consecutiveFailures);
+                }
+                open = true;
+                openUntil = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(openMs);
+                probing = false;
+            }
+        }
+
+        synchronized boolean isOpen() {
+            return open && System.nanoTime() - openUntil < 0;
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.web.TradeApp.utils;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Re-runs a unit of work that lost an optimistic-locking race.
+ *
+ * Wallets and coin holdings are {@code @Version}ed, so two trades touching the
+ * same row no longer overwrite each other: the second commit fails instead.
+ * Wrap the whole transaction (not a call inside it) so every attempt re-reads
+ * fresh rows. Attempts are bounded and spaced with jittered exponential
+ * backoff; when they run out the last conflict is rethrown.
+ *
+ * Metrics: {@code trade.optimistic.conflicts} (tag {@code entity}) and
+ * {@code trade.optimistic.exhausted} (tag {@code operation}).
+ */
+@Component
+@Slf4j
+public class OptimisticRetry {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxAttempts;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+
+    public OptimisticRetry(MeterRegistry meterRegistry,
+            @Value("${trade.retry.max-attempts:4}") int maxAttempts,
+            @Value("${trade.retry.base-backoff-ms:10}") long baseBackoffMs,
+            @Value("${trade.retry.max-backoff-ms:200}") long maxBackoffMs) {
+        this.meterRegistry = meterRegistry;
+        this.maxAttempts = Math.max(1, maxAttempts);
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+    }
+
+    /**
+     * @param operation metric/log label, e.g. {@code manual_buy}
+     * @param work      one complete transaction
+     */
+    public <T> T execute(String operation, Supplier<T> work) {
+        for (int attempt = 1;; attempt++) {
+            try {
+                return work.get();
+            } catch (ObjectOptimisticLockingFailureException e) {
+                String entity = entityName(e);
+                meterRegistry.counter("trade.optimistic.conflicts", "entity", entity).increment();
+
+                if (attempt >= maxAttempts) {
+                    meterRegistry.counter("trade.optimistic.exhausted", "operation", operation).increment();
+                    log.warn("⚠️ {} gave up after {} optimistic conflicts (last on {})", operation, attempt, entity);
+                    throw e;
+                }
+                log.debug("🔁 {} conflicted on {} (attempt {}/{}), retrying", operation, entity, attempt, maxAttempts);
+                backoff(attempt);
+            }
+        }
+    }
+
+    public void run(String operation, Runnable work) {
+        execute(operation, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    // Full jitter: sleep uniformly in [0, min(max, base * 2^(attempt-1))]
+    private void backoff(int attempt) {
+        long ceiling = Math.min(maxBackoffMs, baseBackoffMs << Math.min(attempt - 1, 20));
+        if (ceiling <= 0) {
+            return;
+        }
+        try {
+            Thread.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off an optimistic retry", ie);
+        }
+    }
+
+    private static String entityName(ObjectOptimisticLockingFailureException e) {
+        String className = e.getPersistentClassName();
+        if (className == null) {
+            return "unknown";
+        }
+        return className.substring(className.lastIndexOf('.') + 1);
+    }
+}
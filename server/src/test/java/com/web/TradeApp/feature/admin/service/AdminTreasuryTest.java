@@ -0,0 +1,173 @@
+package com.web.TradeApp.feature.admin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.web.TradeApp.feature.coin.entity.Wallet;
+import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
+import com.web.TradeApp.feature.coin.repository.WalletRepository;
+
+class AdminTreasuryTest {
+
+    private static final UUID ADMIN_WALLET = UUID.randomUUID();
+
+    // The admin wallet row; its update is unconditional here, so only the
+    // in-memory counter stands between a debit and an overdraw
+    private final AtomicReference<BigDecimal> dbBalance = new AtomicReference<>(new BigDecimal("100"));
+    private final AtomicReference<BigDecimal> lowestBalance = new AtomicReference<>(new BigDecimal("100"));
+
+    private AdminTreasury treasury;
+
+    @BeforeEach
+    void setUp() {
+        AdminService adminService = mock(AdminService.class);
+        when(adminService.getAdminWalletId()).thenReturn(ADMIN_WALLET);
+
+        WalletRepository walletRepo = mock(WalletRepository.class);
+        when(walletRepo.findById(eq(ADMIN_WALLET))).thenAnswer(invocation -> {
+            BigDecimal read = dbBalance.get();
+            Thread.yield(); // Widen the gap between the read and the sync
+            return Optional.of(Wallet.builder().balance(read).build());
+        });
+        when(walletRepo.applyBalanceDelta(eq(ADMIN_WALLET), any())).thenAnswer(invocation -> {
+            BigDecimal delta = invocation.getArgument(1);
+            BigDecimal after = dbBalance.accumulateAndGet(delta, BigDecimal::add);
+            lowestBalance.accumulateAndGet(after, BigDecimal::min);
+            return 1;
+        });
+
+        treasury = new AdminTreasury(adminService, walletRepo, mock(CoinHoldingRepository.class));
+    }
+
+    @Test
+    void concurrentDebitsAndResyncNeverOverdraw() throws Exception {
+        AtomicBoolean trading = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> traders = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            traders.add(new Thread(() -> {
+                await(start);
+                for (int i = 0; i < 5_000; i++) {
+                    trade(BigDecimal.ONE, BigDecimal.ZERO);
+                }
+            }));
+        }
+        // Keeps the balance hovering around zero, where an over-counted capacity overdraws
+        traders.add(new Thread(() -> {
+            await(start);
+            for (int i = 0; i < 2_000; i++) {
+                trade(BigDecimal.ZERO, new BigDecimal("3"));
+            }
+        }));
+        Thread resyncer = new Thread(() -> {
+            await(start);
+            while (trading.get()) {
+                treasury.resync();
+            }
+        });
+
+        treasury.availableUsdt(); // Seed the counter so resync has something to sync
+        traders.forEach(Thread::start);
+        resyncer.start();
+        start.countDown();
+        for (Thread trader : traders) {
+            trader.join();
+        }
+        trading.set(false);
+        resyncer.join();
+
+        assertTrue(lowestBalance.get().signum() >= 0, "balance went to " + lowestBalance.get());
+        assertEquals(0, treasury.availableUsdt().compareTo(dbBalance.get()));
+    }
+
+    @Test
+    void resyncPicksUpAnOutsideChange() {
+        treasury.availableUsdt();
+        dbBalance.set(new BigDecimal("500")); // e.g. a manual top-up
+
+        treasury.resync();
+
+        assertEquals(0, treasury.availableUsdt().compareTo(new BigDecimal("500")));
+    }
+
+    @Test
+    void resyncDoesNotCountAnUnsettledDeltaTwice() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            AdminTreasury.Netting netting = treasury.open();
+            assertTrue(netting.tryDebitUsdt(new BigDecimal("10")));
+            netting.flush(); // The row already shows 90
+
+            treasury.resync();
+            assertEquals(0, treasury.availableUsdt().compareTo(new BigDecimal("90")));
+
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+            assertEquals(0, treasury.availableUsdt().compareTo(new BigDecimal("90")));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void rolledBackDebitReleasesItsReservation() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            AdminTreasury.Netting netting = treasury.open();
+            assertTrue(netting.tryDebitUsdt(new BigDecimal("100")));
+            assertEquals(0, treasury.availableUsdt().signum());
+
+            complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+            assertEquals(0, treasury.availableUsdt().compareTo(new BigDecimal("100")));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    // One admin-side transaction: reserve and write, then commit (or roll back if refused)
+    private void trade(BigDecimal debit, BigDecimal credit) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            AdminTreasury.Netting netting = treasury.open();
+            if (!netting.tryDebitUsdt(debit)) {
+                complete(TransactionSynchronization.STATUS_ROLLED_BACK);
+                return;
+            }
+            netting.creditUsdt(credit);
+            netting.flush();
+            complete(TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static void complete(int status) {
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,156 @@
+package com.web.TradeApp.feature.aibot.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Property tests: for random inputs the fixed-point kernel must return exactly
+ * what {@link TradeFillCalculator} returns ({@code equals}, so the scale has to
+ * match too). Inputs mix realistic column values with oversized and odd-scale
+ * ones that exercise the overflow checks and the BigDecimal fallback.
+ */
+class FixedPointFillCalculatorTest {
+
+    private static final int CASES = 200_000;
+
+    private final Random random = new Random(20_240_613L);
+
+    @Test
+    void buyNotionalMatchesBigDecimal() {
+        for (int i = 0; i < CASES; i++) {
+            FixedPointFillCalculator kernel = randomKernel();
+            BigDecimal balance = oneIn(10) ? oversized(6) : decimal(14, 6);
+            BigDecimal pct = percentage();
+
+            assertEquals(TradeFillCalculator.buyNotional(balance, pct), kernel.buyNotional(balance, pct),
+                    () -> "balance=" + balance + " pct=" + pct);
+        }
+    }
+
+    @Test
+    void buyQuantityMatchesBigDecimal() {
+        for (int i = 0; i < CASES; i++) {
+            BigDecimal price = price();
+            BigDecimal sysFee = fee();
+            BigDecimal botFee = fee();
+            FixedPointFillCalculator kernel = new FixedPointFillCalculator(price, sysFee, botFee);
+            BigDecimal gross = oneIn(10) ? oversized(random.nextInt(12)) : decimal(14, 6);
+
+            assertEquals(TradeFillCalculator.buyQuantity(gross, price, sysFee, botFee), kernel.buyQuantity(gross),
+                    () -> "gross=" + gross + " price=" + price + " fees=" + sysFee + "/" + botFee);
+        }
+    }
+
+    @Test
+    void averageBuyPriceMatchesBigDecimal() {
+        for (int i = 0; i < CASES; i++) {
+            FixedPointFillCalculator kernel = randomKernel();
+            BigDecimal qty = oneIn(50) ? BigDecimal.ZERO.setScale(8) : oneIn(10) ? oversized(8) : decimal(16, 8);
+            BigDecimal avg = oneIn(10) ? oversized(8) : decimal(14, 8);
+            BigDecimal gross = decimal(14, 6);
+
+            assertEquals(TradeFillCalculator.averageBuyPrice(qty, avg, gross), kernel.averageBuyPrice(qty, avg, gross),
+                    () -> "qty=" + qty + " avg=" + avg + " gross=" + gross);
+        }
+    }
+
+    @Test
+    void sellQuantityMatchesBigDecimal() {
+        for (int i = 0; i < CASES; i++) {
+            FixedPointFillCalculator kernel = randomKernel();
+            // bot_wallet_coin is scale 18: whole coins only fit after stripping zeros
+            BigDecimal coin = oneIn(10) ? oversized(18)
+                    : random.nextBoolean() ? decimal(18, 18) : decimal(6, 0).setScale(18);
+            BigDecimal pct = percentage();
+
+            assertEquals(TradeFillCalculator.sellQuantity(coin, pct), kernel.sellQuantity(coin, pct),
+                    () -> "coin=" + coin + " pct=" + pct);
+        }
+    }
+
+    @Test
+    void sellProceedsMatchesBigDecimal() {
+        for (int i = 0; i < CASES; i++) {
+            BigDecimal price = price();
+            BigDecimal sysFee = fee();
+            BigDecimal botFee = fee();
+            FixedPointFillCalculator kernel = new FixedPointFillCalculator(price, sysFee, botFee);
+            BigDecimal qty = oneIn(10) ? oversized(8) : decimal(14, 8);
+
+            assertEquals(TradeFillCalculator.sellProceeds(qty.multiply(price), sysFee, botFee),
+                    kernel.sellProceeds(qty),
+                    () -> "qty=" + qty + " price=" + price + " fees=" + sysFee + "/" + botFee);
+        }
+    }
+
+    @Test
+    void zeroPriceFailsLikeBigDecimal() {
+        FixedPointFillCalculator kernel = new FixedPointFillCalculator(BigDecimal.ZERO, fee(), fee());
+        assertThrows(ArithmeticException.class, () -> kernel.buyQuantity(new BigDecimal("10.000000")));
+    }
+
+    @Test
+    void divideUnsigned128MatchesBigInteger() {
+        for (int i = 0; i < CASES; i++) {
+            long divisor = Math.max(1, random.nextLong() >>> random.nextInt(63));
+            long high = Long.remainderUnsigned(random.nextLong(), divisor);
+            long low = random.nextLong();
+
+            BigInteger dividend = unsigned(high).shiftLeft(64).or(unsigned(low));
+            long quotient = FixedPointFillCalculator.divideUnsigned128(high, low, divisor);
+
+            assertEquals(dividend.divide(unsigned(divisor)), unsigned(quotient),
+                    () -> high + ":" + low + " / " + divisor);
+        }
+    }
+
+    // --- Generators ---
+
+    private FixedPointFillCalculator randomKernel() {
+        return new FixedPointFillCalculator(price(), fee(), fee());
+    }
+
+    private boolean oneIn(int n) {
+        return random.nextInt(n) == 0;
+    }
+
+    private BigDecimal decimal(int maxDigits, int scale) {
+        int digits = 1 + random.nextInt(maxDigits);
+        long bound = BigInteger.TEN.pow(Math.min(digits, 18)).longValueExact();
+        return BigDecimal.valueOf(Math.floorMod(random.nextLong(), bound), scale);
+    }
+
+    // Up to ~30 significant digits: more than a long holds
+    private BigDecimal oversized(int scale) {
+        return new BigDecimal(new BigInteger(40 + random.nextInt(60), random), scale);
+    }
+
+    private BigDecimal price() {
+        if (oneIn(10)) {
+            return oversized(random.nextInt(20)).add(BigDecimal.ONE);
+        }
+        // Signal prices arrive as doubles (BigDecimal.valueOf), so any scale is possible
+        BigDecimal price = BigDecimal.valueOf(random.nextDouble() * Math.pow(10, random.nextInt(12) - 4));
+        return price.signum() == 0 ? BigDecimal.ONE : price;
+    }
+
+    // Fee columns are precision 5 scale 4; occasionally above 100% (negative keep)
+    private BigDecimal fee() {
+        BigDecimal fee = BigDecimal.valueOf(random.nextInt(10_001), 4);
+        return oneIn(20) ? fee.add(BigDecimal.valueOf(1 + random.nextInt(2))) : fee;
+    }
+
+    private BigDecimal percentage() {
+        return BigDecimal.valueOf(random.nextInt(10_001), 4);
+    }
+
+    private static BigInteger unsigned(long value) {
+        return new BigInteger(Long.toUnsignedString(value));
+    }
+}
@@ -0,0 +1,109 @@
+package com.web.TradeApp.feature.aibot.service.fanout;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.web.TradeApp.feature.aibot.model.BotSubscription;
+import com.web.TradeApp.feature.aibot.repository.BotSubscriptionRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class SubscriberRosterTest {
+
+    private final UUID botId = UUID.randomUUID();
+
+    private BotSubscriptionRepository subRepo;
+    private SubscriberRoster roster;
+
+    @BeforeEach
+    void setUp() {
+        subRepo = mock(BotSubscriptionRepository.class);
+        roster = new SubscriberRoster(subRepo, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void firstPageIncludesIdsWithNegativeMostSignificantBits() {
+        // UUID.compareTo is signed: these sort below 00000000-0000-0000-0000-000000000000
+        List<UUID> ids = List.of(
+                UUID.fromString("ffffffff-ffff-4fff-bfff-ffffffffffff"),
+                UUID.fromString("80000000-0000-4000-8000-000000000000"),
+                UUID.fromString("00000000-0000-4000-8000-000000000001"),
+                UUID.fromString("7fffffff-ffff-4fff-bfff-ffffffffffff"));
+        subscribe(ids);
+
+        List<UUID> paged = ids(roster.page(botId, null, 10));
+
+        assertEquals(4, paged.size());
+        assertEquals(ids.stream().sorted().toList(), paged);
+    }
+
+    @Test
+    void pagingAcrossChunksVisitsEverySubscriberOnce() {
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        subscribe(ids);
+
+        List<UUID> visited = new ArrayList<>();
+        UUID cursor = null;
+        int pages = 0;
+        while (true) {
+            List<SubscriberRoster.Entry> page = roster.page(botId, cursor, 64);
+            if (page.isEmpty()) {
+                break;
+            }
+            pages++;
+            visited.addAll(ids(page));
+            cursor = page.get(page.size() - 1).subscriptionId();
+        }
+
+        assertEquals(16, pages);
+        assertEquals(1_000, visited.size());
+        assertEquals(new HashSet<>(ids), Set.copyOf(visited));
+        assertEquals(ids.stream().sorted().toList(), visited);
+    }
+
+    @Test
+    void pageResumesAfterANegativeCursor() {
+        UUID low = UUID.fromString("90000000-0000-4000-8000-000000000000");
+        UUID high = UUID.fromString("10000000-0000-4000-8000-000000000000");
+        subscribe(List.of(low, high));
+
+        List<UUID> rest = ids(roster.page(botId, low, 10));
+
+        assertEquals(List.of(high), rest);
+        assertTrue(roster.page(botId, high, 10).isEmpty());
+    }
+
+    private void subscribe(List<UUID> ids) {
+        List<BotSubscription> subs = new ArrayList<>();
+        for (UUID id : ids) {
+            BotSubscription sub = BotSubscription.builder()
+                    .userId(UUID.randomUUID())
+                    .tradePercentage(new BigDecimal("0.1000"))
+                    .botWalletBalance(new BigDecimal("1000"))
+                    .botWalletCoin(BigDecimal.ZERO)
+                    .build();
+            sub.setId(id);
+            subs.add(sub);
+        }
+        when(subRepo.findAllByBotIdAndActiveTrue(botId)).thenReturn(subs);
+    }
+
+    private static List<UUID> ids(List<SubscriberRoster.Entry> page) {
+        return page.stream().map(SubscriberRoster.Entry::subscriptionId).toList();
+    }
+}
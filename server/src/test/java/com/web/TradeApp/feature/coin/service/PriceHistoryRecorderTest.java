@@ -0,0 +1,173 @@
+package com.web.TradeApp.feature.coin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import com.web.TradeApp.feature.coin.entity.PriceCandle;
+import com.web.TradeApp.feature.coin.entity.PriceCandle.Interval;
+import com.web.TradeApp.feature.coin.repository.PriceCandleRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Rollups of {@link PriceHistoryRecorder} over an in-memory candle table.
+ */
+class PriceHistoryRecorderTest {
+
+    // Midnight (UTC) two days ago: every tier of that day has ended
+    private final Instant day = Interval.D1.openTimeOf(Instant.now()).minus(Duration.ofDays(2));
+
+    // The price_candles table
+    private final List<PriceCandle> table = new ArrayList<>();
+
+    private PriceCandleRepository candleRepo;
+    private PlatformTransactionManager transactionManager;
+    private PriceHistoryRecorder recorder;
+
+    @BeforeEach
+    void setUp() {
+        candleRepo = mock(PriceCandleRepository.class);
+        when(candleRepo.findByIntervalAndOpenTimeGreaterThanEqualAndOpenTimeLessThan(any(), any(), any()))
+                .thenAnswer(invocation -> stored(invocation.getArgument(0)).stream()
+                        .filter(c -> !c.getOpenTime().isBefore(invocation.getArgument(1)))
+                        .filter(c -> c.getOpenTime().isBefore(invocation.getArgument(2)))
+                        .toList());
+        when(candleRepo.findFirstByIntervalAndOpenTimeGreaterThanEqualOrderByOpenTimeAsc(any(), any()))
+                .thenAnswer(invocation -> stored(invocation.getArgument(0)).stream()
+                        .filter(c -> !c.getOpenTime().isBefore(invocation.getArgument(1)))
+                        .findFirst());
+        when(candleRepo.findFirstByIntervalOrderByOpenTimeAsc(any()))
+                .thenAnswer(invocation -> stored(invocation.getArgument(0)).stream().findFirst());
+        when(candleRepo.findFirstByIntervalOrderByOpenTimeDesc(any()))
+                .thenAnswer(invocation -> stored(invocation.getArgument(0)).stream()
+                        .reduce((first, second) -> second));
+        when(candleRepo.findByIntervalAndOpenTimeAndCoinGeckoIdIn(any(), any(), any()))
+                .thenAnswer(invocation -> stored(invocation.getArgument(0)).stream()
+                        .filter(c -> c.getOpenTime().equals(invocation.getArgument(1)))
+                        .filter(c -> invocation.<Collection<String>>getArgument(2).contains(c.getCoinGeckoId()))
+                        .toList());
+        when(candleRepo.saveAll(anyList())).thenAnswer(invocation -> {
+            List<PriceCandle> saved = invocation.getArgument(0);
+            // Updated rows are the stored instances themselves
+            saved.stream()
+                    .filter(candle -> table.stream().noneMatch(row -> row == candle))
+                    .forEach(table::add);
+            return saved;
+        });
+
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+
+        recorder = newRecorder();
+    }
+
+    @Test
+    void minutesRollUpIntoEveryTier() {
+        minute("bitcoin", 0, "100", "105", "99", "101");
+        minute("bitcoin", 1, "101", "110", "100", "108");
+        minute("bitcoin", 2, "108", "109", "95", "96");
+        minute("bitcoin", 3, "96", "100", "96", "98");
+        minute("bitcoin", 4, "98", "99", "97", "97");
+        minute("ethereum", 2, "3000", "3010", "2990", "3005");
+
+        recorder.flush();
+
+        for (Interval tier : List.of(Interval.M5, Interval.H1, Interval.D1)) {
+            assertEquals(2, stored(tier).size(), tier.getCode());
+            PriceCandle btc = only(tier, "bitcoin");
+            assertEquals(day, btc.getOpenTime());
+            assertPrices(btc, "100", "110", "95", "97");
+            assertEquals(5, btc.getSampleCount());
+            assertPrices(only(tier, "ethereum"), "3000", "3010", "2990", "3005");
+        }
+    }
+
+    @Test
+    void gapsBetweenMinutesProduceNoCandles() {
+        // Three hours of downtime between the two minutes
+        minute("bitcoin", 0, "100", "100", "100", "100");
+        minute("bitcoin", 180, "120", "120", "120", "120");
+
+        recorder.flush();
+
+        assertEquals(List.of(day, day.plus(Duration.ofHours(3))), openTimes(Interval.M5));
+        assertEquals(List.of(day, day.plus(Duration.ofHours(3))), openTimes(Interval.H1));
+        PriceCandle daily = only(Interval.D1, "bitcoin");
+        assertPrices(daily, "100", "120", "100", "120");
+        assertEquals(2, daily.getSampleCount());
+    }
+
+    @Test
+    void restartResumesAfterTheLastRolledBucket() {
+        minute("bitcoin", 0, "100", "100", "100", "100");
+        recorder.flush();
+        minute("bitcoin", 10, "90", "90", "90", "90");
+
+        // A new instance knows nothing but the table
+        newRecorder().flush();
+
+        // The first bucket is not rolled twice; the gap after it is skipped
+        assertEquals(List.of(day, day.plus(Duration.ofMinutes(10))), openTimes(Interval.M5));
+        assertPrices(stored(Interval.M5).get(1), "90", "90", "90", "90");
+    }
+
+    private PriceHistoryRecorder newRecorder() {
+        return new PriceHistoryRecorder(candleRepo, transactionManager, new SimpleMeterRegistry(),
+                true, 7, 30, 365, 0);
+    }
+
+    private void minute(String coinGeckoId, int minuteOfDay, String open, String high, String low, String close) {
+        table.add(PriceCandle.builder()
+                .coinGeckoId(coinGeckoId)
+                .interval(Interval.M1)
+                .openTime(day.plus(Duration.ofMinutes(minuteOfDay)))
+                .open(new BigDecimal(open))
+                .high(new BigDecimal(high))
+                .low(new BigDecimal(low))
+                .close(new BigDecimal(close))
+                .sampleCount(1)
+                .build());
+    }
+
+    private List<PriceCandle> stored(Interval interval) {
+        return table.stream()
+                .filter(c -> c.getInterval() == interval)
+                .sorted(Comparator.comparing(PriceCandle::getOpenTime))
+                .toList();
+    }
+
+    private List<Instant> openTimes(Interval interval) {
+        return stored(interval).stream().map(PriceCandle::getOpenTime).toList();
+    }
+
+    private PriceCandle only(Interval interval, String coinGeckoId) {
+        List<PriceCandle> candles = stored(interval).stream()
+                .filter(c -> c.getCoinGeckoId().equals(coinGeckoId))
+                .toList();
+        assertEquals(1, candles.size(), interval.getCode() + " " + coinGeckoId);
+        return candles.get(0);
+    }
+
+    private static void assertPrices(PriceCandle candle, String open, String high, String low, String close) {
+        assertEquals(new BigDecimal(open), candle.getOpen());
+        assertEquals(new BigDecimal(high), candle.getHigh());
+        assertEquals(new BigDecimal(low), candle.getLow());
+        assertEquals(new BigDecimal(close), candle.getClose());
+    }
+}
@@ -0,0 +1,129 @@
+package com.web.TradeApp.feature.coin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.web.TradeApp.exception.ConflictException;
+import com.web.TradeApp.exception.InvalidTokenException;
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.common.entity.BaseTrade.TradeType;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class TradeQuoterTest {
+
+    private static final String SECRET = "quote-secret-for-tests-0123456789abcdef";
+    private static final BigDecimal PRICE = new BigDecimal("50000");
+    private static final BigDecimal QUANTITY = new BigDecimal("0.5");
+
+    private final UUID userId = UUID.randomUUID();
+    private final Coin btc = Coin.builder().coinGeckoId("bitcoin").symbol("BTC").fee(new BigDecimal("0.1")).build();
+    private final Coin eth = Coin.builder().coinGeckoId("ethereum").symbol("ETH").fee(new BigDecimal("0.1")).build();
+
+    private MarketPriceCache marketPriceCache;
+    private TradeQuoter quoter;
+
+    @BeforeEach
+    void setUp() {
+        marketPriceCache = mock(MarketPriceCache.class);
+        when(marketPriceCache.getPrice("bitcoin")).thenReturn(PRICE);
+        quoter = quoter(SECRET, 5_000);
+    }
+
+    @Test
+    void redeemReturnsTheQuotedPrice() {
+        String token = quoter.quote(userId, btc, TradeType.BUY, QUANTITY).getQuoteToken();
+
+        assertEquals(0, quoter.redeem(token, userId, btc, TradeType.BUY, new BigDecimal("0.50")).compareTo(PRICE));
+    }
+
+    @Test
+    void tamperedPayloadIsRejected() {
+        String token = quoter.quote(userId, btc, TradeType.BUY, QUANTITY).getQuoteToken();
+        int dot = token.indexOf('.');
+        String payload = new String(Base64.getUrlDecoder().decode(token.substring(0, dot)), StandardCharsets.UTF_8);
+        String cheaper = payload.replace("|" + PRICE.toPlainString() + "|", "|1|");
+        String forged = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(cheaper.getBytes(StandardCharsets.UTF_8)) + token.substring(dot);
+
+        assertThrows(InvalidTokenException.class,
+                () -> quoter.redeem(forged, userId, btc, TradeType.BUY, QUANTITY));
+    }
+
+    @Test
+    void tokenSignedWithAnotherSecretIsRejected() {
+        String token = quoter("another-secret-of-at-least-32-bytes!!", 5_000)
+                .quote(userId, btc, TradeType.BUY, QUANTITY).getQuoteToken();
+
+        assertThrows(InvalidTokenException.class,
+                () -> quoter.redeem(token, userId, btc, TradeType.BUY, QUANTITY));
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        assertThrows(InvalidTokenException.class,
+                () -> quoter.redeem("not-a-token", userId, btc, TradeType.BUY, QUANTITY));
+    }
+
+    @Test
+    void quoteForAnotherUserIsRejected() {
+        String token = quoter.quote(userId, btc, TradeType.BUY, QUANTITY).getQuoteToken();
+
+        assertThrows(InvalidTokenException.class,
+                () -> quoter.redeem(token, UUID.randomUUID(), btc, TradeType.BUY, QUANTITY));
+    }
+
+    @Test
+    void quoteForAnotherCoinIsRejected() {
+        String token = quoter.quote(userId, btc, TradeType.BUY, QUANTITY).getQuoteToken();
+
+        assertThrows(InvalidTokenException.class,
+                () -> quoter.redeem(token, userId, eth, TradeType.BUY, QUANTITY));
+    }
+
+    @Test
+    void quoteForTheOtherSideIsRejected() {
+        String token = quoter.quote(userId, btc, TradeType.BUY, QUANTITY).getQuoteToken();
+
+        assertThrows(InvalidTokenException.class,
+                () -> quoter.redeem(token, userId, btc, TradeType.SELL, QUANTITY));
+    }
+
+    @Test
+    void quoteForAnotherQuantityIsRejected() {
+        String token = quoter.quote(userId, btc, TradeType.BUY, QUANTITY).getQuoteToken();
+
+        assertThrows(InvalidTokenException.class,
+                () -> quoter.redeem(token, userId, btc, TradeType.BUY, new BigDecimal("5")));
+    }
+
+    @Test
+    void expiredQuoteIsRejected() {
+        TradeQuoter instant = quoter(SECRET, 0);
+        String token = instant.quote(userId, btc, TradeType.BUY, QUANTITY).getQuoteToken();
+
+        assertThrows(ConflictException.class,
+                () -> instant.redeem(token, userId, btc, TradeType.BUY, QUANTITY));
+    }
+
+    @Test
+    void missingOrShortSecretFailsStartup() {
+        assertThrows(IllegalStateException.class, () -> quoter(null, 5_000));
+        assertThrows(IllegalStateException.class, () -> quoter("   ", 5_000));
+        assertThrows(IllegalStateException.class, () -> quoter("too-short-secret", 5_000));
+    }
+
+    private TradeQuoter quoter(String secret, long ttlMs) {
+        return new TradeQuoter(marketPriceCache, new SimpleMeterRegistry(), secret, ttlMs);
+    }
+}
@@ -0,0 +1,228 @@
+package com.web.TradeApp.feature.coin.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.web.TradeApp.exception.CoinNotFoundException;
+import com.web.TradeApp.exception.InsufficientBalanceException;
+import com.web.TradeApp.feature.admin.service.AdminTreasury;
+import com.web.TradeApp.feature.coin.dto.BatchLegResult;
+import com.web.TradeApp.feature.coin.dto.BatchTradeLeg;
+import com.web.TradeApp.feature.coin.dto.BatchTradeRequest;
+import com.web.TradeApp.feature.coin.dto.BatchTradeResponse;
+import com.web.TradeApp.feature.coin.dto.TradeResponse;
+import com.web.TradeApp.feature.coin.entity.Coin;
+import com.web.TradeApp.feature.coin.entity.CoinHolding;
+import com.web.TradeApp.feature.coin.entity.Transaction;
+import com.web.TradeApp.feature.coin.entity.Wallet;
+import com.web.TradeApp.feature.coin.mapper.TradeMapper;
+import com.web.TradeApp.feature.coin.repository.CoinHoldingRepository;
+import com.web.TradeApp.feature.coin.repository.TransactionRepository;
+import com.web.TradeApp.feature.coin.repository.WalletRepository;
+import com.web.TradeApp.feature.common.entity.BaseTrade.TradeType;
+import com.web.TradeApp.utils.OptimisticRetry;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * {@link TradeServiceImpl#executeBatch}: all-or-nothing batches leave no
+ * write behind when a leg is rejected, best-effort batches write only the
+ * legs that fit.
+ */
+class TradeServiceBatchTest {
+
+    private final UUID userId = UUID.randomUUID();
+    private final Coin btc = coin("bitcoin", "BTC");
+    private final Coin eth = coin("ethereum", "ETH");
+
+    private Wallet wallet;
+    private WalletRepository walletRepository;
+    private CoinHoldingRepository coinHoldingRepository;
+    private TransactionRepository transactionRepository;
+    private TransactionTemplate transactionTemplate;
+    private AdminTreasury.Netting netting;
+    private TradeServiceImpl tradeService;
+
+    @BeforeEach
+    void setUp() {
+        wallet = Wallet.builder().balance(new BigDecimal("1000")).build();
+        wallet.setId(UUID.randomUUID());
+
+        walletRepository = mock(WalletRepository.class);
+        when(walletRepository.findByUserId(userId)).thenReturn(Optional.of(wallet));
+
+        coinHoldingRepository = mock(CoinHoldingRepository.class);
+        when(coinHoldingRepository.findByWalletIdAndCoinIdIn(any(), anyCollection())).thenReturn(new ArrayList<>());
+        when(coinHoldingRepository.findByWalletIdAndCoinId(any(), any())).thenReturn(Optional.empty());
+
+        transactionRepository = mock(TransactionRepository.class);
+        when(transactionRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Runs the callback inline; an exception escaping it is what rolls the real template back
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> invocation
+                .<TransactionCallback<?>>getArgument(0).doInTransaction(mock(TransactionStatus.class)));
+
+        AdminTreasury adminTreasury = mock(AdminTreasury.class);
+        netting = mock(AdminTreasury.Netting.class);
+        when(adminTreasury.open()).thenReturn(netting);
+        when(netting.tryDebitCoin(any(), any())).thenReturn(true);
+        when(netting.tryDebitUsdt(any())).thenReturn(true);
+
+        CoinCatalog coinCatalog = mock(CoinCatalog.class);
+        when(coinCatalog.findBySymbol(anyString())).thenReturn(Optional.empty());
+        when(coinCatalog.findBySymbol("BTC")).thenReturn(Optional.of(btc));
+        when(coinCatalog.findBySymbol("ETH")).thenReturn(Optional.of(eth));
+
+        MarketPriceCache marketPriceCache = mock(MarketPriceCache.class);
+        when(marketPriceCache.getPrice("bitcoin")).thenReturn(new BigDecimal("50000"));
+        when(marketPriceCache.getPrice("ethereum")).thenReturn(new BigDecimal("3000"));
+
+        TradeMapper tradeMapper = mock(TradeMapper.class);
+        when(tradeMapper.toTradeResponse(any())).thenAnswer(invocation -> new TradeResponse());
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        tradeService = new TradeServiceImpl(walletRepository, coinCatalog, coinHoldingRepository,
+                transactionRepository, adminTreasury, tradeMapper, marketPriceCache, transactionTemplate,
+                new OptimisticRetry(registry, 1, 0, 0), new WalletSequencer(registry, false, 1, 1),
+                mock(TradeQuoter.class));
+    }
+
+    @Test
+    void allOrNothingWritesNothingWhenALegIsRejected() {
+        // 0.01 BTC costs 500.5 with fee, 1 ETH 3000.3: the second leg does not fit
+        BatchTradeRequest request = batch(BatchTradeRequest.Mode.ALL_OR_NOTHING,
+                leg("BTC", TradeType.BUY, "0.01"), leg("ETH", TradeType.BUY, "1"));
+
+        assertThrows(InsufficientBalanceException.class, () -> tradeService.executeBatch(userId, request));
+
+        verify(walletRepository, never()).save(any());
+        verify(netting, never()).flush();
+        verify(coinHoldingRepository, never()).saveAll(anyList());
+        verify(transactionRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void allOrNothingRejectsAnUnknownCoinBeforeTheTransaction() {
+        BatchTradeRequest request = batch(BatchTradeRequest.Mode.ALL_OR_NOTHING,
+                leg("BTC", TradeType.BUY, "0.01"), leg("NOPE", TradeType.BUY, "1"));
+
+        assertThrows(CoinNotFoundException.class, () -> tradeService.executeBatch(userId, request));
+
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    void bestEffortWritesOnlyTheLegsThatFit() {
+        BatchTradeRequest request = batch(BatchTradeRequest.Mode.BEST_EFFORT,
+                leg("BTC", TradeType.BUY, "0.01"), leg("ETH", TradeType.BUY, "1"));
+
+        BatchTradeResponse response = tradeService.executeBatch(userId, request);
+
+        assertEquals(1, response.getFilled());
+        assertEquals(1, response.getRejected());
+        assertEquals(BatchLegResult.Status.FILLED, response.getLegs().get(0).getStatus());
+        assertEquals(BatchLegResult.Status.REJECTED, response.getLegs().get(1).getStatus());
+        assertEquals(0, response.getNewWalletBalance().compareTo(new BigDecimal("499.5")));
+
+        verify(walletRepository).save(wallet);
+        verify(netting).flush();
+        assertEquals(List.of(TradeType.BUY), savedTransactionTypes());
+    }
+
+    @Test
+    void bestEffortReportsAnUnknownCoinAndFillsTheRest() {
+        BatchTradeRequest request = batch(BatchTradeRequest.Mode.BEST_EFFORT,
+                leg("NOPE", TradeType.BUY, "1"), leg("BTC", TradeType.BUY, "0.01"));
+
+        BatchTradeResponse response = tradeService.executeBatch(userId, request);
+
+        assertEquals(BatchLegResult.Status.REJECTED, response.getLegs().get(0).getStatus());
+        assertEquals(BatchLegResult.Status.FILLED, response.getLegs().get(1).getStatus());
+        assertEquals(List.of(TradeType.BUY), savedTransactionTypes());
+    }
+
+    @Test
+    void bestEffortWithEveryLegRejectedWritesNothing() {
+        BatchTradeRequest request = batch(BatchTradeRequest.Mode.BEST_EFFORT,
+                leg("ETH", TradeType.BUY, "1"), leg("ETH", TradeType.SELL, "1"));
+
+        BatchTradeResponse response = tradeService.executeBatch(userId, request);
+
+        assertEquals(0, response.getFilled());
+        assertEquals(0, response.getNewWalletBalance().compareTo(new BigDecimal("1000")));
+        verify(walletRepository, never()).save(any());
+        verify(netting, never()).flush();
+    }
+
+    @Test
+    void sellProceedsFundTheBuysOfTheSameBatch() {
+        wallet.setBalance(BigDecimal.ZERO);
+        CoinHolding ethHolding = CoinHolding.builder()
+                .wallet(wallet)
+                .coin(eth)
+                .amount(BigDecimal.ONE)
+                .averageBuyPrice(new BigDecimal("2000"))
+                .build();
+        ethHolding.setId(UUID.randomUUID());
+        when(coinHoldingRepository.findByWalletIdAndCoinIdIn(any(), anyCollection()))
+                .thenReturn(new ArrayList<>(List.of(ethHolding)));
+
+        // The buy comes first in the request but runs after the sell
+        BatchTradeRequest request = batch(BatchTradeRequest.Mode.ALL_OR_NOTHING,
+                leg("BTC", TradeType.BUY, "0.01"), leg("ETH", TradeType.SELL, "1"));
+
+        BatchTradeResponse response = tradeService.executeBatch(userId, request);
+
+        assertEquals(2, response.getFilled());
+        // 3000 - 3 fee in, 500.5 out
+        assertEquals(0, response.getNewWalletBalance().compareTo(new BigDecimal("2496.5")));
+        assertEquals(List.of(TradeType.SELL, TradeType.BUY), savedTransactionTypes());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<TradeType> savedTransactionTypes() {
+        ArgumentCaptor<List<Transaction>> saved = ArgumentCaptor.forClass(List.class);
+        verify(transactionRepository).saveAll(saved.capture());
+        return saved.getValue().stream().map(Transaction::getType).toList();
+    }
+
+    private static BatchTradeRequest batch(BatchTradeRequest.Mode mode, BatchTradeLeg... legs) {
+        return BatchTradeRequest.builder().mode(mode).legs(List.of(legs)).build();
+    }
+
+    private static BatchTradeLeg leg(String symbol, TradeType side, String quantity) {
+        return BatchTradeLeg.builder().coinSymbol(symbol).side(side).quantity(new BigDecimal(quantity)).build();
+    }
+
+    private static Coin coin(String coinGeckoId, String symbol) {
+        Coin coin = Coin.builder()
+                .coinGeckoId(coinGeckoId)
+                .symbol(symbol)
+                .fee(new BigDecimal("0.1")) // 0.1%
+                .build();
+        coin.setId(UUID.randomUUID());
+        return coin;
+    }
+}
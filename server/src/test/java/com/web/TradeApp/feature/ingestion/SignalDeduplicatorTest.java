@@ -0,0 +1,115 @@
+package com.web.TradeApp.feature.ingestion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+
+import com.web.TradeApp.feature.ingestion.SignalDeduplicator.Outcome;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Claim / commit / release outcomes and generation rotation. Rotation is
+ * driven by size here (a one-hour window never elapses during the test).
+ */
+class SignalDeduplicatorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final UUID bot = UUID.randomUUID();
+
+    @Test
+    void firstDeliveryIsClaimedAndCommittedOneIsDuplicate() {
+        SignalDeduplicator dedup = deduplicator(1000);
+
+        assertEquals(Outcome.CLAIMED, dedup.claim(bot, "k1"));
+        dedup.commit(bot, "k1");
+
+        assertEquals(Outcome.DUPLICATE, dedup.claim(bot, "k1"));
+        assertEquals(1.0, meterRegistry.get("ingestion.signals.duplicates").counter().count());
+    }
+
+    @Test
+    void redeliveryWhileClaimedIsInFlight() {
+        SignalDeduplicator dedup = deduplicator(1000);
+
+        assertEquals(Outcome.CLAIMED, dedup.claim(bot, "k1"));
+
+        assertEquals(Outcome.IN_FLIGHT, dedup.claim(bot, "k1"));
+        assertEquals(1.0, meterRegistry.get("ingestion.signals.in_flight_redeliveries").counter().count());
+    }
+
+    @Test
+    void releasedKeyCanBeClaimedAgain() {
+        SignalDeduplicator dedup = deduplicator(1000);
+        dedup.claim(bot, "k1");
+
+        dedup.release(bot, "k1");
+
+        assertEquals(Outcome.CLAIMED, dedup.claim(bot, "k1"));
+    }
+
+    @Test
+    void keysAreScopedPerBot() {
+        SignalDeduplicator dedup = deduplicator(1000);
+        dedup.claim(bot, "k1");
+        dedup.commit(bot, "k1");
+
+        assertEquals(Outcome.CLAIMED, dedup.claim(UUID.randomUUID(), "k1"));
+    }
+
+    @Test
+    void keysSurviveOneRotationAndAreForgottenAfterTwo() {
+        // Two entries per generation
+        SignalDeduplicator dedup = deduplicator(4);
+        claimAndCommit(dedup, "k1");
+        claimAndCommit(dedup, "k2");
+
+        // Current generation is full: this claim rotates k1, k2 into the previous one
+        claimAndCommit(dedup, "k3");
+        assertEquals(Outcome.DUPLICATE, dedup.claim(bot, "k1"));
+
+        claimAndCommit(dedup, "k4");
+        // Rotates again: k1, k2 are dropped with the old previous generation
+        claimAndCommit(dedup, "k5");
+
+        assertEquals(Outcome.DUPLICATE, dedup.claim(bot, "k3"));
+        assertEquals(Outcome.CLAIMED, dedup.claim(bot, "k1"));
+    }
+
+    @Test
+    void keyClaimedBeforeRotationIsCommittedAfterIt() {
+        SignalDeduplicator dedup = deduplicator(4);
+        assertEquals(Outcome.CLAIMED, dedup.claim(bot, "k1"));
+        assertEquals(Outcome.CLAIMED, dedup.claim(bot, "k2"));
+
+        // Rotates: k1 (still in flight) moves to the previous generation
+        assertEquals(Outcome.CLAIMED, dedup.claim(bot, "k3"));
+        assertEquals(Outcome.IN_FLIGHT, dedup.claim(bot, "k1"));
+
+        dedup.commit(bot, "k1");
+        assertEquals(Outcome.DUPLICATE, dedup.claim(bot, "k1"));
+    }
+
+    @Test
+    void releaseAfterRotationFreesThePreviousGeneration() {
+        SignalDeduplicator dedup = deduplicator(4);
+        dedup.claim(bot, "k1");
+        dedup.claim(bot, "k2");
+        dedup.claim(bot, "k3"); // Rotates k1, k2 into the previous generation
+
+        dedup.release(bot, "k1");
+
+        assertEquals(Outcome.CLAIMED, dedup.claim(bot, "k1"));
+    }
+
+    private void claimAndCommit(SignalDeduplicator dedup, String key) {
+        assertEquals(Outcome.CLAIMED, dedup.claim(bot, key));
+        dedup.commit(bot, key);
+    }
+
+    private SignalDeduplicator deduplicator(int maxEntries) {
+        return new SignalDeduplicator(meterRegistry, 3600, maxEntries);
+    }
+}
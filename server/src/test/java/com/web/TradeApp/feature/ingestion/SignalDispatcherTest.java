@@ -0,0 +1,129 @@
+package com.web.TradeApp.feature.ingestion;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.web.TradeApp.feature.aibot.model.Bot;
+import com.web.TradeApp.feature.aibot.model.BotSignal;
+import com.web.TradeApp.feature.aibot.repository.BotSignalRepository;
+import com.web.TradeApp.feature.aibot.service.subscription.BotSubscriptionService;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Lane overflow: once a signal of a bot is left PENDING, no later signal of
+ * that bot reaches the fan-out before it, even when the lane has room again.
+ */
+class SignalDispatcherTest {
+
+    private final Bot bot = bot();
+
+    // Signal ids in the order the fan-out ran them
+    private final List<UUID> fannedOut = new ArrayList<>();
+    private final CountDownLatch firstStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirst = new CountDownLatch(1);
+
+    private BotSignalRepository signalRepository;
+    private SignalDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        BotSubscriptionService fanOut = mock(BotSubscriptionService.class);
+        doAnswer(invocation -> {
+            BotSignal signal = invocation.getArgument(0);
+            synchronized (fannedOut) {
+                fannedOut.add(signal.getId());
+            }
+            firstStarted.countDown();
+            releaseFirst.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(fanOut).processSubscriptions(any());
+
+        signalRepository = mock(BotSignalRepository.class);
+        // Two tasks fit in the lane besides the running one
+        dispatcher = new SignalDispatcher(fanOut, signalRepository, new SimpleMeterRegistry(), 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        releaseFirst.countDown();
+        dispatcher.stop();
+    }
+
+    @Test
+    void signalsAfterAnOverflowWaitForTheBacklog() throws InterruptedException {
+        BotSignal first = signal();
+        BotSignal second = signal();
+        BotSignal third = signal();
+        BotSignal overflow = signal();
+        BotSignal later = signal();
+
+        dispatcher.dispatch(first);
+        assertTrue(firstStarted.await(5, TimeUnit.SECONDS));
+        dispatcher.dispatch(second);
+        dispatcher.dispatch(third);
+        dispatcher.dispatch(overflow);
+
+        assertTrue(dispatcher.isBacklogged(bot.getId()));
+        assertFalse(dispatcher.isInFlight(overflow.getId()));
+
+        // The lane drains, but the bot is still backlogged
+        releaseFirst.countDown();
+        waitUntil(() -> !dispatcher.isInFlight(third.getId()));
+        dispatcher.dispatch(later);
+        assertFalse(dispatcher.isInFlight(later.getId()));
+
+        // The sweep re-queues the waiting signals from the table, oldest first
+        when(signalRepository.findUnfinishedByBot(eq(bot.getId()), any())).thenReturn(List.of(overflow, later));
+        dispatcher.resumeBacklogs();
+        assertFalse(dispatcher.isBacklogged(bot.getId()));
+        waitUntil(() -> !dispatcher.isInFlight(later.getId()));
+
+        assertEquals(List.of(first.getId(), second.getId(), third.getId(), overflow.getId(), later.getId()),
+                fannedOut());
+    }
+
+    private List<UUID> fannedOut() {
+        synchronized (fannedOut) {
+            return List.copyOf(fannedOut);
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+            Thread.sleep(5);
+        }
+    }
+
+    private BotSignal signal() {
+        BotSignal signal = new BotSignal();
+        signal.setId(UUID.randomUUID());
+        signal.setBot(bot);
+        return signal;
+    }
+
+    private static Bot bot() {
+        Bot bot = Bot.builder().name("test-bot").build();
+        bot.setId(UUID.randomUUID());
+        return bot;
+    }
+}
@@ -0,0 +1,235 @@
+package com.web.TradeApp.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Ordering and concurrency guarantees of the lanes: FIFO per key, no two
+ * tasks of a key at once, keys independent of each other, full lanes refuse
+ * work, and no task is stranded when a lane goes idle (and is removed) while
+ * work arrives.
+ */
+class KeyedSerialExecutorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final KeyedSerialExecutor<String> lanes = new KeyedSerialExecutor<>("test", 10_000, meterRegistry);
+
+    @AfterEach
+    void tearDown() {
+        lanes.shutdown(5, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void tasksOfOneKeyRunInSubmissionOrder() throws InterruptedException {
+        int tasks = 5_000;
+        List<Integer> ran = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(tasks);
+
+        for (int i = 0; i < tasks; i++) {
+            int n = i;
+            assertTrue(lanes.offer("bot", () -> {
+                synchronized (ran) {
+                    ran.add(n);
+                }
+                done.countDown();
+            }));
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        for (int i = 0; i < tasks; i++) {
+            assertEquals(i, ran.get(i));
+        }
+    }
+
+    @Test
+    void blockedKeyDoesNotHoldUpOtherKeys() throws InterruptedException {
+        CountDownLatch hotStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch otherRan = new CountDownLatch(1);
+
+        lanes.offer("hot", () -> {
+            hotStarted.countDown();
+            await(release);
+        });
+        lanes.offer("hot", () -> {
+        });
+        assertTrue(hotStarted.await(5, TimeUnit.SECONDS));
+        lanes.offer("other", otherRan::countDown);
+
+        assertTrue(otherRan.await(5, TimeUnit.SECONDS));
+        assertEquals(1, lanes.depth("hot"));
+        release.countDown();
+    }
+
+    @Test
+    void fullLaneRefusesWithoutBlocking() throws InterruptedException {
+        KeyedSerialExecutor<String> small = new KeyedSerialExecutor<>("small", 1, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+        try {
+            small.offer("bot", () -> {
+                started.countDown();
+                await(release);
+                ran.incrementAndGet();
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            assertTrue(small.offer("bot", ran::incrementAndGet)); // Fills the only slot
+
+            assertFalse(small.offer("bot", ran::incrementAndGet));
+            assertFalse(small.submit("bot", ran::incrementAndGet, 50, TimeUnit.MILLISECONDS));
+            assertEquals(2.0, meterRegistry.get("small.rejected").counter().count());
+
+            release.countDown();
+            waitUntil(() -> ran.get() == 2);
+        } finally {
+            small.shutdown(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void failingTaskDoesNotStopItsLane() throws InterruptedException {
+        CountDownLatch next = new CountDownLatch(1);
+
+        lanes.offer("bot", () -> {
+            throw new IllegalStateException("boom");
+        });
+        lanes.offer("bot", next::countDown);
+
+        assertTrue(next.await(5, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Producers submit in short bursts, so lanes keep running empty while new
+     * tasks arrive (the drain hand-off). Every task must run exactly once and
+     * never alongside another task of its key.
+     */
+    @Test
+    void laneGoingIdleNeverStrandsOrDoublesTasks() throws InterruptedException {
+        int producers = 8;
+        int perProducer = 5_000;
+        String[] keys = { "a", "b", "c" };
+        ConcurrentHashMap<String, AtomicInteger> running = new ConcurrentHashMap<>();
+        AtomicInteger overlaps = new AtomicInteger();
+        AtomicInteger ran = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(producers * perProducer);
+
+        ExecutorService pool = Executors.newFixedThreadPool(producers);
+        for (int p = 0; p < producers; p++) {
+            int producer = p;
+            pool.execute(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    String key = keys[(producer + i) % keys.length];
+                    AtomicInteger active = running.computeIfAbsent(key, k -> new AtomicInteger());
+                    lanes.offer(key, () -> {
+                        if (active.incrementAndGet() > 1) {
+                            overlaps.incrementAndGet();
+                        }
+                        ran.incrementAndGet();
+                        active.decrementAndGet();
+                        done.countDown();
+                    });
+                    if (i % 16 == 0) {
+                        Thread.onSpinWait(); // Let the lane drain to empty now and then
+                        Thread.yield();
+                    }
+                }
+            });
+        }
+        pool.shutdown();
+
+        assertTrue(done.await(30, TimeUnit.SECONDS), () -> "ran " + ran.get() + " tasks");
+        assertEquals(producers * perProducer, ran.get());
+        assertEquals(0, overlaps.get());
+    }
+
+    @Test
+    void idleLanesAreRemoved() throws InterruptedException {
+        int keys = 1_000;
+        CountDownLatch done = new CountDownLatch(keys);
+        for (int i = 0; i < keys; i++) {
+            lanes.offer("user-" + i, done::countDown);
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        waitUntil(() -> meterRegistry.get("test.lanes").gauge().value() == 0);
+
+        // A key whose lane was removed gets a fresh one
+        CountDownLatch again = new CountDownLatch(1);
+        assertTrue(lanes.offer("user-0", again::countDown));
+        assertTrue(again.await(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void waitingSubmitGetsTheFreedSlot() throws Exception {
+        KeyedSerialExecutor<String> small = new KeyedSerialExecutor<>("small", 1, meterRegistry);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> ran = new ArrayList<>();
+        try {
+            small.offer("user", () -> {
+                started.countDown();
+                await(release);
+                record(ran, 1);
+            });
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            small.offer("user", () -> record(ran, 2));
+
+            ExecutorService waiter = Executors.newSingleThreadExecutor();
+            var third = waiter.submit(() -> small.submit("user", () -> record(ran, 3), 5, TimeUnit.SECONDS));
+            Thread.sleep(50); // Let it block on the full lane
+            release.countDown();
+
+            assertTrue(third.get(5, TimeUnit.SECONDS));
+            waitUntil(() -> size(ran) == 3);
+            assertEquals(List.of(1, 2, 3), ran);
+            waiter.shutdown();
+        } finally {
+            small.shutdown(5, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void record(List<Integer> ran, int n) {
+        synchronized (ran) {
+            ran.add(n);
+        }
+    }
+
+    private static int size(List<Integer> ran) {
+        synchronized (ran) {
+            return ran.size();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not met within 5s");
+            Thread.sleep(5);
+        }
+    }
+}